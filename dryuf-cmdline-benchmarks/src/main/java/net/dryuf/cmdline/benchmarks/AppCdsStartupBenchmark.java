@@ -0,0 +1,96 @@
+package net.dryuf.cmdline.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Startup of HomeControl sample launcher in new process, with default JDK class data sharing only and with AppCDS
+ * archive recorded by appcds profile of the library.  The launcher is taken from {@code homecontrol.launcher} system
+ * property, {@code target/homecontrol} by default, the archive is expected next to it with {@code .jsa} suffix:
+ *
+ * <pre>
+ * mvn -Pappcds package
+ * java -jar dryuf-cmdline-benchmarks/target/benchmarks.jar AppCdsStartupBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AppCdsStartupBenchmark
+{
+	private static final List<String> ARGUMENTS = Arrays.asList("--id", "my", "door", "--door", "front", "open");
+
+	private List<String> defaultCommand;
+
+	private List<String> appCdsCommand;
+
+	@Setup
+	public void setup()
+	{
+		File launcher = new File(System.getProperty("homecontrol.launcher", "target/homecontrol"));
+		File archive = new File(launcher.getPath()+".jsa");
+		if (!launcher.isFile() || !archive.isFile())
+			throw new IllegalStateException("Launcher or archive not found, build by mvn -Pappcds package: "+archive);
+		defaultCommand = command(launcher, "-Xshare:auto");
+		appCdsCommand = command(launcher, "-XX:SharedArchiveFile="+archive.getPath());
+	}
+
+	@Benchmark
+	public int startDefault() throws Exception
+	{
+		return run(defaultCommand);
+	}
+
+	@Benchmark
+	public int startAppCds() throws Exception
+	{
+		return run(appCdsCommand);
+	}
+
+	private static List<String> command(File launcher, String sharing)
+	{
+		List<String> command = new ArrayList<>();
+		command.add(System.getProperty("java.home")+File.separator+"bin"+File.separator+"java");
+		command.add("-Xmx16m");
+		command.add(sharing);
+		command.add("-jar");
+		command.add(launcher.getPath());
+		command.addAll(ARGUMENTS);
+		return command;
+	}
+
+	private static int run(List<String> command) throws Exception
+	{
+		Process process = new ProcessBuilder(command)
+				.redirectErrorStream(true)
+				.start();
+		try (InputStream input = process.getInputStream()) {
+			byte[] buffer = new byte[4096];
+			while (input.read(buffer) > 0) {
+			}
+		}
+		int exit = process.waitFor();
+		if (exit != 0)
+			throw new IllegalStateException("Launcher failed with exit code "+exit+": "+command);
+		return exit;
+	}
+}
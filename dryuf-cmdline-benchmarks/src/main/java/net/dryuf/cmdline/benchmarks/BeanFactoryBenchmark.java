@@ -0,0 +1,75 @@
+package net.dryuf.cmdline.benchmarks;
+
+import com.google.inject.Guice;
+import net.dryuf.cmdline.app.BeanFactory;
+import net.dryuf.cmdline.app.guice.GuiceBeanFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Steady state of {@link GuiceBeanFactory#createChild} binding options of parent command and getting subcommand from
+ * the child, with new child injector per child and with shared child injectors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BeanFactoryBenchmark
+{
+	private BeanFactory beanFactory;
+
+	private BeanFactory sharedBeanFactory;
+
+	@Setup
+	public void setup()
+	{
+		beanFactory = BenchmarkCommands.createAppContext().getBeanFactory();
+		sharedBeanFactory = GuiceBeanFactory.sharingChildInjectors(Guice.createInjector());
+	}
+
+	@Benchmark
+	public BeanFactory createChild()
+	{
+		return beanFactory.createChild(Collections.singletonMap(
+				BenchmarkCommands.WideCommand.Options.class, new BenchmarkCommands.WideCommand.Options()
+		));
+	}
+
+	@Benchmark
+	public Object createChildAndGetBean()
+	{
+		return beanFactory.createChild(Collections.singletonMap(
+				BenchmarkCommands.WideCommand.Options.class, new BenchmarkCommands.WideCommand.Options()
+		)).getBean(BenchmarkCommands.LeafCommand.class);
+	}
+
+	@Benchmark
+	public BeanFactory createChildShared()
+	{
+		return sharedBeanFactory.createChild(Collections.singletonMap(
+				BenchmarkCommands.WideCommand.Options.class, new BenchmarkCommands.WideCommand.Options()
+		));
+	}
+
+	@Benchmark
+	public Object createChildAndGetBeanShared()
+	{
+		return sharedBeanFactory.createChild(Collections.singletonMap(
+				BenchmarkCommands.WideCommand.Options.class, new BenchmarkCommands.WideCommand.Options()
+		)).getBean(BenchmarkCommands.LeafCommand.class);
+	}
+}
@@ -0,0 +1,410 @@
+package net.dryuf.cmdline.benchmarks;
+
+import com.google.inject.Guice;
+import net.dryuf.cmdline.app.AppContext;
+import net.dryuf.cmdline.app.BeanFactory;
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.guice.GuiceBeanFactoryModule;
+import net.dryuf.cmdline.command.AbstractCommand;
+import net.dryuf.cmdline.command.AbstractParentCommand;
+import net.dryuf.cmdline.command.Command;
+import net.dryuf.cmdline.command.CommandContext;
+import net.dryuf.cmdline.command.HelpOfHelpCommand;
+import net.dryuf.cmdline.command.RootCommandContext;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.function.Supplier;
+
+
+/**
+ * Command trees used by benchmarks.
+ *
+ * The commands use only the API available since first releases, so the same benchmarks can be run against older
+ * versions and the results compared.
+ */
+public class BenchmarkCommands
+{
+	/** Number of subcommands of {@link WideCommand}. */
+	public static final int WIDE_SIZE = 400;
+
+	/** Maximum depth of {@link DeepCommand} nesting. */
+	public static final int MAX_DEPTH = 8;
+
+	/** Stream discarding all output. */
+	public static final PrintStream NULL_OUTPUT = new PrintStream(new OutputStream()
+	{
+		@Override
+		public void write(int b)
+		{
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len)
+		{
+		}
+	});
+
+	/**
+	 * Creates Guice based application context.
+	 *
+	 * @return
+	 * 	new application context.
+	 */
+	public static AppContext createAppContext()
+	{
+		return new CommonAppContext(Guice.createInjector(new GuiceBeanFactoryModule()).getInstance(BeanFactory.class));
+	}
+
+	/**
+	 * Creates context of main command.
+	 *
+	 * @param appContext
+	 * 	application context
+	 *
+	 * @return
+	 * 	command context of main command.
+	 */
+	public static CommandContext createMainContext(AppContext appContext)
+	{
+		return new RootCommandContext(appContext).createChild(null, "bench", null);
+	}
+
+	/**
+	 * Runs full lifecycle of main command.
+	 *
+	 * @param appContext
+	 * 	application context
+	 * @param commandClass
+	 * 	main command class
+	 * @param args
+	 * 	command line arguments
+	 *
+	 * @return
+	 * 	exit code.
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	public static int run(AppContext appContext, Class<? extends Command> commandClass, List<String> args) throws Exception
+	{
+		Command command = appContext.getBeanFactory().getBean(commandClass);
+		int ret = command.setup(createMainContext(appContext), args);
+		if (ret != Command.EXIT_CONTINUE)
+			return ret;
+		return command.execute();
+	}
+
+	/**
+	 * Builds arguments of leaf command.
+	 *
+	 * @param prefix
+	 * 	arguments leading to leaf command
+	 *
+	 * @return
+	 * 	full argument list.
+	 */
+	public static List<String> leafArguments(String... prefix)
+	{
+		List<String> args = new ArrayList<>(Arrays.asList(prefix));
+		args.addAll(Arrays.asList(
+				"--name", "benchmark", "--count", "10", "--flag", "--tag", "one", "--tag", "two",
+				"first.txt", "second.txt", "third.txt"
+		));
+		return Collections.unmodifiableList(args);
+	}
+
+	/**
+	 * Parent command with {@link #WIDE_SIZE} subcommands.
+	 */
+	public static class WideCommand extends AbstractParentCommand
+	{
+		private static final Map<String, Class<? extends Command>> SUB_COMMANDS;
+
+		private static final Map<String, String> COMMANDS_DESCRIPTION;
+
+		static {
+			Map<String, Class<? extends Command>> subCommands = new LinkedHashMap<>();
+			Map<String, String> commandsDescription = new LinkedHashMap<>();
+			for (int i = 0; i < WIDE_SIZE; ++i) {
+				subCommands.put("command"+i, LeafCommand.class);
+				commandsDescription.put("command"+i+" options... files...",
+						"Runs leaf command number "+i+", the description being long enough to be wrapped on "+
+								"standard terminal width, like most of real world descriptions");
+			}
+			SUB_COMMANDS = Collections.unmodifiableMap(subCommands);
+			COMMANDS_DESCRIPTION = Collections.unmodifiableMap(commandsDescription);
+		}
+
+		private Options options;
+
+		@Override
+		protected void createOptions(CommandContext context)
+		{
+			this.options = new Options();
+		}
+
+		@Override
+		protected boolean parseOption(CommandContext context, String arg, ListIterator<String> args) throws Exception
+		{
+			switch (arg) {
+			case "-v":
+			case "--verbose":
+				options.verbose = true;
+				return true;
+
+			default:
+				return super.parseOption(context, arg, args);
+			}
+		}
+
+		@Override
+		protected Map<String, String> configOptionsDescription(CommandContext context)
+		{
+			return Collections.singletonMap("-v, --verbose", "verbose output");
+		}
+
+		@Override
+		protected Map<String, Class<? extends Command>> configSubCommands(CommandContext context)
+		{
+			return SUB_COMMANDS;
+		}
+
+		@Override
+		protected Map<String, String> configCommandsDescription(CommandContext context)
+		{
+			return COMMANDS_DESCRIPTION;
+		}
+
+		@Override
+		protected CommandContext createChildContext(CommandContext commandContext, String name, boolean isHelp)
+		{
+			return commandContext.createChild(this, name, Collections.singletonMap(Options.class, options));
+		}
+
+		public static class Options
+		{
+			boolean verbose;
+		}
+	}
+
+	/**
+	 * Parent command nesting itself, each level binding its own options class.
+	 */
+	public static class DeepCommand extends AbstractParentCommand
+	{
+		private static final List<Supplier<Options>> LEVELS = Arrays.asList(
+				Level0::new, Level1::new, Level2::new, Level3::new,
+				Level4::new, Level5::new, Level6::new, Level7::new
+		);
+
+		private static final Map<String, Class<? extends Command>> SUB_COMMANDS;
+
+		static {
+			Map<String, Class<? extends Command>> subCommands = new LinkedHashMap<>();
+			subCommands.put("help", HelpOfHelpCommand.class);
+			subCommands.put("next", DeepCommand.class);
+			subCommands.put("leaf", LeafCommand.class);
+			SUB_COMMANDS = Collections.unmodifiableMap(subCommands);
+		}
+
+		private Options options;
+
+		@Override
+		protected void createOptions(CommandContext context)
+		{
+			int depth = 0;
+			for (CommandContext parent = context.getParentContext(); parent != null; parent = parent.getParentContext())
+				++depth;
+			this.options = LEVELS.get(depth-1).get();
+		}
+
+		@Override
+		protected Map<String, Class<? extends Command>> configSubCommands(CommandContext context)
+		{
+			return SUB_COMMANDS;
+		}
+
+		@Override
+		protected Map<String, String> configCommandsDescription(CommandContext context)
+		{
+			return Collections.singletonMap("next|leaf", "Goes one level deeper or runs leaf command");
+		}
+
+		@Override
+		protected CommandContext createChildContext(CommandContext commandContext, String name, boolean isHelp)
+		{
+			return commandContext.createChild(this, name, Collections.singletonMap(options.getClass(), options));
+		}
+
+		public static class Options
+		{
+		}
+
+		public static class Level0 extends Options {}
+		public static class Level1 extends Options {}
+		public static class Level2 extends Options {}
+		public static class Level3 extends Options {}
+		public static class Level4 extends Options {}
+		public static class Level5 extends Options {}
+		public static class Level6 extends Options {}
+		public static class Level7 extends Options {}
+
+		/**
+		 * Builds arguments descending to given depth.
+		 *
+		 * @param depth
+		 * 	number of parent commands, at most {@link #MAX_DEPTH}
+		 *
+		 * @return
+		 * 	full argument list.
+		 */
+		public static List<String> arguments(int depth)
+		{
+			String[] prefix = new String[depth];
+			Arrays.fill(prefix, 0, depth-1, "next");
+			prefix[depth-1] = "leaf";
+			return leafArguments(prefix);
+		}
+	}
+
+	/**
+	 * Leaf command with typical options and parameters.
+	 */
+	public static class LeafCommand extends AbstractCommand
+	{
+		private static final Map<String, String> OPTIONS_DESCRIPTION;
+
+		static {
+			Map<String, String> optionsDescription = new LinkedHashMap<>();
+			optionsDescription.put("--name name", "name of the object to process");
+			optionsDescription.put("--count count", "number of repetitions, defaults to one");
+			optionsDescription.put("--flag", "enables the feature described by rather long sentence, so it wraps");
+			optionsDescription.put("--tag tag", "tag to apply, can be specified multiple times");
+			optionsDescription.put("--output file", "output file, standard output if not specified");
+			optionsDescription.put("--format format", "output format, one of text, json, yaml, each of them having "+
+					"its own specifics explained in documentation");
+			optionsDescription.put("--dry-run", "do not execute, only print what would be done");
+			optionsDescription.put("--timeout duration", "timeout of operation");
+			OPTIONS_DESCRIPTION = Collections.unmodifiableMap(optionsDescription);
+		}
+
+		private Options options;
+
+		@Override
+		protected void createOptions(CommandContext context)
+		{
+			this.options = new Options();
+		}
+
+		@Override
+		protected boolean parseOption(CommandContext context, String arg, ListIterator<String> args) throws Exception
+		{
+			switch (arg) {
+			case "--name":
+				options.name = needArgsParam(options.name, args);
+				return true;
+
+			case "--count":
+				options.count = Integer.parseInt(needArgsParam(options.count == 0 ? null : options.count, args));
+				return true;
+
+			case "--flag":
+				options.flag = true;
+				return true;
+
+			case "--tag":
+				options.tags.add(needArgsParam(null, args));
+				return true;
+
+			default:
+				return super.parseOption(context, arg, args);
+			}
+		}
+
+		@Override
+		protected int parseNonOptions(CommandContext context, ListIterator<String> args) throws Exception
+		{
+			while (args.hasNext())
+				options.files.add(args.next());
+			return EXIT_CONTINUE;
+		}
+
+		@Override
+		protected int validateOptions(CommandContext context, ListIterator<String> args) throws Exception
+		{
+			if (options.name == null)
+				return usage(context, "Option --name not specified");
+			return EXIT_CONTINUE;
+		}
+
+		@Override
+		protected Map<String, String> configOptionsDescription(CommandContext context)
+		{
+			return OPTIONS_DESCRIPTION;
+		}
+
+		@Override
+		protected Map<String, String> configParametersDescription(CommandContext context)
+		{
+			return Collections.singletonMap("files...", "files to process");
+		}
+
+		@Override
+		public int execute() throws Exception
+		{
+			return options.files.size() == 3 ? EXIT_SUCCESS : EXIT_FAILURE;
+		}
+
+		/**
+		 * Formats options of this command.
+		 *
+		 * @param context
+		 * 	command context
+		 *
+		 * @return
+		 * 	formatted options.
+		 */
+		public String formatOwnOptions(CommandContext context)
+		{
+			return formatOptions(context, configOptionsDescription(context));
+		}
+
+		/**
+		 * Prints help of this command.
+		 *
+		 * @param context
+		 * 	command context
+		 *
+		 * @return
+		 * 	exit code.
+		 *
+		 * @throws Exception
+		 * 	in case of error.
+		 */
+		public int printHelp(CommandContext context) throws Exception
+		{
+			return helpThis(context);
+		}
+
+		public static class Options
+		{
+			String name;
+
+			int count;
+
+			boolean flag;
+
+			List<String> tags = new ArrayList<>();
+
+			List<String> files = new ArrayList<>();
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package net.dryuf.cmdline.benchmarks;
+
+import net.dryuf.cmdline.app.AppContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Cold start, the first invocation in fresh JVM, including bean container bootstrap and class loading.  Each fork
+ * measures single invocation, so the number of forks determines the sample size.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class ColdStartBenchmark
+{
+	@Benchmark
+	public int firstWide() throws Exception
+	{
+		AppContext appContext = BenchmarkCommands.createAppContext();
+		return BenchmarkCommands.run(appContext, BenchmarkCommands.WideCommand.class,
+				BenchmarkCommands.leafArguments("command0"));
+	}
+
+	@Benchmark
+	public int firstDeep() throws Exception
+	{
+		AppContext appContext = BenchmarkCommands.createAppContext();
+		return BenchmarkCommands.run(appContext, BenchmarkCommands.DeepCommand.class,
+				BenchmarkCommands.DeepCommand.arguments(BenchmarkCommands.MAX_DEPTH));
+	}
+}
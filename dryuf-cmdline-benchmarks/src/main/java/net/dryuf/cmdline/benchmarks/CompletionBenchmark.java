@@ -0,0 +1,63 @@
+package net.dryuf.cmdline.benchmarks;
+
+import net.dryuf.cmdline.app.AppContext;
+import net.dryuf.cmdline.command.CommandContext;
+import net.dryuf.cmdline.completion.Completer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Completion of command line, as served by dynamic {@code __complete}, through wide and deep command trees.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CompletionBenchmark
+{
+	private CommandContext context;
+
+	private List<String> wideWords;
+
+	private List<String> deepWords;
+
+	@Setup
+	public void setup()
+	{
+		AppContext appContext = BenchmarkCommands.createAppContext();
+		context = BenchmarkCommands.createMainContext(appContext);
+		wideWords = Collections.singletonList("command39");
+		List<String> deep = new ArrayList<>(Collections.nCopies(7, "next"));
+		deep.addAll(Arrays.asList("leaf", "--"));
+		deepWords = Collections.unmodifiableList(deep);
+	}
+
+	@Benchmark
+	public List<String> completeWide() throws Exception
+	{
+		return Completer.complete(new BenchmarkCommands.WideCommand().completion(context), wideWords);
+	}
+
+	@Benchmark
+	public List<String> completeDeep() throws Exception
+	{
+		return Completer.complete(new BenchmarkCommands.DeepCommand().completion(context), deepWords);
+	}
+}
@@ -0,0 +1,82 @@
+package net.dryuf.cmdline.benchmarks;
+
+import net.dryuf.cmdline.app.AppContext;
+import net.dryuf.cmdline.command.CommandContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Steady state of full invocation, dispatched by {@link net.dryuf.cmdline.command.AbstractParentCommand} through
+ * wide and deep command trees.  Includes creating commands and child contexts by bean factory.  The command path of
+ * deep context is measured separately, as it is requested by every usage and help.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DispatchBenchmark
+{
+	private AppContext appContext;
+
+	private List<String> wideArgs;
+
+	@Setup
+	public void setup()
+	{
+		appContext = BenchmarkCommands.createAppContext();
+		wideArgs = BenchmarkCommands.leafArguments("command"+(BenchmarkCommands.WIDE_SIZE-1));
+	}
+
+	@Benchmark
+	public int dispatchWide() throws Exception
+	{
+		return BenchmarkCommands.run(appContext, BenchmarkCommands.WideCommand.class, wideArgs);
+	}
+
+	@Benchmark
+	public int dispatchDeep(Deep deep) throws Exception
+	{
+		return BenchmarkCommands.run(appContext, BenchmarkCommands.DeepCommand.class, deep.args);
+	}
+
+	@Benchmark
+	public String commandPath(Deep deep)
+	{
+		return deep.context.getCommandPath();
+	}
+
+	@State(Scope.Benchmark)
+	public static class Deep
+	{
+		@Param({ "1", "4", "8" })
+		public int depth;
+
+		private List<String> args;
+
+		private CommandContext context;
+
+		@Setup
+		public void setup()
+		{
+			args = BenchmarkCommands.DeepCommand.arguments(depth);
+			context = BenchmarkCommands.createMainContext(BenchmarkCommands.createAppContext());
+			for (int i = 0; i < depth; ++i)
+				context = context.createChild(null, "level"+i, null);
+		}
+	}
+}
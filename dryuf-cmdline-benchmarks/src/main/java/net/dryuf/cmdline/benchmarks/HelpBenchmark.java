@@ -0,0 +1,73 @@
+package net.dryuf.cmdline.benchmarks;
+
+import net.dryuf.cmdline.command.CommandContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Steady state of help rendering, options of leaf command and full help of parent with
+ * {@link BenchmarkCommands#WIDE_SIZE} subcommands.  The output is discarded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HelpBenchmark
+{
+	private PrintStream originalOut;
+
+	private CommandContext context;
+
+	private BenchmarkCommands.LeafCommand leafCommand;
+
+	private BenchmarkCommands.WideCommand wideCommand;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		context = BenchmarkCommands.createMainContext(BenchmarkCommands.createAppContext());
+		leafCommand = new BenchmarkCommands.LeafCommand();
+		wideCommand = new BenchmarkCommands.WideCommand();
+		originalOut = System.out;
+		System.setOut(BenchmarkCommands.NULL_OUTPUT);
+	}
+
+	@TearDown
+	public void teardown()
+	{
+		System.setOut(originalOut);
+	}
+
+	@Benchmark
+	public String formatOptions()
+	{
+		return leafCommand.formatOwnOptions(context);
+	}
+
+	@Benchmark
+	public int helpLeaf() throws Exception
+	{
+		return leafCommand.printHelp(context);
+	}
+
+	@Benchmark
+	public int helpWide() throws Exception
+	{
+		return wideCommand.helpThis(context);
+	}
+}
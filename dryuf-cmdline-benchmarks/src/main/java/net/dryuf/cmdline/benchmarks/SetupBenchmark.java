@@ -0,0 +1,62 @@
+package net.dryuf.cmdline.benchmarks;
+
+import net.dryuf.cmdline.app.AppContext;
+import net.dryuf.cmdline.command.CommandContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Steady state of {@link net.dryuf.cmdline.command.AbstractCommand#setup} parsing options and parameters of single
+ * command.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SetupBenchmark
+{
+	private CommandContext context;
+
+	private List<String> args;
+
+	private List<String> attachedArgs;
+
+	@Setup
+	public void setup()
+	{
+		AppContext appContext = BenchmarkCommands.createAppContext();
+		context = BenchmarkCommands.createMainContext(appContext);
+		args = BenchmarkCommands.leafArguments();
+		attachedArgs = Arrays.asList(
+				"--name=benchmark", "--count=10", "--flag", "--tag=one", "--tag=two",
+				"first.txt", "second.txt", "third.txt"
+		);
+	}
+
+	@Benchmark
+	public int setupLeaf() throws Exception
+	{
+		return new BenchmarkCommands.LeafCommand().setup(context, args);
+	}
+
+	@Benchmark
+	public int setupLeafAttached() throws Exception
+	{
+		return new BenchmarkCommands.LeafCommand().setup(context, attachedArgs);
+	}
+}
@@ -16,6 +16,42 @@ public interface AppContext
 	 */
 	BeanFactory getBeanFactory();
 
+	/**
+	 * Gets executor of command invocations.
+	 *
+	 * @return
+	 * 	command executor, the shared default one unless overridden.
+	 */
+	default CommandExecutor getCommandExecutor()
+	{
+		return CommandExecutor.getDefault();
+	}
+
+	/**
+	 * Gets listener of command lifecycle phases.
+	 *
+	 * @return
+	 * 	lifecycle listener, {@link LifecycleListener#NONE} unless overridden.
+	 */
+	default LifecycleListener getLifecycleListener()
+	{
+		return LifecycleListener.NONE;
+	}
+
+	/**
+	 * Creates AppContext sharing the beans and executor of this one, with different lifecycle listener.
+	 *
+	 * @param lifecycleListener
+	 * 	listener of command lifecycle phases
+	 *
+	 * @return
+	 * 	new context.
+	 */
+	default AppContext withLifecycleListener(LifecycleListener lifecycleListener)
+	{
+		return new CommonAppContext(getBeanFactory(), getCommandExecutor(), lifecycleListener);
+	}
+
 	/**
 	 * Creates child AppContext.
 	 *
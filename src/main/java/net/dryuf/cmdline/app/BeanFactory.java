@@ -1,6 +1,7 @@
 package net.dryuf.cmdline.app;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Map;
 
@@ -39,7 +40,55 @@ public interface BeanFactory
 
 	BeanFactory createChildQualified(Map<Map.Entry<Type, Annotation>, Object> childBeans);
 
+	/**
+	 * Generic type of bean, captured by subclassing, such as {@code new BindingType<List<String>>() {}}.
+	 *
+	 * @param <T>
+	 * 	type of bean
+	 */
 	static class BindingType<T>
 	{
+		private final Type type;
+
+		protected BindingType()
+		{
+			Type superclass = getClass().getGenericSuperclass();
+			if (!(superclass instanceof ParameterizedType))
+				throw new IllegalArgumentException("BindingType must be subclassed with type argument: "+getClass());
+			this.type = ((ParameterizedType) superclass).getActualTypeArguments()[0];
+		}
+
+		private BindingType(Type type)
+		{
+			this.type = type;
+		}
+
+		/**
+		 * Creates binding type from existing type.
+		 *
+		 * @param type
+		 * 	the type
+		 *
+		 * @return
+		 * 	binding type representing the type.
+		 *
+		 * @param <T>
+		 * 	type of bean
+		 */
+		public static <T> BindingType<T> of(Type type)
+		{
+			return new BindingType<>(type);
+		}
+
+		/**
+		 * Gets represented type.
+		 *
+		 * @return
+		 * 	represented type.
+		 */
+		public Type getType()
+		{
+			return type;
+		}
 	}
 }
@@ -0,0 +1,220 @@
+package net.dryuf.cmdline.app;
+
+import net.dryuf.cmdline.command.Command;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Executor of command invocations.
+ *
+ * By default, each invocation runs in its own virtual thread, so many concurrent blocking invocations are cheap.  On
+ * Java runtimes without virtual threads, it falls back to cached pool of platform daemon threads.  The futures
+ * returned by {@link #submit} interrupt the invocation when cancelled.
+ */
+public class CommandExecutor implements Closeable
+{
+	private static volatile CommandExecutor defaultExecutor;
+
+	private final ExecutorService executor;
+
+	private final boolean virtual;
+
+	/**
+	 * Creates executor running invocations by provided executor service.
+	 *
+	 * @param executor
+	 * 	executor service
+	 */
+	public CommandExecutor(ExecutorService executor)
+	{
+		this(executor, false);
+	}
+
+	private CommandExecutor(ExecutorService executor, boolean virtual)
+	{
+		this.executor = executor;
+		this.virtual = virtual;
+	}
+
+	/**
+	 * Creates executor using virtual threads, if supported by current runtime, or platform daemon threads.
+	 *
+	 * @return
+	 * 	new executor.
+	 */
+	public static CommandExecutor create()
+	{
+		try {
+			ExecutorService virtual = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			return new CommandExecutor(virtual, true);
+		}
+		catch (NoSuchMethodException|IllegalAccessException|InvocationTargetException ex) {
+			AtomicInteger counter = new AtomicInteger();
+			return new CommandExecutor(Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "CommandExecutor-"+counter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}));
+		}
+	}
+
+	/**
+	 * Gets shared executor, created by {@link #create()} on first use.
+	 *
+	 * @return
+	 * 	shared executor.
+	 */
+	public static CommandExecutor getDefault()
+	{
+		CommandExecutor local = defaultExecutor;
+		if (local == null) {
+			synchronized (CommandExecutor.class) {
+				if ((local = defaultExecutor) == null)
+					defaultExecutor = local = create();
+			}
+		}
+		return local;
+	}
+
+	/**
+	 * Checks whether the invocations run in virtual threads.
+	 *
+	 * @return
+	 * 	true if virtual threads are used.
+	 */
+	public boolean isVirtual()
+	{
+		return virtual;
+	}
+
+	/**
+	 * Submits invocation.
+	 *
+	 * @param invocation
+	 * 	invocation, returning exit code
+	 *
+	 * @return
+	 * 	future of exit code, interrupting the invocation when cancelled.
+	 */
+	public CompletableFuture<Integer> submit(Callable<Integer> invocation)
+	{
+		InterruptingFuture future = new InterruptingFuture();
+		future.task = executor.submit(() -> {
+			try {
+				future.complete(invocation.call());
+			}
+			catch (Throwable ex) {
+				future.completeExceptionally(ex);
+			}
+		});
+		if (future.isCancelled())
+			future.task.cancel(true);
+		return future;
+	}
+
+	/**
+	 * Runs invocation and waits for its result.  When the timeout expires, the invocation is cancelled and
+	 * {@link Command#EXIT_TIMEOUT} returned.
+	 *
+	 * @param invocation
+	 * 	invocation, returning exit code
+	 * @param timeout
+	 * 	timeout, null for no timeout
+	 * @param error
+	 * 	stream to report timeout to
+	 *
+	 * @return
+	 * 	exit code of invocation or {@link Command#EXIT_TIMEOUT}.
+	 *
+	 * @throws Exception
+	 * 	thrown by invocation.
+	 * @throws InterruptedException
+	 * 	if current thread was interrupted, the invocation is cancelled in such case.
+	 */
+	public int execute(Callable<Integer> invocation, Duration timeout, PrintStream error) throws Exception
+	{
+		return await(submit(invocation), timeout, error);
+	}
+
+	/**
+	 * Waits for result of submitted invocation.  When the timeout expires, the invocation is cancelled and
+	 * {@link Command#EXIT_TIMEOUT} returned.
+	 *
+	 * @param future
+	 * 	future of exit code
+	 * @param timeout
+	 * 	timeout, null for no timeout
+	 * @param error
+	 * 	stream to report timeout to
+	 *
+	 * @return
+	 * 	exit code of invocation or {@link Command#EXIT_TIMEOUT}.
+	 *
+	 * @throws Exception
+	 * 	thrown by invocation.
+	 * @throws InterruptedException
+	 * 	if current thread was interrupted, the invocation is cancelled in such case.
+	 */
+	public static int await(Future<Integer> future, Duration timeout, PrintStream error) throws Exception
+	{
+		try {
+			return timeout == null ? future.get() : future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+		}
+		catch (TimeoutException ex) {
+			future.cancel(true);
+			error.println("Timed out after "+timeout.toMillis()+" ms");
+			return Command.EXIT_TIMEOUT;
+		}
+		catch (InterruptedException ex) {
+			future.cancel(true);
+			throw ex;
+		}
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof Exception)
+				throw (Exception) ex.getCause();
+			if (ex.getCause() instanceof Error)
+				throw (Error) ex.getCause();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Shuts down the executor, interrupting the running invocations.
+	 */
+	@Override
+	public void close()
+	{
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Future interrupting the task when cancelled.
+	 */
+	private static class InterruptingFuture extends CompletableFuture<Integer>
+	{
+		volatile Future<?> task;
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning)
+		{
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			Future<?> local = task;
+			if (cancelled && local != null)
+				local.cancel(true);
+			return cancelled;
+		}
+	}
+}
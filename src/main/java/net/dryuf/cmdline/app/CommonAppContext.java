@@ -15,8 +15,22 @@ public class CommonAppContext implements AppContext
 {
 	private final BeanFactory beanFactory;
 
+	private final CommandExecutor commandExecutor;
+
+	private final LifecycleListener lifecycleListener;
+
+	public CommonAppContext(BeanFactory beanFactory)
+	{
+		this(beanFactory, CommandExecutor.getDefault());
+	}
+
+	public CommonAppContext(BeanFactory beanFactory, CommandExecutor commandExecutor)
+	{
+		this(beanFactory, commandExecutor, LifecycleListener.NONE);
+	}
+
 	public CommonAppContext createChild(Map<Class<?>, Object> beans)
 	{
-		return new CommonAppContext(beanFactory.createChild(beans));
+		return new CommonAppContext(beanFactory.createChild(beans), commandExecutor, lifecycleListener);
 	}
 }
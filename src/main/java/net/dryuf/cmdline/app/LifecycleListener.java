@@ -0,0 +1,73 @@
+package net.dryuf.cmdline.app;
+
+import net.dryuf.cmdline.command.CommandContext;
+
+import java.util.Locale;
+
+
+/**
+ * Listener of command lifecycle phases, provided by {@link AppContext#getLifecycleListener()}.
+ *
+ * The listener is notified after each phase finishes, with the context of command the phase belongs to.  The phases
+ * of parent command include the phases of its subcommand, such as {@link Phase#PARSE_OPTIONS} of parent includes
+ * {@link Phase#CREATE_CHILD} of the subcommand and {@link Phase#EXECUTE} of parent includes execution of the
+ * subcommand.  The listener is called from the invocation threads, concurrently for concurrent invocations.
+ *
+ * When the listener is {@link #NONE}, the phases are not measured at all.
+ */
+@FunctionalInterface
+public interface LifecycleListener
+{
+	/** Listener ignoring the events, the phases are not measured when this one is set. */
+	LifecycleListener NONE = (context, phase, startNanos, durationNanos) -> {};
+
+	/**
+	 * Called when the phase finished.  The phases terminated by exception are not reported.
+	 *
+	 * @param context
+	 * 	context of command the phase belongs to, null for phases outside of command, such as
+	 * 	{@link Phase#BEAN_FACTORY}
+	 * @param phase
+	 * 	finished phase
+	 * @param startNanos
+	 * 	start of phase, in {@link System#nanoTime()} units
+	 * @param durationNanos
+	 * 	duration of phase in nanoseconds
+	 */
+	void phaseFinished(CommandContext context, Phase phase, long startNanos, long durationNanos);
+
+	/**
+	 * Phase of command lifecycle.
+	 */
+	enum Phase
+	{
+		/** Creation of bean factory, such as Guice injector. */
+		BEAN_FACTORY,
+		/** {@code initialize} and {@code createOptions} of command. */
+		INITIALIZE,
+		/** Parsing options and arguments, including creation of subcommand. */
+		PARSE_OPTIONS,
+		/** Validation of options. */
+		VALIDATE_OPTIONS,
+		/** Creation of subcommand context and subcommand instance, reported with the subcommand context. */
+		CREATE_CHILD,
+		/** Execution of command, including its subcommand. */
+		EXECUTE,
+		/** Rendering and printing help. */
+		HELP,
+		;
+
+		private final String displayName = name().toLowerCase(Locale.ROOT).replace('_', '-');
+
+		/**
+		 * Gets name of phase for reports, such as {@code parse-options}.
+		 *
+		 * @return
+		 * 	name of phase.
+		 */
+		public String getDisplayName()
+		{
+			return displayName;
+		}
+	}
+}
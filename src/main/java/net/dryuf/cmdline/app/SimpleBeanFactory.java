@@ -0,0 +1,317 @@
+package net.dryuf.cmdline.app;
+
+import com.google.common.collect.ImmutableMap;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Qualifier;
+import javax.inject.Singleton;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Minimal {@link BeanFactory}, not depending on Guice.
+ *
+ * The factory supports constructor injection only.  The constructor annotated by {@link Inject} or the no-argument
+ * one is used, its arguments are resolved from this factory, including {@link Qualifier} annotated ones and
+ * {@link Provider} of other bean.  The constructors are compiled to {@link MethodHandle}s once per class.
+ *
+ * The beans are bound either to instance or to implementing class, which is created on each request unless
+ * annotated by {@link Singleton}.  Unbound concrete classes are created on demand.  Singletons are created and kept
+ * by the factory where they are bound, unbound ones by the root factory.
+ *
+ * Child factories only point to their parent and hold their own bindings, so creating them is cheap.  Non-singleton
+ * beans are created by the factory they are requested from, so they can consume the beans of the child as well as of
+ * its parents.
+ */
+public class SimpleBeanFactory implements BeanFactory
+{
+	private static final ClassValue<Creator> CREATORS = new ClassValue<Creator>()
+	{
+		@Override
+		protected Creator computeValue(Class<?> type)
+		{
+			return new Creator(type);
+		}
+	};
+
+	private final SimpleBeanFactory parent;
+
+	private final Map<BeanKey, Object> bindings;
+
+	private final Map<BeanKey, Object> singletons = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates root factory with no explicit bindings.
+	 */
+	public SimpleBeanFactory()
+	{
+		this(null, ImmutableMap.of());
+	}
+
+	/**
+	 * Creates root factory.
+	 *
+	 * @param beans
+	 * 	beans, type to instance, to implementing class or to itself if the type is to be created
+	 */
+	public SimpleBeanFactory(Map<Class<?>, Object> beans)
+	{
+		this(null, bindClasses(beans));
+	}
+
+	private SimpleBeanFactory(SimpleBeanFactory parent, Map<BeanKey, Object> bindings)
+	{
+		this.parent = parent;
+		this.bindings = bindings;
+	}
+
+	@Override
+	public <T> T getBean(Type type)
+	{
+		return getBean(new BeanKey(type, null));
+	}
+
+	@Override
+	public <T> T getBean(Type type, Class<? extends Annotation> annotated)
+	{
+		return getBean(new BeanKey(type, annotated));
+	}
+
+	@Override
+	public <T, Q extends Annotation> T getBean(Type type, Q qualifier)
+	{
+		return getBean(BeanKey.ofQualifier(type, qualifier));
+	}
+
+	@Override
+	public <T> T getBean(BindingType<T> type)
+	{
+		return getBean(new BeanKey(type.getType(), null));
+	}
+
+	@Override
+	public BeanFactory createChild(Map<Class<?>, Object> childBeans)
+	{
+		if (childBeans == null)
+			return this;
+		return new SimpleBeanFactory(this, bindClasses(childBeans));
+	}
+
+	@Override
+	public BeanFactory createChildAnnotated(Map<Map.Entry<Type, Class<? extends Annotation>>, Object> childBeans)
+	{
+		if (childBeans == null)
+			return this;
+		Map<BeanKey, Object> bindings = new HashMap<>();
+		childBeans.forEach((key, value) -> bindings.put(new BeanKey(key.getKey(), key.getValue()), value));
+		return new SimpleBeanFactory(this, bindings);
+	}
+
+	@Override
+	public BeanFactory createChildQualified(Map<Map.Entry<Type, Annotation>, Object> childBeans)
+	{
+		if (childBeans == null)
+			return this;
+		Map<BeanKey, Object> bindings = new HashMap<>();
+		childBeans.forEach((key, value) -> bindings.put(BeanKey.ofQualifier(key.getKey(), key.getValue()), value));
+		return new SimpleBeanFactory(this, bindings);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T getBean(BeanKey key)
+	{
+		for (SimpleBeanFactory owner = this; owner != null; owner = owner.parent) {
+			Object value = owner.bindings.get(key);
+			if (value != null) {
+				if (value instanceof Class && isImplementation(key.type, (Class<?>) value))
+					return (T) create(owner, key, (Class<?>) value);
+				return (T) value;
+			}
+		}
+		if (key.qualifier == null) {
+			if (key.type == BeanFactory.class || key.type == SimpleBeanFactory.class)
+				return (T) this;
+			if (key.type instanceof ParameterizedType && ((ParameterizedType) key.type).getRawType() == Provider.class) {
+				BeanKey target = new BeanKey(((ParameterizedType) key.type).getActualTypeArguments()[0], null);
+				return (T) (Provider<Object>) () -> getBean(target);
+			}
+			if (key.type instanceof Class) {
+				SimpleBeanFactory root = this;
+				while (root.parent != null)
+					root = root.parent;
+				return (T) create(root, key, (Class<?>) key.type);
+			}
+		}
+		throw new IllegalArgumentException("No binding for "+key);
+	}
+
+	private Object create(SimpleBeanFactory owner, BeanKey key, Class<?> implementation)
+	{
+		Creator creator = CREATORS.get(implementation);
+		if (!creator.singleton)
+			return creator.create(this);
+		Object instance = owner.singletons.get(key);
+		if (instance == null) {
+			synchronized (owner.singletons) {
+				instance = owner.singletons.get(key);
+				if (instance == null) {
+					instance = creator.create(owner);
+					owner.singletons.put(key, instance);
+				}
+			}
+		}
+		return instance;
+	}
+
+	private static boolean isImplementation(Type type, Class<?> value)
+	{
+		return type == value || type instanceof Class && ((Class<?>) type).isAssignableFrom(value);
+	}
+
+	private static Map<BeanKey, Object> bindClasses(Map<Class<?>, Object> beans)
+	{
+		Map<BeanKey, Object> bindings = new HashMap<>();
+		beans.forEach((clazz, value) -> bindings.put(new BeanKey(clazz, null), value));
+		return bindings;
+	}
+
+	/**
+	 * Binding key, consisting of type and optional qualifier, either annotation class or annotation instance.
+	 */
+	private static final class BeanKey
+	{
+		final Type type;
+
+		final Object qualifier;
+
+		BeanKey(Type type, Object qualifier)
+		{
+			this.type = Objects.requireNonNull(type, "type");
+			this.qualifier = qualifier;
+		}
+
+		static BeanKey ofQualifier(Type type, Annotation qualifier)
+		{
+			if (qualifier == null)
+				return new BeanKey(type, null);
+			// marker annotations are equivalent to their class, the same way as in Guice:
+			return new BeanKey(type, qualifier.annotationType().getDeclaredMethods().length == 0 ? qualifier.annotationType() : qualifier);
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof BeanKey))
+				return false;
+			BeanKey other = (BeanKey) o;
+			return type.equals(other.type) && Objects.equals(qualifier, other.qualifier);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return type.hashCode()*31+Objects.hashCode(qualifier);
+		}
+
+		@Override
+		public String toString()
+		{
+			return qualifier == null ? type.getTypeName() : type.getTypeName()+" qualified by "+qualifier;
+		}
+	}
+
+	/**
+	 * Compiled constructor of class, with its arguments keys.
+	 */
+	private static class Creator
+	{
+		private static final MethodType CREATOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+		final Class<?> type;
+
+		final boolean singleton;
+
+		final BeanKey[] arguments;
+
+		final MethodHandle constructor;
+
+		Creator(Class<?> type)
+		{
+			if (type.isInterface() || Modifier.isAbstract(type.getModifiers()))
+				throw new IllegalArgumentException("Cannot create abstract type, bind it to implementation: "+type);
+			this.type = type;
+			this.singleton = type.isAnnotationPresent(Singleton.class);
+			if (type.getEnclosingClass() != null && !Modifier.isStatic(type.getModifiers()))
+				throw new IllegalArgumentException("Cannot create inner class, make it static: "+type);
+			Constructor<?> constructor = findConstructor(type);
+			Type[] parameterTypes = constructor.getGenericParameterTypes();
+			Annotation[][] parameterAnnotations = constructor.getParameterAnnotations();
+			this.arguments = new BeanKey[parameterTypes.length];
+			for (int i = 0; i < parameterTypes.length; ++i) {
+				Annotation qualifier = null;
+				for (Annotation annotation: parameterAnnotations[i]) {
+					if (annotation.annotationType().isAnnotationPresent(Qualifier.class))
+						qualifier = annotation;
+				}
+				arguments[i] = BeanKey.ofQualifier(parameterTypes[i], qualifier);
+			}
+			try {
+				constructor.setAccessible(true);
+				this.constructor = MethodHandles.lookup().unreflectConstructor(constructor)
+					.asSpreader(Object[].class, arguments.length)
+					.asType(CREATOR_TYPE);
+			}
+			catch (IllegalAccessException ex) {
+				throw new IllegalArgumentException("Cannot access constructor: "+constructor, ex);
+			}
+		}
+
+		Object create(SimpleBeanFactory factory)
+		{
+			Object[] values = new Object[arguments.length];
+			for (int i = 0; i < values.length; ++i)
+				values[i] = factory.getBean(arguments[i]);
+			try {
+				return (Object) constructor.invokeExact(values);
+			}
+			catch (RuntimeException|Error ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new IllegalStateException("Failed to create "+type+": "+ex, ex);
+			}
+		}
+
+		private static Constructor<?> findConstructor(Class<?> type)
+		{
+			Constructor<?> found = null;
+			for (Constructor<?> constructor: type.getDeclaredConstructors()) {
+				if (constructor.isAnnotationPresent(Inject.class)) {
+					if (found != null)
+						throw new IllegalArgumentException("Multiple @Inject constructors: "+type);
+					found = constructor;
+				}
+			}
+			if (found != null)
+				return found;
+			try {
+				return type.getDeclaredConstructor();
+			}
+			catch (NoSuchMethodException ex) {
+				throw new IllegalArgumentException("No @Inject or no-argument constructor: "+type, ex);
+			}
+		}
+	}
+}
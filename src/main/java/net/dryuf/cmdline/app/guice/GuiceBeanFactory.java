@@ -1,50 +1,129 @@
 package net.dryuf.cmdline.app.guice;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.Key;
+import com.google.inject.OutOfScopeException;
+import com.google.inject.Provider;
+import lombok.AccessLevel;
+import lombok.Getter;
 import net.dryuf.cmdline.app.BeanFactory;
 import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
 import com.google.inject.Injector;
-import lombok.AllArgsConstructor;
+import com.google.inject.Module;
+import net.dryuf.cmdline.app.LifecycleListener;
+import net.dryuf.cmdline.jfr.CommandEvents;
 
 import javax.inject.Inject;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
  * Guice based {@link BeanFactory}.
+ *
+ * By default, each child factory creates its own child injector, binding the child beans as instances.  The factory
+ * created by {@link #sharingChildInjectors(Injector)} instead creates child injector once per parent and set of bound
+ * keys and its bindings read the values from overlay of the factory, which is currently requesting the bean.  That
+ * makes the child factory cheap but it is correct only when no singleton depends on child bean (it would be built in
+ * the shared child injector and kept for all later children) and when the child beans are injected directly, while
+ * getting the bean from child factory on the same thread.  Injecting {@link Provider} of child bean and calling it
+ * later is not supported in that mode.
  */
-@AllArgsConstructor(onConstructor = @__(@Inject))
 public class GuiceBeanFactory implements BeanFactory
 {
+	private static final ThreadLocal<GuiceBeanFactory> CURRENT = new ThreadLocal<>();
+
+	@Getter(AccessLevel.PACKAGE)
 	private final Injector injector;
 
-	@SuppressWarnings("unchecked")
+	/** Cache of shared child injectors, null if each child creates its own injector. */
+	private final ChildInjectors childInjectors;
+
+	private final GuiceBeanFactory parent;
+
+	private final Map<Key<?>, Object> overlay;
+
+	/**
+	 * Creates Guice injector with {@link GuiceBeanFactoryModule} and provided modules and gets its bean factory,
+	 * reporting the time to listener as {@link LifecycleListener.Phase#BEAN_FACTORY}.
+	 *
+	 * @param lifecycleListener
+	 * 	listener of lifecycle phases
+	 * @param modules
+	 * 	application modules
+	 *
+	 * @return
+	 * 	bean factory of new injector.
+	 */
+	public static BeanFactory create(LifecycleListener lifecycleListener, Module... modules)
+	{
+		long start = System.nanoTime();
+		List<Module> all = new ArrayList<>(modules.length+1);
+		all.add(new GuiceBeanFactoryModule());
+		all.addAll(Arrays.asList(modules));
+		BeanFactory beanFactory = Guice.createInjector(all).getInstance(BeanFactory.class);
+		lifecycleListener.phaseFinished(null, LifecycleListener.Phase.BEAN_FACTORY, start, System.nanoTime()-start);
+		return beanFactory;
+	}
+
+	/**
+	 * Creates bean factory sharing the child injectors across child factories, see the class description for the
+	 * limitations.
+	 *
+	 * @param injector
+	 * 	Guice injector
+	 *
+	 * @return
+	 * 	bean factory sharing child injectors.
+	 */
+	public static GuiceBeanFactory sharingChildInjectors(Injector injector)
+	{
+		return new GuiceBeanFactory(injector, new ChildInjectors(injector), null, ImmutableMap.of());
+	}
+
+	@Inject
+	public GuiceBeanFactory(Injector injector)
+	{
+		this(injector, null, null, ImmutableMap.of());
+	}
+
+	private GuiceBeanFactory(Injector injector, ChildInjectors childInjectors, GuiceBeanFactory parent, Map<Key<?>, Object> overlay)
+	{
+		this.injector = injector;
+		this.childInjectors = childInjectors;
+		this.parent = parent;
+		this.overlay = overlay;
+	}
+
 	@Override
 	public <T> T getBean(Type type)
 	{
-		return (T) injector.getInstance(Key.get(type));
+		return getBean(Key.get(type));
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public <T> T getBean(Type type, Class<? extends Annotation> annotated)
 	{
-		return (T) injector.getInstance(Key.get(type, annotated));
+		return getBean(Key.get(type, annotated));
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public <T, Q extends Annotation> T getBean(Type type, Q qualifier)
 	{
-		return (T) injector.getInstance(Key.get(type, qualifier));
+		return getBean(Key.get(type, qualifier));
 	}
 
 	@Override
 	public <T> T getBean(BindingType<T> type)
 	{
-		throw new UnsupportedOperationException();
+		return getBean(Key.get(type.getType()));
 	}
 
 	@Override
@@ -52,22 +131,9 @@ public class GuiceBeanFactory implements BeanFactory
 	{
 		if (childBeans == null)
 			return this;
-		return new GuiceBeanFactory(injector.createChildInjector(new AbstractModule()
-		{
-			@SuppressWarnings("unchecked")
-			@Override
-			protected void configure()
-			{
-				childBeans.forEach((clazz, value) -> {
-					if (clazz == value) {
-						bind(clazz);
-					}
-					else {
-						bind((Class<Object>)clazz).toInstance(value);
-					}
-				});
-			}
-		}));
+		Map<Key<?>, Object> bindings = new HashMap<>();
+		childBeans.forEach((clazz, value) -> bindings.put(Key.get(clazz), value));
+		return createOverlay(bindings);
 	}
 
 	@Override
@@ -75,25 +141,13 @@ public class GuiceBeanFactory implements BeanFactory
 	{
 		if (childBeans == null)
 			return this;
-		return new GuiceBeanFactory(injector.createChildInjector(new AbstractModule()
-		{
-			@SuppressWarnings("unchecked")
-			@Override
-			protected void configure()
-			{
-				childBeans.forEach((key, value) -> {
-					Type type = key.getKey();
-					Class<? extends Annotation> annotation = key.getValue();
-					if (type == value) {
-						bind((Class<?>) type);
-					}
-					else {
-						bind((Key<Object>) (annotation == null ? Key.get(type) : Key.get(type, annotation)))
-							.toInstance(value);
-					}
-				});
-			}
-		}));
+		Map<Key<?>, Object> bindings = new HashMap<>();
+		childBeans.forEach((key, value) -> {
+			Type type = key.getKey();
+			Class<? extends Annotation> annotation = key.getValue();
+			bindings.put(annotation == null ? Key.get(type) : Key.get(type, annotation), value);
+		});
+		return createOverlay(bindings);
 	}
 
 	@Override
@@ -101,24 +155,169 @@ public class GuiceBeanFactory implements BeanFactory
 	{
 		if (childBeans == null)
 			return this;
-		return new GuiceBeanFactory(injector.createChildInjector(new AbstractModule()
+		Map<Key<?>, Object> bindings = new HashMap<>();
+		childBeans.forEach((key, value) -> {
+			Type type = key.getKey();
+			Annotation qualifier = key.getValue();
+			bindings.put(qualifier == null ? Key.get(type) : Key.get(type, qualifier), value);
+		});
+		return createOverlay(bindings);
+	}
+
+	private <T> T getBean(Key<?> key)
+	{
+		Object event = CommandEvents.beginGetBean();
+		T bean = getInstance(key);
+		CommandEvents.endGetBean(event, key.getTypeLiteral().getType());
+		return bean;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T getInstance(Key<?> key)
+	{
+		if (parent == null || childInjectors == null)
+			return (T) injector.getInstance(key);
+		GuiceBeanFactory previous = CURRENT.get();
+		CURRENT.set(this);
+		try {
+			return (T) injector.getInstance(key);
+		}
+		finally {
+			if (previous == null)
+				CURRENT.remove();
+			else
+				CURRENT.set(previous);
+		}
+	}
+
+	private GuiceBeanFactory createOverlay(Map<Key<?>, Object> bindings)
+	{
+		Object event = CommandEvents.beginCreateChild();
+		GuiceBeanFactory factory;
+		if (childInjectors == null) {
+			factory = new GuiceBeanFactory(injector.createChildInjector(new InstanceModule(bindings)), null, null,
+					ImmutableMap.of());
+		}
+		else {
+			// the class bindings are part of the injector, only the instances are held by overlay:
+			Map<Key<?>, Boolean> signature = new HashMap<>();
+			bindings.forEach((key, value) -> signature.put(key, key.getTypeLiteral().getType() == value));
+			ChildInjectors child = childInjectors.get(signature);
+			factory = new GuiceBeanFactory(child.injector, child, this, bindings);
+		}
+		CommandEvents.endCreateChild(event, bindings.size());
+		return factory;
+	}
+
+	private Object getOverlayBean(Key<?> key)
+	{
+		for (GuiceBeanFactory factory = this; factory != null; factory = factory.parent) {
+			Object value = factory.overlay.get(key);
+			if (value != null)
+				return value;
+		}
+		throw new OutOfScopeException("Child bean "+key+" requested out of its BeanFactory");
+	}
+
+	/**
+	 * Cache of child injectors, per set of bound keys.
+	 */
+	private static class ChildInjectors
+	{
+		final Injector injector;
+
+		final Map<Map<Key<?>, Boolean>, ChildInjectors> children = new ConcurrentHashMap<>();
+
+		ChildInjectors(Injector injector)
+		{
+			this.injector = injector;
+		}
+
+		ChildInjectors get(Map<Key<?>, Boolean> signature)
 		{
-			@SuppressWarnings("unchecked")
-			@Override
-			protected void configure()
-			{
-				childBeans.forEach((key, value) -> {
-					Type type = key.getKey();
-					Annotation qualifier = key.getValue();
-					if (type == value) {
-						bind((Class<?>) type);
-					}
-					else {
-						bind((Key<Object>) (qualifier == null ? Key.get(type) : Key.get(type, qualifier)))
-							.toInstance(value);
-					}
-				});
+			ChildInjectors child = children.get(signature);
+			if (child == null) {
+				child = children.computeIfAbsent(ImmutableMap.copyOf(signature), s -> new ChildInjectors(
+					injector.createChildInjector(new OverlayModule(s))
+				));
 			}
-		}));
+			return child;
+		}
+	}
+
+	/**
+	 * Module binding the classes directly and the instances as they are.
+	 */
+	private static class InstanceModule extends AbstractModule
+	{
+		private final Map<Key<?>, Object> bindings;
+
+		InstanceModule(Map<Key<?>, Object> bindings)
+		{
+			this.bindings = bindings;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		protected void configure()
+		{
+			bindings.forEach((key, value) -> {
+				if (key.getTypeLiteral().getType() == value) {
+					bind(key.getTypeLiteral());
+				}
+				else {
+					bind((Key<Object>) key).toInstance(value);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Module binding the classes directly and the instances to overlay providers.
+	 */
+	private static class OverlayModule extends AbstractModule
+	{
+		private final Map<Key<?>, Boolean> signature;
+
+		OverlayModule(Map<Key<?>, Boolean> signature)
+		{
+			this.signature = signature;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		protected void configure()
+		{
+			signature.forEach((key, isClass) -> {
+				if (isClass) {
+					bind(key.getTypeLiteral());
+				}
+				else {
+					bind((Key<Object>) key).toProvider(new OverlayProvider(key));
+				}
+			});
+		}
+	}
+
+	/**
+	 * Provider of overlay bean, reading it from the currently requesting factory.
+	 */
+	private static class OverlayProvider implements Provider<Object>
+	{
+		private final Key<?> key;
+
+		OverlayProvider(Key<?> key)
+		{
+			this.key = key;
+		}
+
+		@Override
+		public Object get()
+		{
+			GuiceBeanFactory current = CURRENT.get();
+			if (current == null)
+				throw new OutOfScopeException("Child bean "+key+" requested out of its BeanFactory");
+			return current.getOverlayBean(key);
+		}
 	}
 }
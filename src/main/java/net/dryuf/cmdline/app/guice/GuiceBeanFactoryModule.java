@@ -14,6 +14,27 @@ import javax.inject.Inject;
  */
 public class GuiceBeanFactoryModule extends AbstractModule
 {
+	private final boolean sharedChildInjectors;
+
+	/**
+	 * Creates module providing {@link GuiceBeanFactory} creating new child injector for each child factory.
+	 */
+	public GuiceBeanFactoryModule()
+	{
+		this(false);
+	}
+
+	/**
+	 * Creates module providing {@link GuiceBeanFactory}.
+	 *
+	 * @param sharedChildInjectors
+	 * 	whether to share child injectors across child factories, see {@link GuiceBeanFactory#sharingChildInjectors}
+	 */
+	public GuiceBeanFactoryModule(boolean sharedChildInjectors)
+	{
+		this.sharedChildInjectors = sharedChildInjectors;
+	}
+
 	@Override
 	protected void configure()
 	{
@@ -24,6 +45,6 @@ public class GuiceBeanFactoryModule extends AbstractModule
 	@Inject
 	public BeanFactory beanFactory(Injector injector)
 	{
-		return new GuiceBeanFactory(injector);
+		return sharedChildInjectors ? GuiceBeanFactory.sharingChildInjectors(injector) : new GuiceBeanFactory(injector);
 	}
 }
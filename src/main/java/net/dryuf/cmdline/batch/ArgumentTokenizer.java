@@ -0,0 +1,126 @@
+package net.dryuf.cmdline.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Splits text into arguments, following simplified shell rules.
+ *
+ * Arguments are separated by whitespace.  Single quotes preserve the content literally, double quotes allow
+ * backslash escapes, backslash outside of quotes escapes next character.  Hash character starting an argument
+ * begins comment until the end of line.  The input is processed lazily, one argument at a time, so it can be backed
+ * by large buffer.
+ */
+public class ArgumentTokenizer
+{
+	private final CharSequence input;
+
+	private final int end;
+
+	private int position;
+
+	private final StringBuilder argument = new StringBuilder();
+
+	/**
+	 * Creates tokenizer.
+	 *
+	 * @param input
+	 * 	text to split
+	 */
+	public ArgumentTokenizer(CharSequence input)
+	{
+		this.input = input;
+		this.end = input.length();
+	}
+
+	/**
+	 * Splits single text into arguments.
+	 *
+	 * @param input
+	 * 	text to split
+	 *
+	 * @return
+	 * 	list of arguments.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if quote or escape is not terminated.
+	 */
+	public static List<String> tokenize(CharSequence input)
+	{
+		ArgumentTokenizer tokenizer = new ArgumentTokenizer(input);
+		List<String> arguments = new ArrayList<>();
+		for (String argument; (argument = tokenizer.next()) != null; )
+			arguments.add(argument);
+		return arguments;
+	}
+
+	/**
+	 * Reads next argument.
+	 *
+	 * @return
+	 * 	next argument or null if end of input was reached.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if quote or escape is not terminated.
+	 */
+	public String next()
+	{
+		for (;;) {
+			while (position < end && Character.isWhitespace(input.charAt(position)))
+				++position;
+			if (position == end)
+				return null;
+			if (input.charAt(position) != '#')
+				break;
+			while (position < end && input.charAt(position) != '\n')
+				++position;
+		}
+		argument.setLength(0);
+		while (position < end) {
+			char c = input.charAt(position++);
+			switch (c) {
+			case '\'':
+				for (;;) {
+					if (position == end)
+						throw new IllegalArgumentException("Unterminated single quote");
+					c = input.charAt(position++);
+					if (c == '\'')
+						break;
+					argument.append(c);
+				}
+				break;
+
+			case '"':
+				for (;;) {
+					if (position == end)
+						throw new IllegalArgumentException("Unterminated double quote");
+					c = input.charAt(position++);
+					if (c == '"')
+						break;
+					if (c == '\\')
+						c = escaped();
+					argument.append(c);
+				}
+				break;
+
+			case '\\':
+				argument.append(escaped());
+				break;
+
+			default:
+				if (Character.isWhitespace(c))
+					return argument.toString();
+				argument.append(c);
+			}
+		}
+		return argument.toString();
+	}
+
+	private char escaped()
+	{
+		if (position == end)
+			throw new IllegalArgumentException("Unterminated escape");
+		return input.charAt(position++);
+	}
+}
@@ -0,0 +1,341 @@
+package net.dryuf.cmdline.batch;
+
+import lombok.AllArgsConstructor;
+import net.dryuf.cmdline.app.CommandExecutor;
+import net.dryuf.cmdline.command.Command;
+import net.dryuf.cmdline.command.CommandInvoker;
+import net.dryuf.cmdline.command.OutputRouter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+
+/**
+ * Executes many command lines within single JVM and single {@link net.dryuf.cmdline.app.AppContext}.
+ *
+ * The argument vectors are read from input in one of {@link Format}s and each one is executed by
+ * {@link CommandInvoker}.  The report contains one line per executed vector, its line (or record) number and exit
+ * code separated by tab, in the order of input, regardless of parallelism.
+ *
+ * With parallelism higher than one, the vectors are executed concurrently by
+ * {@link net.dryuf.cmdline.app.AppContext#getCommandExecutor()}, at most parallelism at a time, and the number of
+ * pending vectors is bounded, so the input is not read ahead unlimitedly.  The output of each invocation is buffered
+ * and written to System streams in the order of input too.
+ */
+@AllArgsConstructor
+public class BatchRunner
+{
+	private final CommandInvoker invoker;
+
+	private final Format format;
+
+	private final int parallelism;
+
+	private final Duration timeout;
+
+	/**
+	 * Creates sequential runner.
+	 *
+	 * @param invoker
+	 * 	invoker of root command
+	 * @param format
+	 * 	format of input
+	 */
+	public BatchRunner(CommandInvoker invoker, Format format)
+	{
+		this(invoker, format, 1);
+	}
+
+	/**
+	 * Creates runner without timeout.
+	 *
+	 * @param invoker
+	 * 	invoker of root command
+	 * @param format
+	 * 	format of input
+	 * @param parallelism
+	 * 	maximum number of concurrently running invocations
+	 */
+	public BatchRunner(CommandInvoker invoker, Format format, int parallelism)
+	{
+		this(invoker, format, parallelism, null);
+	}
+
+	/**
+	 * Executes all argument vectors from file.
+	 *
+	 * @param file
+	 * 	file with argument vectors, in UTF-8
+	 * @param report
+	 * 	output for exit code report
+	 *
+	 * @return
+	 * 	EXIT_SUCCESS if all vectors succeeded, exit code of first failed one otherwise.
+	 *
+	 * @throws IOException
+	 * 	if reading input or writing report failed.
+	 * @throws IllegalArgumentException
+	 * 	if the input is malformed.
+	 * @throws InterruptedException
+	 * 	if interrupted while waiting for results.
+	 */
+	public int run(Path file, Writer report) throws IOException, InterruptedException
+	{
+		try (Reader input = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			return run(input, report);
+		}
+	}
+
+	/**
+	 * Executes all argument vectors from input.
+	 *
+	 * @param input
+	 * 	input with argument vectors
+	 * @param report
+	 * 	output for exit code report
+	 *
+	 * @return
+	 * 	EXIT_SUCCESS if all vectors succeeded, exit code of first failed one otherwise.
+	 *
+	 * @throws IOException
+	 * 	if reading input or writing report failed.
+	 * @throws IllegalArgumentException
+	 * 	if the input is malformed.
+	 * @throws InterruptedException
+	 * 	if interrupted while waiting for results.
+	 */
+	public int run(Reader input, Writer report) throws IOException, InterruptedException
+	{
+		Reader buffered = input instanceof BufferedReader ? input : new BufferedReader(input);
+		RecordReader reader = format == Format.NUL ? new NulRecordReader(buffered) : new LineRecordReader(buffered);
+		if (parallelism <= 1) {
+			Result result = new Result();
+			for (List<String> args; (args = reader.next()) != null; ) {
+				result.add(report, reader.getRecordNumber(), invokeSafely(args));
+			}
+			report.flush();
+			return result.exit;
+		}
+		OutputRouter.install();
+		Semaphore running = new Semaphore(parallelism);
+		Deque<Pending> pending = new ArrayDeque<>();
+		try {
+			Result result = new Result();
+			for (List<String> args; (args = reader.next()) != null; ) {
+				pending.add(new Pending(reader.getRecordNumber(), args, running));
+				while (pending.size() >= parallelism*2 || pending.peekFirst().future.isDone()) {
+					Pending first = pending.removeFirst();
+					result.add(report, first.recordNumber, first.get());
+					if (pending.isEmpty())
+						break;
+				}
+			}
+			for (Pending first; (first = pending.pollFirst()) != null; ) {
+				result.add(report, first.recordNumber, first.get());
+			}
+			report.flush();
+			return result.exit;
+		}
+		finally {
+			pending.forEach(p -> p.future.cancel(true));
+		}
+	}
+
+	private int invokeSafely(List<String> args)
+	{
+		try {
+			if (timeout == null)
+				return invoker.invoke(args);
+			return invoker.invoke(args, System.out, System.err, timeout);
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			return Command.EXIT_FAILURE;
+		}
+	}
+
+	/**
+	 * Format of input.
+	 */
+	public enum Format
+	{
+		/** Each line contains one argument vector, split by {@link ArgumentTokenizer}.  Empty lines are skipped. */
+		LINES,
+		/** Each argument is terminated by NUL character, the vector by additional NUL.  Empty arguments are not
+		 * possible. */
+		NUL,
+	}
+
+	private static class Result
+	{
+		int exit = Command.EXIT_SUCCESS;
+
+		void add(Writer report, long recordNumber, int code) throws IOException
+		{
+			report.write(recordNumber+"\t"+code+"\n");
+			if (exit == Command.EXIT_SUCCESS)
+				exit = code;
+		}
+	}
+
+	private class Pending
+	{
+		final long recordNumber;
+
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		final ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+		final Future<Integer> future;
+
+		Pending(long recordNumber, List<String> args, Semaphore running)
+		{
+			this.recordNumber = recordNumber;
+			this.future = invoker.getAppContext().getCommandExecutor().submit(() -> {
+				running.acquire();
+				try {
+					PrintStream outputStream = new PrintStream(output, true);
+					PrintStream errorStream = new PrintStream(error, true);
+					return timeout == null ?
+							invoker.invoke(args, outputStream, errorStream) :
+							invoker.invoke(args, outputStream, errorStream, timeout);
+				}
+				finally {
+					running.release();
+				}
+			});
+		}
+
+		int get() throws InterruptedException
+		{
+			int code;
+			PrintStream errorStream = new PrintStream(error, true);
+			try {
+				code = CommandExecutor.await(future, null, errorStream);
+			}
+			catch (InterruptedException ex) {
+				throw ex;
+			}
+			catch (Exception ex) {
+				ex.printStackTrace(errorStream);
+				code = Command.EXIT_FAILURE;
+			}
+			System.out.write(output.toByteArray(), 0, output.size());
+			System.out.flush();
+			System.err.write(error.toByteArray(), 0, error.size());
+			System.err.flush();
+			return code;
+		}
+	}
+
+	private static abstract class RecordReader
+	{
+		final Reader input;
+
+		long recordNumber;
+
+		RecordReader(Reader input)
+		{
+			this.input = input;
+		}
+
+		long getRecordNumber()
+		{
+			return recordNumber;
+		}
+
+		abstract List<String> next() throws IOException;
+	}
+
+	private static class LineRecordReader extends RecordReader
+	{
+		private final StringBuilder line = new StringBuilder();
+
+		private boolean eof;
+
+		LineRecordReader(Reader input)
+		{
+			super(input);
+		}
+
+		@Override
+		List<String> next() throws IOException
+		{
+			while (!eof) {
+				line.setLength(0);
+				for (;;) {
+					int c = input.read();
+					if (c < 0) {
+						eof = true;
+						break;
+					}
+					if (c == '\n')
+						break;
+					line.append((char) c);
+				}
+				if (eof && line.length() == 0)
+					break;
+				++recordNumber;
+				try {
+					List<String> args = ArgumentTokenizer.tokenize(line);
+					if (!args.isEmpty())
+						return args;
+				}
+				catch (IllegalArgumentException ex) {
+					throw new IllegalArgumentException("Line "+recordNumber+": "+ex.getMessage(), ex);
+				}
+			}
+			return null;
+		}
+	}
+
+	private static class NulRecordReader extends RecordReader
+	{
+		private final StringBuilder argument = new StringBuilder();
+
+		NulRecordReader(Reader input)
+		{
+			super(input);
+		}
+
+		@Override
+		List<String> next() throws IOException
+		{
+			List<String> args = new ArrayList<>();
+			argument.setLength(0);
+			for (;;) {
+				int c = input.read();
+				if (c < 0) {
+					if (argument.length() != 0 || !args.isEmpty())
+						throw new IllegalArgumentException("Record "+(recordNumber+1)+": Unterminated record");
+					return null;
+				}
+				if (c != 0) {
+					argument.append((char) c);
+				}
+				else if (argument.length() != 0) {
+					args.add(argument.toString());
+					argument.setLength(0);
+				}
+				else {
+					++recordNumber;
+					return args;
+				}
+			}
+		}
+	}
+}
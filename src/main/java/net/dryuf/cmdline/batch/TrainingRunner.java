@@ -0,0 +1,129 @@
+package net.dryuf.cmdline.batch;
+
+import com.google.common.io.ByteStreams;
+import lombok.AllArgsConstructor;
+import net.dryuf.cmdline.command.CommandInvoker;
+import net.dryuf.cmdline.command.OutputRouter;
+import net.dryuf.cmdline.completion.CommandCompletion;
+import net.dryuf.cmdline.completion.CompletionNode;
+
+import java.io.BufferedReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Exercises the command tree, so the classes needed by typical invocations get loaded, such as when recording
+ * AppCDS archive by {@code -XX:ArchiveClassesAtExit}.
+ *
+ * The tree is walked as seen by completion, for each command its help is printed and its options and subcommands are
+ * completed.  Then the argument vectors from training input are executed, in {@link BatchRunner.Format#LINES}
+ * format.  The exit codes are ignored and the output of all invocations is discarded, including System streams routed
+ * by {@link OutputRouter}, only the failures to invoke are reported to System.err.
+ */
+@AllArgsConstructor
+public class TrainingRunner
+{
+	/** Maximum depth of walked command tree, protecting against recursive trees. */
+	public static final int MAX_DEPTH = 16;
+
+	private static final PrintStream DISCARD = new PrintStream(ByteStreams.nullOutputStream());
+
+	private final CommandInvoker invoker;
+
+	/**
+	 * Walks the command tree.
+	 *
+	 * @return
+	 * 	number of invocations.
+	 *
+	 * @throws Exception
+	 * 	if the completion tree cannot be resolved.
+	 */
+	public int train() throws Exception
+	{
+		OutputRouter.install();
+		return walk(invoker.completion(), new ArrayList<>());
+	}
+
+	/**
+	 * Walks the command tree and executes argument vectors from file.
+	 *
+	 * @param file
+	 * 	file with argument vectors, in UTF-8, one per line
+	 *
+	 * @return
+	 * 	number of invocations.
+	 *
+	 * @throws Exception
+	 * 	if the completion tree cannot be resolved or the file cannot be read.
+	 */
+	public int train(Path file) throws Exception
+	{
+		int count = train();
+		try (BufferedReader input = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			int lineNumber = 0;
+			for (String line; (line = input.readLine()) != null; ) {
+				++lineNumber;
+				List<String> args;
+				try {
+					args = ArgumentTokenizer.tokenize(line);
+				}
+				catch (IllegalArgumentException ex) {
+					throw new IllegalArgumentException(file+": Line "+lineNumber+": "+ex.getMessage(), ex);
+				}
+				if (!args.isEmpty()) {
+					invokeSafely(args);
+					++count;
+				}
+			}
+		}
+		return count;
+	}
+
+	private int walk(CompletionNode node, List<String> path) throws Exception
+	{
+		invokeSafely(concat(path, "--help"));
+		List<String> complete = new ArrayList<>(path.size()+1);
+		complete.add(CommandCompletion.COMPLETE_COMMAND);
+		complete.addAll(path);
+		invokeSafely(concat(complete, "-"));
+		invokeSafely(concat(complete, ""));
+		int count = 3;
+		if (path.size() >= MAX_DEPTH)
+			return count;
+		List<String> names = new ArrayList<>();
+		node.getCommands().forEach("", names::add);
+		for (String name: names) {
+			CompletionNode child = node.getChild(name);
+			if (child != null) {
+				path.add(name);
+				count += walk(child, path);
+				path.remove(path.size()-1);
+			}
+		}
+		return count;
+	}
+
+	private void invokeSafely(List<String> args)
+	{
+		try {
+			invoker.invoke(args, DISCARD, DISCARD);
+		}
+		catch (Exception ex) {
+			System.err.println("Training invocation failed: "+args+": "+ex);
+		}
+	}
+
+	private static List<String> concat(List<String> path, String last)
+	{
+		List<String> args = new ArrayList<>(path.size()+1);
+		args.addAll(path);
+		args.add(last);
+		return args;
+	}
+}
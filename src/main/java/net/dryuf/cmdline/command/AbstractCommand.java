@@ -1,17 +1,30 @@
 package net.dryuf.cmdline.command;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
-import org.apache.commons.lang3.text.WordUtils;
+import net.dryuf.cmdline.app.LifecycleListener;
+import net.dryuf.cmdline.completion.CommandCompletion;
+import net.dryuf.cmdline.completion.CompletionNode;
+import net.dryuf.cmdline.completion.PrefixTrie;
+import net.dryuf.cmdline.jfr.CommandEvents;
+import net.dryuf.cmdline.options.OptionsDefinition;
+import net.dryuf.cmdline.options.ValueConverter;
+import net.dryuf.cmdline.options.ValueConverters;
 
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 /**
@@ -19,10 +32,48 @@ import java.util.stream.Collectors;
  */
 public abstract class AbstractCommand implements Command
 {
+	private static final Collection<String> HELP_ARGUMENTS = ImmutableSet.of("-h", "--help");
+
+	private static final ClassValue<AtomicReference<CompletionNode>> COMPLETION_OPTIONS = new ClassValue<AtomicReference<CompletionNode>>()
+	{
+		@Override
+		protected AtomicReference<CompletionNode> computeValue(Class<?> type)
+		{
+			return new AtomicReference<>();
+		}
+	};
+
+	private static final int MAX_SUGGESTIONS = 8;
+
+	private static final String[] SHORT_OPTIONS = new String[128];
+
+	static {
+		for (char c = 0; c < SHORT_OPTIONS.length; ++c)
+			SHORT_OPTIONS[c] = "-"+c;
+	}
+
+	private static final ClassValue<Boolean> LIST_SETUP_OVERRIDDEN = new ClassValue<Boolean>()
+	{
+		@Override
+		protected Boolean computeValue(Class<?> type)
+		{
+			try {
+				return type.getMethod("setup", CommandContext.class, List.class).getDeclaringClass() != AbstractCommand.class;
+			}
+			catch (NoSuchMethodException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+	};
+
 	@Getter
 	@Setter
 	private boolean isHelp;
 
+	/** Context of this invocation, available since {@link #initialize}. */
+	@Getter(AccessLevel.PROTECTED)
+	private CommandContext commandContext;
+
 	public static void runMain(String[] args, MainFunction runner)
 	{
 		try {
@@ -50,10 +101,37 @@ public abstract class AbstractCommand implements Command
 	 */
 	protected int run(CommandContext commandContext, List<String> args) throws Exception
 	{
-		int ret = setup(commandContext, args);
+		boolean first = TimingTrace.markInvoked();
+		if (TimingTrace.isRequested(args) && configTraceTiming(commandContext))
+			return TimingTrace.run(commandContext, args, first, this::runEvent);
+		return runEvent(commandContext, args);
+	}
+
+	private int runEvent(CommandContext commandContext, List<String> args) throws Exception
+	{
+		Object event = CommandEvents.beginRun();
+		int ret = runLifecycle(commandContext, args);
+		CommandEvents.endCommand(event, commandContext, ret);
+		return ret;
+	}
+
+	private int runLifecycle(CommandContext commandContext, List<String> args) throws Exception
+	{
+		int ret;
+		if (isCompletionEnabled(this, commandContext)) {
+			ret = CommandCompletion.handle(this, commandContext, args);
+			if (ret != EXIT_CONTINUE)
+				return ret;
+		}
+		ret = setup(commandContext, ArgumentCursor.of(args));
 		if (ret != EXIT_CONTINUE)
 			return ret;
-		return execute();
+		long start = PhaseTimer.start(commandContext);
+		Object event = CommandEvents.beginExecute();
+		ret = execute();
+		CommandEvents.endCommand(event, commandContext, ret);
+		PhaseTimer.finish(commandContext, LifecycleListener.Phase.EXECUTE, start);
+		return ret;
 	}
 
 	/**
@@ -64,20 +142,78 @@ public abstract class AbstractCommand implements Command
 	 */
 	protected void initialize(CommandContext context)
 	{
+		this.commandContext = context;
 		createOptions(context);
 	}
 
 	@Override
 	public int setup(CommandContext commandContext, List<String> args) throws Exception
 	{
-		ListIterator<String> argsIterator = args.listIterator();
+		return setupArguments(commandContext, ArgumentCursor.of(args));
+	}
+
+	/**
+	 * Sets up the Command object, reading arguments from cursor.  If the subclass still overrides
+	 * {@link #setup(CommandContext, List)}, the remaining arguments are passed to it instead.
+	 *
+	 * @param commandContext
+	 * 	command context
+	 * @param args
+	 * 	cursor over command arguments
+	 *
+	 * @return
+	 * 	-1 to continue, exit code otherwise.
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	@Override
+	public int setup(CommandContext commandContext, ArgumentCursor args) throws Exception
+	{
+		if (LIST_SETUP_OVERRIDDEN.get(getClass()))
+			return setup(commandContext, args.remaining());
+		return setupArguments(commandContext, args);
+	}
+
+	/**
+	 * Sets up the Command object, common implementation of both setup methods.
+	 *
+	 * @param commandContext
+	 * 	command context
+	 * @param args
+	 * 	cursor over command arguments
+	 *
+	 * @return
+	 * 	-1 to continue, exit code otherwise.
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	protected int setupArguments(CommandContext commandContext, ArgumentCursor args) throws Exception
+	{
+		Object event = CommandEvents.beginSetup();
+		int ret = setupLeaf(commandContext, args);
+		CommandEvents.endCommand(event, commandContext, ret);
+		return ret;
+	}
+
+	private int setupLeaf(CommandContext commandContext, ArgumentCursor args) throws Exception
+	{
+		long start = PhaseTimer.start(commandContext);
 		initialize(commandContext);
-		int ret = processArguments(commandContext, argsIterator);
-		if (ret != EXIT_CONTINUE) {
-			return ret;
+		PhaseTimer.finish(commandContext, LifecycleListener.Phase.INITIALIZE, start);
+		ListIterator<String> expanded = configArgumentFiles(commandContext) ? new ArgumentFileExpander(args) : args;
+		try {
+			int ret = processArguments(commandContext, expanded);
+			if (ret != EXIT_CONTINUE) {
+				return ret;
+			}
+			if (expanded.hasNext()) {
+				return usage(commandContext, "Unexpected argument: "+expanded.next());
+			}
 		}
-		if (argsIterator.hasNext()) {
-			return usage(commandContext, "Unexpected argument: "+argsIterator.next());
+		catch (ArgumentFileExpander.ArgumentFileException ex) {
+			return usage(commandContext, ex.getMessage());
 		}
 		return EXIT_CONTINUE;
 	}
@@ -101,10 +237,15 @@ public abstract class AbstractCommand implements Command
 	 */
 	protected int processArguments(CommandContext context, ListIterator<String> args) throws Exception
 	{
+		long start = PhaseTimer.start(context);
 		int ret = parseOptions(context, args);
+		PhaseTimer.finish(context, LifecycleListener.Phase.PARSE_OPTIONS, start);
 		if (ret != EXIT_CONTINUE)
 			return ret;
-		return validateOptions(context, args);
+		start = PhaseTimer.start(context);
+		ret = validateOptions(context, args);
+		PhaseTimer.finish(context, LifecycleListener.Phase.VALIDATE_OPTIONS, start);
+		return ret;
 	}
 
 	/**
@@ -127,11 +268,26 @@ public abstract class AbstractCommand implements Command
 	{
 		String enforceOptionPrefix = configEnforceOptionPrefix(context);
 		String optionsEnd = configOptionsEnd(context);
+		boolean abbreviations = configAbbreviations(context);
+		boolean combined = configCombinedOptions(context);
+		AttachedValueArguments attached = null;
 		while (args.hasNext()) {
 			String arg = args.next();
 			boolean consumed;
 			try {
 				consumed = parseOption(context, arg, args);
+				if (!consumed && abbreviations && arg.startsWith("--") && arg.indexOf('=') < 0 && !arg.equals(optionsEnd)) {
+					String expanded = getCompletionOptions(context).getOptions().findUnique(arg);
+					if (expanded != null) {
+						arg = expanded;
+						consumed = parseOption(context, arg, args);
+					}
+				}
+				if (!consumed && combined && arg.length() > 2 && arg.charAt(0) == '-' && !arg.equals(optionsEnd)) {
+					if (attached == null)
+						attached = new AttachedValueArguments();
+					consumed = parseCombinedOption(context, arg, args, attached);
+				}
 			}
 			catch (IllegalArgumentException ex) {
 				return usage(context, "Option " + arg + ": " + ex.getMessage());
@@ -139,8 +295,10 @@ public abstract class AbstractCommand implements Command
 			if (!consumed) {
 				if (arg.equals(optionsEnd))
 					break;
-				if (enforceOptionPrefix != null && arg.startsWith(enforceOptionPrefix)) {
-					return usage(context, "Unknown option: "+arg);
+				if (enforceOptionPrefix != null && arg.startsWith(enforceOptionPrefix) && !isNegativeNumber(arg)) {
+					String name = arg.startsWith("--") && arg.indexOf('=') >= 0 ? arg.substring(0, arg.indexOf('=')) : arg;
+					return usage(context, "Unknown option: "+name+
+							formatSuggestions(context, getCompletionOptions(context).getOptions(), name));
 				}
 				args.previous();
 				break;
@@ -152,6 +310,100 @@ public abstract class AbstractCommand implements Command
 		return parseNonOptions(context, args);
 	}
 
+	/**
+	 * Parses option combined with its value or other options into single argument, {@code --name=value},
+	 * {@code -ovalue} or cluster of short options {@code -abc}.  The parts are passed to {@link #parseOption} as if
+	 * they were separate arguments, the attached value being provided as next pending argument.
+	 *
+	 * @param context
+	 * 	command context
+	 * @param arg
+	 * 	argument to process
+	 * @param args
+	 * 	pending arguments
+	 * @param attached
+	 * 	reusable arguments with attached value
+	 *
+	 * @return
+	 * 	true if argument was processed, false if it is not known option.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if the value is not consumed or the cluster contains unknown option.
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	private boolean parseCombinedOption(CommandContext context, String arg, ListIterator<String> args,
+			AttachedValueArguments attached) throws Exception
+	{
+		if (arg.charAt(1) == '-') {
+			int separator = arg.indexOf('=');
+			if (separator < 0)
+				return false;
+			String name = resolveOptionName(context, arg, separator);
+			if (!parseOption(context, name, attached.reset(args, arg, separator+1, true)))
+				return false;
+			if (!attached.isValueConsumed())
+				throw new IllegalArgumentException("option does not take a value");
+			return true;
+		}
+		if (isNegativeNumber(arg))
+			return false;
+		for (int i = 1; i < arg.length(); ++i) {
+			char c = arg.charAt(i);
+			String name = c < SHORT_OPTIONS.length ? SHORT_OPTIONS[c] : "-"+c;
+			if (!parseOption(context, name, attached.reset(args, arg, i+1, i+1 < arg.length()))) {
+				if (i == 1)
+					return false;
+				throw new IllegalArgumentException("unknown option "+name);
+			}
+			if (attached.isValueConsumed())
+				break;
+		}
+		return true;
+	}
+
+	/**
+	 * Resolves name of {@code --name=value} option, reusing the known option name instance if possible.
+	 */
+	private String resolveOptionName(CommandContext context, String arg, int separator)
+	{
+		PrefixTrie names = getCompletionOptions(context).getOptions();
+		String name = names.findWord(arg, 0, separator);
+		if (name == null) {
+			name = arg.substring(0, separator);
+			if (configAbbreviations(context)) {
+				String expanded = names.findUnique(name);
+				if (expanded != null)
+					name = expanded;
+			}
+		}
+		return name;
+	}
+
+	/**
+	 * Checks whether argument is negative number, which is not considered option unless parsed as such.
+	 *
+	 * @param arg
+	 * 	argument to check
+	 *
+	 * @return
+	 * 	true if the argument is negative decimal number.
+	 */
+	protected static boolean isNegativeNumber(String arg)
+	{
+		if (arg.length() < 2 || arg.charAt(0) != '-')
+			return false;
+		boolean dot = false;
+		for (int i = 1; i < arg.length(); ++i) {
+			char c = arg.charAt(i);
+			if (c == '.' && !dot && i > 1 && i+1 < arg.length())
+				dot = true;
+			else if (c < '0' || c > '9')
+				return false;
+		}
+		return true;
+	}
+
 	/**
 	 * Called by parseOptions when parsing starts.  Useful when inheriting options, so it is created only once.
 	 *
@@ -162,6 +414,19 @@ public abstract class AbstractCommand implements Command
 	{
 	}
 
+	/**
+	 * Provides options bean, with fields annotated by {@link net.dryuf.cmdline.options.Option} and
+	 * {@link net.dryuf.cmdline.options.Parameter}.  If provided, the options and parameters are parsed, validated
+	 * and described automatically, according to {@link OptionsDefinition}.
+	 *
+	 * @return
+	 * 	options bean or null if not annotation driven.
+	 */
+	protected Object getOptionsBean()
+	{
+		return null;
+	}
+
 	/**
 	 * Parses next option.
 	 *
@@ -182,13 +447,33 @@ public abstract class AbstractCommand implements Command
 	 */
 	protected boolean parseOption(CommandContext context, String arg, ListIterator<String> args) throws Exception
 	{
-		if (configHelpArgument(context).contains(arg)) {
+		if (isHelpArgument(context, arg)) {
 			isHelp = true;
 			return true;
 		}
+		Object optionsBean = getOptionsBean();
+		if (optionsBean != null) {
+			return OptionsDefinition.of(optionsBean.getClass()).parseOption(optionsBean, arg, args);
+		}
 		return false;
 	}
 
+	/**
+	 * Checks whether argument requests help.
+	 *
+	 * @param context
+	 * 	command context
+	 * @param arg
+	 * 	argument to check
+	 *
+	 * @return
+	 * 	true if the argument is one of {@link #configHelpArgument}.
+	 */
+	protected boolean isHelpArgument(CommandContext context, String arg)
+	{
+		return configHelpArgument(context).contains(arg);
+	}
+
 	/**
 	 * Processes non-options parts (program arguments, subcommand, non-understood options etc).
 	 *
@@ -205,6 +490,15 @@ public abstract class AbstractCommand implements Command
 	 */
 	protected int parseNonOptions(CommandContext context, ListIterator<String> args) throws Exception
 	{
+		Object optionsBean = getOptionsBean();
+		if (optionsBean != null) {
+			try {
+				OptionsDefinition.of(optionsBean.getClass()).parseParameters(optionsBean, args);
+			}
+			catch (IllegalArgumentException ex) {
+				return usage(context, ex.getMessage());
+			}
+		}
 		if (args.hasNext())
 			return usage(context, "Unexpected argument: " + args.next());
 		return EXIT_CONTINUE;
@@ -215,6 +509,23 @@ public abstract class AbstractCommand implements Command
 		return helpThis(context);
 	}
 
+	/**
+	 * Gets remaining arguments of iterator.  The {@link ArgumentCursor} provides view without copying, other
+	 * iterators are copied.  The iterator position is unspecified afterwards.
+	 *
+	 * @param args
+	 * 	arguments iterator
+	 *
+	 * @return
+	 * 	list of remaining arguments.
+	 */
+	protected static List<String> remainingArguments(ListIterator<String> args)
+	{
+		if (args instanceof ArgumentCursor)
+			return ((ArgumentCursor) args).remaining();
+		return ImmutableList.copyOf(args);
+	}
+
 	/**
 	 * Validates options for regular call (non-help subcommand).
 	 *
@@ -231,6 +542,13 @@ public abstract class AbstractCommand implements Command
 	 */
 	protected int validateOptions(CommandContext context, ListIterator<String> args) throws Exception
 	{
+		Object optionsBean = getOptionsBean();
+		if (optionsBean != null) {
+			String error = OptionsDefinition.of(optionsBean.getClass()).validate(optionsBean);
+			if (error != null) {
+				return usage(context, error);
+			}
+		}
 		return EXIT_CONTINUE;
 	}
 
@@ -250,6 +568,37 @@ public abstract class AbstractCommand implements Command
 		return help(context, args);
 	}
 
+	@Override
+	public CompletionNode completion(CommandContext context) throws Exception
+	{
+		initialize(context);
+		return getCompletionOptions(context);
+	}
+
+	/**
+	 * Gets completion node of options of this command, derived from {@link #configOptionsDescription} and
+	 * {@link #configHelpArgument}.  The node is cached per class, unless {@link #configHelpCached} is false.
+	 *
+	 * @param context
+	 * 	command context
+	 *
+	 * @return
+	 * 	completion node with options.
+	 */
+	protected CompletionNode getCompletionOptions(CommandContext context)
+	{
+		if (!configHelpCached(context))
+			return CompletionNode.ofOptions(configOptionsDescription(context), configHelpArgument(context));
+		AtomicReference<CompletionNode> holder = COMPLETION_OPTIONS.get(getClass());
+		CompletionNode node = holder.get();
+		if (node == null) {
+			node = CompletionNode.ofOptions(configOptionsDescription(context), configHelpArgument(context));
+			if (!holder.compareAndSet(null, node))
+				node = holder.get();
+		}
+		return node;
+	}
+
 	/**
 	 * Prints help for this parent command.
 	 *
@@ -263,16 +612,112 @@ public abstract class AbstractCommand implements Command
 	 * 	in case of error.
 	 */
 	protected int helpThis(CommandContext context) throws Exception
+	{
+		long start = PhaseTimer.start(context);
+		printHelpPage(context, context.getOutput(), HelpPageCache.Page.HELP, help -> renderHelp(context, help));
+		PhaseTimer.finish(context, LifecycleListener.Phase.HELP, start);
+		return EXIT_SUCCESS;
+	}
+
+	/**
+	 * Renders help of this command.
+	 *
+	 * @param context
+	 * 	command context
+	 * @param help
+	 * 	help renderer
+	 *
+	 * @throws IOException
+	 * 	when writing output failed.
+	 */
+	protected void renderHelp(CommandContext context, HelpRenderer help) throws IOException
 	{
 		Map<String, String> options = configOptionsDescription(context);
 		Map<String, String> parameters = configParametersDescription(context);
-		System.out.print("Usage: "+context.getCommandPath()+( options.isEmpty() ? "" : "options... ")+
-				String.join(" ", parameters.keySet())+"\n"+
-				wrapWithNewLine(configHelpTitle(context))+
-				(options.isEmpty() ? "" : ("\nOptions:\n"+formatOptions(context, options)))+
-				(parameters.isEmpty() ? "" : ("\nParameters:\n"+formatOptions(context, parameters)))
-		);
-		return EXIT_SUCCESS;
+		help.append("Usage: ").append(context.getCommandPath()).append(options.isEmpty() ? "" : "options... ")
+				.joined(parameters.keySet(), " ").append("\n")
+				.line(configHelpTitle(context));
+		if (!options.isEmpty())
+			help.append("\nOptions:\n").table(options);
+		if (!parameters.isEmpty())
+			help.append("\nParameters:\n").table(parameters);
+	}
+
+	/**
+	 * Renders brief usage of this command, printed after usage error.
+	 *
+	 * @param context
+	 * 	command context
+	 * @param help
+	 * 	help renderer
+	 *
+	 * @throws IOException
+	 * 	when writing output failed.
+	 */
+	protected void renderUsage(CommandContext context, HelpRenderer help) throws IOException
+	{
+		help.append("Usage: ").append(context.getCommandPath()).append("options ")
+				.joined(configParametersDescription(context).keySet(), " ").append("\n")
+				.append("Type ").append(String.valueOf(Iterables.getFirst(configHelpArgument(context), null))).append(" for help\n");
+	}
+
+	/**
+	 * Prints help page, from {@link HelpPageCache} if {@link #configHelpCached(CommandContext)} allows.
+	 *
+	 * @param context
+	 * 	command context
+	 * @param output
+	 * 	output to print to
+	 * @param page
+	 * 	type of page
+	 * @param renderer
+	 * 	renderer of the page
+	 */
+	protected void printHelpPage(CommandContext context, PrintStream output, HelpPageCache.Page page, HelpPageCache.Renderer renderer)
+	{
+		int width = configHelpWidth(context);
+		if (configHelpCached(context)) {
+			output.print(HelpPageCache.get(getClass(), page, context.getCommandPath(), width, renderer));
+		}
+		else {
+			PrintWriter writer = new PrintWriter(output);
+			try {
+				renderer.render(new HelpRenderer(writer, width));
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			writer.flush();
+		}
+	}
+
+	/**
+	 * Provides whether the help pages of this command can be cached.  The pages are cached per class, command path
+	 * and width, commands with help depending on other state should return false.
+	 *
+	 * @param context
+	 * 	command context
+	 *
+	 * @return
+	 * 	true if help can be cached, true by default.
+	 */
+	protected boolean configHelpCached(CommandContext context)
+	{
+		return true;
+	}
+
+	/**
+	 * Provides width of help output.
+	 *
+	 * @param context
+	 * 	command context
+	 *
+	 * @return
+	 * 	width of help output, terminal width by default.
+	 */
+	protected int configHelpWidth(CommandContext context)
+	{
+		return HelpRenderer.getTerminalWidth();
 	}
 
 	/**
@@ -292,12 +737,8 @@ public abstract class AbstractCommand implements Command
 	protected int usage(CommandContext context, String errorMessage) throws Exception
 	{
 		if (errorMessage != null)
-			System.err.println(errorMessage);
-		System.err.println(
-				"Usage: " + context.getCommandPath() + "options "+
-						String.join(" ", configParametersDescription(context).keySet())+"\n" +
-				"Type " + Iterables.getFirst(configHelpArgument(context), null) + " for help"
-		);
+			context.getError().println(errorMessage);
+		printHelpPage(context, context.getError(), HelpPageCache.Page.USAGE, help -> renderUsage(context, help));
 		return EXIT_USAGE;
 	}
 
@@ -326,6 +767,10 @@ public abstract class AbstractCommand implements Command
 	 */
 	protected Map<String, String> configOptionsDescription(CommandContext context)
 	{
+		Object optionsBean = getOptionsBean();
+		if (optionsBean != null) {
+			return OptionsDefinition.of(optionsBean.getClass()).getOptionsDescription();
+		}
 		return Collections.emptyMap();
 	}
 
@@ -340,6 +785,10 @@ public abstract class AbstractCommand implements Command
 	 */
 	protected Map<String, String> configParametersDescription(CommandContext context)
 	{
+		Object optionsBean = getOptionsBean();
+		if (optionsBean != null) {
+			return OptionsDefinition.of(optionsBean.getClass()).getParametersDescription();
+		}
 		return Collections.emptyMap();
 	}
 
@@ -354,7 +803,134 @@ public abstract class AbstractCommand implements Command
 	 */
 	protected Collection<String> configHelpArgument(CommandContext context)
 	{
-		return ImmutableSet.of("-h", "--help");
+		return HELP_ARGUMENTS;
+	}
+
+	/**
+	 * Provides whether unique prefixes of long options (and subcommands, for parent command) are accepted as
+	 * abbreviations.  The options are known from {@link #configOptionsDescription}.
+	 *
+	 * @param context
+	 * 	command context
+	 *
+	 * @return
+	 * 	true if abbreviations are accepted, false by default.
+	 */
+	protected boolean configAbbreviations(CommandContext context)
+	{
+		return false;
+	}
+
+	/**
+	 * Provides whether {@code @file} arguments are replaced by arguments read from the file, in the same style as
+	 * javac.  The file is split by {@link net.dryuf.cmdline.batch.ArgumentTokenizer} lazily, so the arguments stream
+	 * into {@link #parseNonOptions} without being materialized, large files are memory mapped.  The argument
+	 * starting with {@code @@} is passed with the first {@code @} removed.
+	 *
+	 * @param context
+	 * 	command context
+	 *
+	 * @return
+	 * 	true if argument files are expanded, false by default.
+	 */
+	protected boolean configArgumentFiles(CommandContext context)
+	{
+		return false;
+	}
+
+	/**
+	 * Provides whether {@value TimingTrace#TRACE_TIMING_ARGUMENT} as the first argument prints the timing of
+	 * lifecycle phases, see {@link TimingTrace}.  Called on the root command only, before {@link #initialize}.
+	 *
+	 * @param context
+	 * 	command context
+	 *
+	 * @return
+	 * 	true if the trace argument is recognized, false by default, passing it to the command as any other argument.
+	 */
+	protected boolean configTraceTiming(CommandContext context)
+	{
+		return false;
+	}
+
+	/**
+	 * Provides whether {@value CommandCompletion#COMPLETE_COMMAND} and {@value CommandCompletion#COMPLETION_COMMAND} as
+	 * the first argument serve shell completion, see {@link CommandCompletion}.  Called on the root command only, before
+	 * {@link #initialize}.
+	 *
+	 * @param context
+	 * 	command context
+	 *
+	 * @return
+	 * 	true if the completion arguments are recognized, false by default, passing them to the command as any other
+	 * 	argument.
+	 */
+	protected boolean configCompletion(CommandContext context)
+	{
+		return false;
+	}
+
+	/**
+	 * Checks whether the command enables shell completion.
+	 *
+	 * @param command
+	 * 	root command
+	 * @param context
+	 * 	context of root command
+	 *
+	 * @return
+	 * 	true if the command enables completion by {@link #configCompletion}.
+	 */
+	static boolean isCompletionEnabled(Command command, CommandContext context)
+	{
+		return command instanceof AbstractCommand && ((AbstractCommand) command).configCompletion(context);
+	}
+
+	/**
+	 * Provides whether options may be combined into single argument: {@code --name=value}, {@code -ovalue} and
+	 * clusters of short flags {@code -abc}.  The combined argument is tried only if {@link #parseOption} does not
+	 * accept it as whole.
+	 *
+	 * @param context
+	 * 	command context
+	 *
+	 * @return
+	 * 	true if combined options are accepted, true by default.
+	 */
+	protected boolean configCombinedOptions(CommandContext context)
+	{
+		return true;
+	}
+
+	/**
+	 * Formats suggestions for unknown name, to be appended to error message.  Lists the names starting with the
+	 * name, if abbreviations are enabled and it is ambiguous, the names within small edit distance otherwise.
+	 *
+	 * @param context
+	 * 	command context
+	 * @param names
+	 * 	known names
+	 * @param name
+	 * 	unknown name
+	 *
+	 * @return
+	 * 	suggestions, starting with new line, or empty string if there are none.
+	 */
+	protected String formatSuggestions(CommandContext context, PrefixTrie names, String name)
+	{
+		if (configAbbreviations(context)) {
+			List<String> matches = names.find(name);
+			if (matches.size() > 1)
+				return "\nAmbiguous, matches: "+joinSuggestions(matches);
+		}
+		List<String> similar = names.findSimilar(name, Math.min(3, Math.max(1, name.length()/3)));
+		return similar.isEmpty() ? "" : "\nDid you mean: "+joinSuggestions(similar);
+	}
+
+	private static String joinSuggestions(List<String> names)
+	{
+		return names.size() <= MAX_SUGGESTIONS ? String.join(", ", names) :
+				String.join(", ", names.subList(0, MAX_SUGGESTIONS))+", ...";
 	}
 
 	/**
@@ -408,6 +984,105 @@ public abstract class AbstractCommand implements Command
 		return args.next();
 	}
 
+	/**
+	 * Utility method to read and convert option value.
+	 *
+	 * @param existing
+	 * 	existing object of option value
+	 * @param args
+	 * 	remaining arguments
+	 * @param type
+	 * 	type of value, see {@link ValueConverters#of(Class)}
+	 * @param <T>
+	 * 	type of value
+	 *
+	 * @return
+	 * 	the converted value of option
+	 *
+	 * @throws IllegalArgumentException
+	 * 	in case of no value provided, value specified twice or invalid value
+	 */
+	protected <T> T needArgsParam(Object existing, ListIterator<String> args, Class<T> type)
+	{
+		return needArgsParam(existing, args, ValueConverters.of(type));
+	}
+
+	/**
+	 * Utility method to read and convert option value.
+	 *
+	 * @param existing
+	 * 	existing object of option value
+	 * @param args
+	 * 	remaining arguments
+	 * @param converter
+	 * 	converter of value
+	 * @param <T>
+	 * 	type of value
+	 *
+	 * @return
+	 * 	the converted value of option
+	 *
+	 * @throws IllegalArgumentException
+	 * 	in case of no value provided, value specified twice or invalid value
+	 */
+	protected <T> T needArgsParam(Object existing, ListIterator<String> args, ValueConverter<T> converter)
+	{
+		return converter.convert(needArgsParam(existing, args));
+	}
+
+	/**
+	 * Utility method to read int option value, without boxing.
+	 *
+	 * @param args
+	 * 	remaining arguments
+	 *
+	 * @return
+	 * 	the value of option
+	 *
+	 * @throws IllegalArgumentException
+	 * 	in case of no value provided or invalid value
+	 */
+	protected int needIntArgsParam(ListIterator<String> args)
+	{
+		return ValueConverters.parseInt(needArgsParam(null, args));
+	}
+
+	/**
+	 * Utility method to read long option value, without boxing.
+	 *
+	 * @param args
+	 * 	remaining arguments
+	 * @param converter
+	 * 	converter of value, such as {@link ValueConverters#LONG} or {@link ValueConverters.Size}
+	 *
+	 * @return
+	 * 	the value of option
+	 *
+	 * @throws IllegalArgumentException
+	 * 	in case of no value provided or invalid value
+	 */
+	protected long needLongArgsParam(ListIterator<String> args, ValueConverter.OfLong converter)
+	{
+		return converter.convertLong(needArgsParam(null, args));
+	}
+
+	/**
+	 * Utility method to read double option value, without boxing.
+	 *
+	 * @param args
+	 * 	remaining arguments
+	 *
+	 * @return
+	 * 	the value of option
+	 *
+	 * @throws IllegalArgumentException
+	 * 	in case of no value provided or invalid value
+	 */
+	protected double needDoubleArgsParam(ListIterator<String> args)
+	{
+		return ValueConverters.parseDouble(needArgsParam(null, args));
+	}
+
 	/**
 	 * Utility method to format commands or options output.
 	 *
@@ -421,13 +1096,14 @@ public abstract class AbstractCommand implements Command
 	 */
 	protected String formatOptions(CommandContext context, Map<String, String> options)
 	{
-		int screenSize = 80;
-		int leftLength =
-				options.keySet().stream().mapToInt(String::length).reduce(Math::max).orElse(0)+4;
-		int rightLength = screenSize-leftLength;
-		return options.entrySet().stream()
-				.map(e -> String.format("%-"+leftLength+"s%s", e.getKey(), indentNextLines(wrapWithNewLine(WordUtils.wrap(e.getValue(), rightLength)), leftLength)))
-				.collect(Collectors.joining());
+		StringBuilder output = new StringBuilder();
+		try {
+			new HelpRenderer(output, configHelpWidth(context)).table(options);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return output.toString();
 	}
 
 	/**
@@ -457,7 +1133,16 @@ public abstract class AbstractCommand implements Command
 	 */
 	protected String indentNextLines(String content, int indentation)
 	{
-		return content.replaceAll("\n(.)", String.format("\n%"+indentation+"s$1", ""));
+		StringBuilder output = new StringBuilder(content.length());
+		for (int i = 0; i < content.length(); ++i) {
+			char c = content.charAt(i);
+			output.append(c);
+			if (c == '\n' && i+1 < content.length() && content.charAt(i+1) != '\n') {
+				for (int j = 0; j < indentation; ++j)
+					output.append(' ');
+			}
+		}
+		return output.toString();
 	}
 
 	@FunctionalInterface
@@ -1,73 +1,142 @@
 package net.dryuf.cmdline.command;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
+import lombok.AllArgsConstructor;
+import net.dryuf.cmdline.app.BeanFactory;
+import net.dryuf.cmdline.app.LifecycleListener;
+import net.dryuf.cmdline.completion.CompletionNode;
+import net.dryuf.cmdline.jfr.CommandEvents;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 /**
  * Partial implementation for parent command distributing calls to subcommands.
+ *
+ * The parent is {@link AsyncCommand}, its {@link #executeAsync()} composes the subcommand without blocking, running
+ * synchronous subcommand by {@link net.dryuf.cmdline.app.AppContext#getCommandExecutor()}.
  */
-public abstract class AbstractParentCommand extends AbstractCommand
+public abstract class AbstractParentCommand extends AbstractCommand implements AsyncCommand
 {
-	private Command childCommand;
-	private CommandContext childContext;
+	private static final Collection<String> HELP_ARGUMENTS = ImmutableSet.of("help", "--help", "-h");
+
+	private static final ClassValue<AtomicReference<SubCommandIndex>> SUB_COMMAND_INDEXES = new ClassValue<AtomicReference<SubCommandIndex>>()
+	{
+		@Override
+		protected AtomicReference<SubCommandIndex> computeValue(Class<?> type)
+		{
+			return new AtomicReference<>();
+		}
+	};
+
+	private static final ClassValue<Boolean> SUB_COMMANDS_OVERRIDDEN = new ClassValue<Boolean>()
+	{
+		@Override
+		protected Boolean computeValue(Class<?> type)
+		{
+			for (Class<?> clazz = type; clazz != AbstractParentCommand.class; clazz = clazz.getSuperclass()) {
+				try {
+					clazz.getDeclaredMethod("configSubCommands", CommandContext.class);
+					return true;
+				}
+				catch (NoSuchMethodException ex) {
+					// continue with superclass
+				}
+			}
+			return false;
+		}
+	};
+
+	private Dispatch dispatch;
 
 	@Override
-	public int setup(CommandContext context, List<String> args) throws Exception
+	protected int setupArguments(CommandContext context, ArgumentCursor args) throws Exception
+	{
+		Object event = CommandEvents.beginSetup();
+		int ret = setupParent(context, args);
+		CommandEvents.endCommand(event, context, ret);
+		return ret;
+	}
+
+	private int setupParent(CommandContext context, ArgumentCursor args) throws Exception
 	{
-		ListIterator<String> argsIterator = args.listIterator();
+		long start = PhaseTimer.start(context);
 		initialize(context);
-		int ret = processArguments(context, argsIterator);
+		PhaseTimer.finish(context, LifecycleListener.Phase.INITIALIZE, start);
+		if (configArgumentFiles(context)) {
+			ArgumentFileExpander expanded = new ArgumentFileExpander(args);
+			int ret;
+			try {
+				ret = processArguments(context, expanded);
+			}
+			catch (ArgumentFileExpander.ArgumentFileException ex) {
+				return usage(context, ex.getMessage());
+			}
+			if (ret != EXIT_CONTINUE)
+				return ret;
+			return dispatch.command.setup(dispatch.context, expanded.remaining());
+		}
+		int ret = processArguments(context, args);
 		if (ret != EXIT_CONTINUE)
 			return ret;
-		return childCommand.setup(childContext, args.subList(argsIterator.nextIndex(), args.size()));
+		return dispatch.command.setup(dispatch.context, args.fork());
 	}
 
 	@Override
 	protected int parseNonOptions(CommandContext context, ListIterator<String> args) throws Exception
 	{
+		SubCommandIndex index = getSubCommandIndex(context);
 		if (!args.hasNext()) {
-			return usage(context, "Missing subcommand.  Type "+configHelpArgument(context)+" for help");
+			return usage(context, "Missing subcommand.  Type "+index.getHelpArgument()+" for help");
 		}
-		String name = args.next();
+		String name = resolveSubCommandName(context, index, args.next());
 		Class<? extends Command> subCommandClass;
-		Map<String, Class<? extends Command>> subCommands = configSubCommands(context);
-		if ((subCommandClass = subCommands.get(name)) == null) {
+		if ((subCommandClass = index.getSubCommand(name)) == null) {
 			return usage(
 					context,
 					"" +
-							"Unknown option or command: "+name+"\n" +
-							"Type "+configHelpArgument(context)+" for supported options and commands"
+							"Unknown option or command: "+name +
+							formatSuggestions(context, index.getCommandNames(), name)+"\n" +
+							"Type "+index.getHelpArgument()+" for supported options and commands"
 			);
 		}
-		if (subCommandClass == subCommands.get(Iterables.getFirst(configHelpArgument(context), null))) {
-			return this.help(context, ImmutableList.copyOf(args));
+		if (index.isHelpCommand(subCommandClass)) {
+			return this.help(context, remainingArguments(args));
 		}
-		childContext = createChildContext(context, name, false);
-		childCommand = childContext.getAppContext().getBeanFactory().getBean(subCommandClass);
+		long start = PhaseTimer.start(context);
+		CommandContext childContext = createChildContext(context, name, false);
+		dispatch = new Dispatch(childContext, createSubCommand(childContext, subCommandClass));
+		PhaseTimer.finish(childContext, LifecycleListener.Phase.CREATE_CHILD, start);
 		return EXIT_CONTINUE;
 	}
 
 	@Override
 	protected boolean parseOption(CommandContext context, String arg, ListIterator<String> args) throws Exception
 	{
-		if (arg.equals(Iterables.getFirst(configHelpArgument(context), null))) {
+		SubCommandIndex index = getSubCommandIndex(context);
+		if (arg.equals(index.getHelpArgument())) {
 			return false;
 		}
 		return super.parseOption(context, arg, args);
 	}
 
+	@Override
+	protected boolean isHelpArgument(CommandContext context, String arg)
+	{
+		return getSubCommandIndex(context).getHelpArguments().contains(arg);
+	}
+
 	@Override
 	protected int parseHelp(CommandContext context, ListIterator<String> args) throws Exception
 	{
-		return this.help(context, ImmutableList.copyOf(args));
+		return this.help(context, remainingArguments(args));
 	}
 
 	@Override
@@ -77,17 +146,18 @@ public abstract class AbstractParentCommand extends AbstractCommand
 			return helpThis(context);
 		}
 		else {
-			String name = args.get(0);
-			Class<? extends Command> childCommandClass = configSubCommands(context).get(name);
+			SubCommandIndex index = getSubCommandIndex(context);
+			String name = resolveSubCommandName(context, index, args.get(0));
+			Class<? extends Command> childCommandClass = index.getSubCommand(name);
 			if (childCommandClass == null) {
 				return usage(context, "" +
-						"Unsupported command " + name + "\n" +
-						"Type "+configHelpArgument(context)+" for list of supported commands.\n"
+						"Unsupported command " + name +
+						formatSuggestions(context, index.getCommandNames(), name) + "\n" +
+						"Type "+index.getHelpArgument()+" for list of supported commands.\n"
 				);
 			}
 			CommandContext childContext = createChildContext(context, name, true);
-			this.childCommand = childContext.getAppContext().getBeanFactory().getBean(childCommandClass);
-			return this.childCommand.subHelp(
+			return createSubCommand(childContext, childCommandClass).subHelp(
 					childContext,
 					args.subList(1, args.size())
 			);
@@ -96,28 +166,117 @@ public abstract class AbstractParentCommand extends AbstractCommand
 	}
 
 	@Override
-	public int helpThis(CommandContext context) throws Exception
+	protected void renderHelp(CommandContext context, HelpRenderer help) throws IOException
 	{
-		System.out.print("" +
-				"Usage: " + context.getCommandPath() + "options... command...\n" +
-				wrapWithNewLine(configHelpTitle(context)) +
-				"\nOptions:\n" +
-				formatOptions(context, configOptionsDescription(context)) +
-				"\nCommands:\n" +
-				formatOptions(context, configCommandsDescription(context))
-		);
-		return EXIT_SUCCESS;
+		help.append("Usage: ").append(context.getCommandPath()).append("options... command...\n")
+				.line(configHelpTitle(context))
+				.append("\nOptions:\n")
+				.table(configOptionsDescription(context))
+				.append("\nCommands:\n")
+				.table(getSubCommandIndex(context).getCommandsDescription());
+	}
 
+	@Override
+	protected void renderUsage(CommandContext context, HelpRenderer help) throws IOException
+	{
+		help.append("Usage: ").append(context.getCommandPath()).append("options... command...\n")
+				.append("Type ").append(String.valueOf(getSubCommandIndex(context).getHelpArgument())).append(" for help\n");
 	}
 
 	@Override
 	public int execute() throws Exception
 	{
-		return childCommand.execute();
+		long start = PhaseTimer.start(dispatch.context);
+		Object event = CommandEvents.beginExecute();
+		int ret = dispatch.command.execute();
+		CommandEvents.endCommand(event, dispatch.context, ret);
+		PhaseTimer.finish(dispatch.context, LifecycleListener.Phase.EXECUTE, start);
+		return ret;
+	}
+
+	@Override
+	public CompletionStage<Integer> executeAsync()
+	{
+		Dispatch current = dispatch;
+		long start = PhaseTimer.start(current.context);
+		Object event = CommandEvents.beginExecute();
+		CompletionStage<Integer> stage = AsyncCommand.executeAsync(current.command,
+				current.context.getAppContext().getCommandExecutor());
+		if (event == null && current.context.getAppContext().getLifecycleListener() == LifecycleListener.NONE)
+			return stage;
+		return stage.thenApply(ret -> {
+			CommandEvents.endCommand(event, current.context, ret);
+			PhaseTimer.finish(current.context, LifecycleListener.Phase.EXECUTE, start);
+			return ret;
+		});
+	}
+
+	@Override
+	public CompletionNode completion(CommandContext context) throws Exception
+	{
+		initialize(context);
+		SubCommandIndex index = getSubCommandIndex(context);
+		return getCompletionOptions(context).withCommands(index.getCommandNames(), name -> {
+			Class<? extends Command> childCommandClass = index.getSubCommand(name);
+			if (childCommandClass == null)
+				return null;
+			CommandContext childContext = createChildContext(context, name, true);
+			return createSubCommand(childContext, childCommandClass).completion(childContext);
+		});
+	}
+
+	/**
+	 * Resolves subcommand name, expanding unique prefix if {@link #configAbbreviations} is enabled.
+	 *
+	 * @param context
+	 * 	command context
+	 * @param index
+	 * 	subcommands index
+	 * @param name
+	 * 	name provided on command line
+	 *
+	 * @return
+	 * 	full subcommand name or the original name if not resolved.
+	 */
+	protected String resolveSubCommandName(CommandContext context, SubCommandIndex index, String name)
+	{
+		if (index.hasSubCommand(name) || !configAbbreviations(context))
+			return name;
+		String expanded = index.getCommandNames().findUnique(name);
+		return expanded == null ? name : expanded;
 	}
 
 	/**
-	 * Gets supported commands.
+	 * Gets the subcommands dispatch index.  The index is built on first use and cached per command class, therefore
+	 * {@link #configSubCommandEntries}, {@link #configHelpArgument} and {@link #configCommandsDescription} must return
+	 * the same content for all instances of the class.  Override this method if the content is dynamic.
+	 *
+	 * @param context
+	 * 	command context
+	 *
+	 * @return
+	 * 	subcommands index.
+	 */
+	protected SubCommandIndex getSubCommandIndex(CommandContext context)
+	{
+		AtomicReference<SubCommandIndex> holder = SUB_COMMAND_INDEXES.get(getClass());
+		SubCommandIndex index = holder.get();
+		if (index == null) {
+			index = SubCommandIndex.ofEntries(
+					configSubCommandEntries(context),
+					configHelpArgument(context),
+					configCommandsDescription(context)
+			);
+			if (!holder.compareAndSet(null, index))
+				index = holder.get();
+		}
+		return index;
+	}
+
+	/**
+	 * Gets supported commands.  Called once per class, see {@link #getSubCommandIndex}.
+	 *
+	 * Default implementation provides commands declared by {@link SubCommand} annotations.
 	 *
 	 * @param context
 	 * 	command context
@@ -125,7 +284,60 @@ public abstract class AbstractParentCommand extends AbstractCommand
 	 * @return
 	 * 	supported commands, name to implementing class.
 	 */
-	protected abstract Map<String, Class<? extends Command>> configSubCommands(CommandContext context);
+	protected Map<String, Class<? extends Command>> configSubCommands(CommandContext context)
+	{
+		SubCommandRegistry registry = SubCommandRegistry.of(getClass());
+		if (registry == null) {
+			throw new IllegalStateException("No subcommands declared, override configSubCommands or annotate "+
+					"with @SubCommand: "+getClass().getName());
+		}
+		return registry.getSubCommands();
+	}
+
+	/**
+	 * Gets supported commands as lazy entries, so only the selected subcommand class is loaded.  Called once per
+	 * class, see {@link #getSubCommandIndex}.
+	 *
+	 * Default implementation provides {@link #configSubCommands} if overridden, the entries of
+	 * {@link SubCommandRegistry} otherwise, which load the classes by name when generated by annotation processor.
+	 *
+	 * @param context
+	 * 	command context
+	 *
+	 * @return
+	 * 	supported commands, name to entry of implementing class.
+	 */
+	protected Map<String, SubCommandEntry> configSubCommandEntries(CommandContext context)
+	{
+		SubCommandRegistry registry = SUB_COMMANDS_OVERRIDDEN.get(getClass()) ? null : SubCommandRegistry.of(getClass());
+		if (registry == null) {
+			return SubCommandEntry.ofClasses(configSubCommands(context));
+		}
+		return registry.getSubCommandEntries();
+	}
+
+	/**
+	 * Creates subcommand instance.  Uses generated {@link SubCommandRegistry} if available, bean factory otherwise.
+	 *
+	 * @param childContext
+	 * 	child command context
+	 * @param subCommandClass
+	 * 	class implementing the subcommand
+	 *
+	 * @return
+	 * 	new subcommand instance.
+	 */
+	protected Command createSubCommand(CommandContext childContext, Class<? extends Command> subCommandClass)
+	{
+		BeanFactory beanFactory = childContext.getAppContext().getBeanFactory();
+		SubCommandRegistry registry = SubCommandRegistry.of(getClass());
+		if (registry != null) {
+			Command command = registry.createCommand(subCommandClass, beanFactory);
+			if (command != null)
+				return command;
+		}
+		return beanFactory.getBean(subCommandClass);
+	}
 
 	/**
 	 * {@inheritDoc}
@@ -135,7 +347,7 @@ public abstract class AbstractParentCommand extends AbstractCommand
 	@Override
 	protected Collection<String> configHelpArgument(CommandContext context)
 	{
-		return ImmutableSet.of("help", "--help", "-h");
+		return HELP_ARGUMENTS;
 	}
 
 	/**
@@ -149,6 +361,10 @@ public abstract class AbstractParentCommand extends AbstractCommand
 	 */
 	protected Map<String, String> configCommandsDescription(CommandContext context)
 	{
+		SubCommandRegistry registry = SubCommandRegistry.of(getClass());
+		if (registry != null) {
+			return registry.getCommandsDescription();
+		}
 		return Collections.emptyMap();
 	}
 
@@ -166,11 +382,8 @@ public abstract class AbstractParentCommand extends AbstractCommand
 	@Override
 	protected int usage(CommandContext context, String errorMessage)
 	{
-		System.err.println(errorMessage);
-		System.err.print("" +
-				"Usage: " + context.getCommandPath() + "options... command...\n" +
-				"Type " + configHelpArgument(context) + " for help\n"
-		);
+		context.getError().println(errorMessage);
+		printHelpPage(context, context.getError(), HelpPageCache.Page.USAGE, help -> renderUsage(context, help));
 		return EXIT_USAGE;
 	}
 
@@ -191,4 +404,15 @@ public abstract class AbstractParentCommand extends AbstractCommand
 	{
 		return commandContext.createChild(this, name, null);
 	}
+
+	/**
+	 * Subcommand selected by this invocation, with its context.
+	 */
+	@AllArgsConstructor
+	private static final class Dispatch
+	{
+		final CommandContext context;
+
+		final Command command;
+	}
 }
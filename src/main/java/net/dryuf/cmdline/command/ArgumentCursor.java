@@ -0,0 +1,258 @@
+package net.dryuf.cmdline.command;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+
+/**
+ * Cursor over command line arguments, without copying them.
+ *
+ * The cursor reads range of the original array.  The subcommands get their own cursor by {@link #fork()}, sharing the
+ * same array, and {@link #remaining()} provides {@link List} view of the rest.  The cursor implements
+ * {@link ListIterator}, so it is passed directly to the methods accepting iterator, such as
+ * {@link AbstractCommand#parseOption}.  The indexes are relative to the start of the cursor.
+ */
+public final class ArgumentCursor implements ListIterator<String>
+{
+	private final String[] args;
+
+	private final int start;
+
+	private final int end;
+
+	private int position;
+
+	private ArgumentCursor(String[] args, int start, int end)
+	{
+		this.args = args;
+		this.start = start;
+		this.end = end;
+		this.position = start;
+	}
+
+	/**
+	 * Creates cursor over arguments.  The array is not copied and must not be modified while in use.
+	 *
+	 * @param args
+	 * 	arguments
+	 *
+	 * @return
+	 * 	new cursor.
+	 */
+	public static ArgumentCursor of(String... args)
+	{
+		return new ArgumentCursor(args, 0, args.length);
+	}
+
+	/**
+	 * Creates cursor over arguments.  The list provided by {@link #remaining()} is not copied, other lists are
+	 * copied once.
+	 *
+	 * @param args
+	 * 	arguments
+	 *
+	 * @return
+	 * 	new cursor.
+	 */
+	public static ArgumentCursor of(List<String> args)
+	{
+		if (args instanceof RemainingList) {
+			RemainingList remaining = (RemainingList) args;
+			return new ArgumentCursor(remaining.args, remaining.start, remaining.end);
+		}
+		return of(args.toArray(new String[0]));
+	}
+
+	/**
+	 * Checks whether there is next argument.
+	 *
+	 * @return
+	 * 	true if there is next argument.
+	 */
+	@Override
+	public boolean hasNext()
+	{
+		return position < end;
+	}
+
+	/**
+	 * Gets next argument, without consuming it.
+	 *
+	 * @return
+	 * 	next argument or null if there is none.
+	 */
+	public String peek()
+	{
+		return position < end ? args[position] : null;
+	}
+
+	/**
+	 * Consumes next argument.
+	 *
+	 * @return
+	 * 	next argument.
+	 *
+	 * @throws NoSuchElementException
+	 * 	if there is no next argument.
+	 */
+	public String consume()
+	{
+		if (position >= end)
+			throw new NoSuchElementException();
+		return args[position++];
+	}
+
+	@Override
+	public String next()
+	{
+		return consume();
+	}
+
+	@Override
+	public boolean hasPrevious()
+	{
+		return position > start;
+	}
+
+	@Override
+	public String previous()
+	{
+		if (position <= start)
+			throw new NoSuchElementException();
+		return args[--position];
+	}
+
+	@Override
+	public int nextIndex()
+	{
+		return position-start;
+	}
+
+	@Override
+	public int previousIndex()
+	{
+		return position-start-1;
+	}
+
+	/**
+	 * Marks current position.
+	 *
+	 * @return
+	 * 	mark to be passed to {@link #reset(int)}.
+	 */
+	public int mark()
+	{
+		return position-start;
+	}
+
+	/**
+	 * Returns to marked position.
+	 *
+	 * @param mark
+	 * 	mark obtained from {@link #mark()}
+	 */
+	public void reset(int mark)
+	{
+		if (mark < 0 || mark > end-start)
+			throw new IllegalArgumentException("Mark out of range: "+mark);
+		position = start+mark;
+	}
+
+	/**
+	 * Gets number of remaining arguments.
+	 *
+	 * @return
+	 * 	number of remaining arguments.
+	 */
+	public int remainingCount()
+	{
+		return end-position;
+	}
+
+	/**
+	 * Gets view of remaining arguments.  The view is not affected by further moves of the cursor.
+	 *
+	 * @return
+	 * 	list of remaining arguments.
+	 */
+	public List<String> remaining()
+	{
+		return new RemainingList(args, position, end);
+	}
+
+	/**
+	 * Creates cursor over remaining arguments, starting at its own index zero.
+	 *
+	 * @return
+	 * 	new cursor.
+	 */
+	public ArgumentCursor fork()
+	{
+		return new ArgumentCursor(args, position, end);
+	}
+
+	@Override
+	public void remove()
+	{
+		throw new UnsupportedOperationException("Arguments are read only");
+	}
+
+	@Override
+	public void set(String s)
+	{
+		throw new UnsupportedOperationException("Arguments are read only");
+	}
+
+	@Override
+	public void add(String s)
+	{
+		throw new UnsupportedOperationException("Arguments are read only");
+	}
+
+	@Override
+	public String toString()
+	{
+		return remaining().toString();
+	}
+
+	private static final class RemainingList extends AbstractList<String> implements RandomAccess
+	{
+		final String[] args;
+
+		final int start;
+
+		final int end;
+
+		RemainingList(String[] args, int start, int end)
+		{
+			this.args = args;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public String get(int index)
+		{
+			if (index < 0 || index >= end-start)
+				throw new IndexOutOfBoundsException("Index: "+index+", size: "+(end-start));
+			return args[start+index];
+		}
+
+		@Override
+		public int size()
+		{
+			return end-start;
+		}
+
+		@Override
+		public List<String> subList(int fromIndex, int toIndex)
+		{
+			if (fromIndex < 0 || toIndex > end-start || fromIndex > toIndex)
+				throw new IndexOutOfBoundsException("Range: "+fromIndex+"-"+toIndex+", size: "+(end-start));
+			return new RemainingList(args, start+fromIndex, start+toIndex);
+		}
+	}
+}
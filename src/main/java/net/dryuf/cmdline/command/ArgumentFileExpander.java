@@ -0,0 +1,287 @@
+package net.dryuf.cmdline.command;
+
+import net.dryuf.cmdline.batch.ArgumentTokenizer;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Arguments with {@code @file} arguments replaced by arguments read from the file, in the same style as javac.
+ *
+ * The file is split by {@link ArgumentTokenizer}, lazily, one argument at a time, so the arguments stream into the
+ * command without materializing them all.  Large files are memory mapped.  The files are read as UTF-8 and the
+ * arguments within file are not expanded again.  The argument starting with {@code @@} is passed with the first
+ * {@code @} removed.
+ *
+ * The iterator supports stepping back by single argument, which is what {@link AbstractCommand#parseOptions} needs.
+ */
+final class ArgumentFileExpander implements ListIterator<String>
+{
+	/** Files smaller than this are read into heap, larger are memory mapped. */
+	static final int MAP_THRESHOLD = 64*1024;
+
+	private final ArgumentCursor args;
+
+	private String fileName;
+
+	private ArgumentTokenizer file;
+
+	private String fileNext;
+
+	private String last;
+
+	private boolean steppedBack;
+
+	private int index;
+
+	/**
+	 * Creates expander.
+	 *
+	 * @param args
+	 * 	original arguments
+	 */
+	ArgumentFileExpander(ArgumentCursor args)
+	{
+		this.args = args;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if (steppedBack)
+			return true;
+		for (;;) {
+			if (hasFileArguments())
+				return true;
+			String next = args.peek();
+			if (next == null)
+				return false;
+			if (next.length() < 2 || next.charAt(0) != '@' || next.charAt(1) == '@')
+				return true;
+			openFile(args.consume().substring(1));
+		}
+	}
+
+	@Override
+	public String next()
+	{
+		if (steppedBack) {
+			steppedBack = false;
+			++index;
+			return last;
+		}
+		if (!hasNext())
+			throw new NoSuchElementException();
+		String next;
+		if (fileNext != null) {
+			next = fileNext;
+			fileNext = null;
+		}
+		else {
+			next = args.consume();
+			if (next.startsWith("@@"))
+				next = next.substring(1);
+		}
+		++index;
+		return last = next;
+	}
+
+	@Override
+	public boolean hasPrevious()
+	{
+		return !steppedBack && last != null;
+	}
+
+	@Override
+	public String previous()
+	{
+		if (!hasPrevious())
+			throw new NoSuchElementException("Only single step back supported");
+		steppedBack = true;
+		--index;
+		return last;
+	}
+
+	@Override
+	public int nextIndex()
+	{
+		return index;
+	}
+
+	@Override
+	public int previousIndex()
+	{
+		return index-1;
+	}
+
+	/**
+	 * Gets cursor over remaining arguments, for subcommand.  The arguments are materialized only if they are partially
+	 * read from file.
+	 *
+	 * @return
+	 * 	cursor over remaining arguments.
+	 */
+	ArgumentCursor remaining()
+	{
+		if (!steppedBack && !hasFileArguments())
+			return args.fork();
+		List<String> remaining = new ArrayList<>();
+		if (steppedBack)
+			remaining.add(last);
+		steppedBack = false;
+		while (hasFileArguments()) {
+			remaining.add(fileNext);
+			fileNext = null;
+		}
+		remaining.addAll(args.remaining());
+		return ArgumentCursor.of(remaining);
+	}
+
+	@Override
+	public void remove()
+	{
+		throw new UnsupportedOperationException("Arguments are read only");
+	}
+
+	@Override
+	public void set(String s)
+	{
+		throw new UnsupportedOperationException("Arguments are read only");
+	}
+
+	@Override
+	public void add(String s)
+	{
+		throw new UnsupportedOperationException("Arguments are read only");
+	}
+
+	private boolean hasFileArguments()
+	{
+		while (file != null) {
+			if (fileNext != null)
+				return true;
+			fileNext = readFile();
+		}
+		return false;
+	}
+
+	private void openFile(String name)
+	{
+		ByteBuffer content;
+		try (FileChannel channel = FileChannel.open(Paths.get(name), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size >= MAP_THRESHOLD) {
+				content = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			}
+			else {
+				content = ByteBuffer.allocate((int) size);
+				while (content.hasRemaining() && channel.read(content) >= 0) {
+				}
+				// cast to Buffer keeps the Java 8 signature, ByteBuffer.flip() exists only since Java 9:
+				((Buffer) content).flip();
+			}
+		}
+		catch (IOException|RuntimeException ex) {
+			String reason = ex.getMessage() == null || ex.getMessage().equals(name) ? ex.getClass().getSimpleName() : ex.getMessage();
+			throw new ArgumentFileException("Cannot read argument file "+name+": "+reason, ex);
+		}
+		fileName = name;
+		file = new ArgumentTokenizer(new ByteSequence(content));
+	}
+
+	private String readFile()
+	{
+		String next;
+		try {
+			next = file.next();
+		}
+		catch (IllegalArgumentException ex) {
+			throw new ArgumentFileException("Argument file "+fileName+": "+ex.getMessage(), ex);
+		}
+		if (next == null) {
+			file = null;
+			fileName = null;
+			return null;
+		}
+		return decode(next);
+	}
+
+	/**
+	 * Decodes argument read as bytes into UTF-8 string.  ASCII only argument is returned as is.
+	 */
+	private static String decode(String bytes)
+	{
+		for (int i = 0; i < bytes.length(); ++i) {
+			if (bytes.charAt(i) >= 0x80)
+				return new String(bytes.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Error reading argument file, reported as usage error.
+	 */
+	static class ArgumentFileException extends IllegalArgumentException
+	{
+		private static final long serialVersionUID = 1L;
+
+		ArgumentFileException(String message, Throwable cause)
+		{
+			super(message, cause);
+		}
+	}
+
+	/**
+	 * Bytes viewed as ISO-8859-1 characters.  As the tokenizer special characters are all ASCII and UTF-8 multibyte
+	 * sequences do not contain ASCII bytes, the UTF-8 content is tokenized correctly without decoding it first.
+	 */
+	private static final class ByteSequence implements CharSequence
+	{
+		private final ByteBuffer content;
+
+		ByteSequence(ByteBuffer content)
+		{
+			this.content = content;
+		}
+
+		@Override
+		public int length()
+		{
+			return content.limit();
+		}
+
+		@Override
+		public char charAt(int index)
+		{
+			return (char) (content.get(index)&0xff);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end)
+		{
+			ByteBuffer slice = content.duplicate();
+			((Buffer) slice).position(start);
+			((Buffer) slice).limit(end);
+			return new ByteSequence(slice.slice());
+		}
+
+		@Override
+		public String toString()
+		{
+			StringBuilder output = new StringBuilder(length());
+			for (int i = 0; i < length(); ++i)
+				output.append(charAt(i));
+			return output.toString();
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package net.dryuf.cmdline.command;
+
+import net.dryuf.cmdline.app.CommandExecutor;
+import net.dryuf.cmdline.completion.CompletionNode;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+
+/**
+ * Command executing asynchronously, without blocking the calling thread.
+ *
+ * The synchronous {@link #execute()} is provided by default, waiting for {@link #executeAsync()}, so the command can
+ * be used wherever {@link Command} is expected.  The other way, {@link #executeAsync(Command, CommandExecutor)} and
+ * {@link #of(Command, CommandExecutor)} run synchronous command by {@link CommandExecutor}.
+ */
+public interface AsyncCommand extends Command
+{
+	/**
+	 * Executes the command asynchronously.
+	 *
+	 * @return
+	 * 	stage completed by exit code (must be non-negative) or exceptionally in case of error.
+	 */
+	CompletionStage<Integer> executeAsync();
+
+	/**
+	 * Executes the command, waiting for {@link #executeAsync()}.
+	 *
+	 * @return
+	 * 	exit code (must be non-negative).
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	@Override
+	default int execute() throws Exception
+	{
+		try {
+			return executeAsync().toCompletableFuture().get();
+		}
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof Exception)
+				throw (Exception) ex.getCause();
+			if (ex.getCause() instanceof Error)
+				throw (Error) ex.getCause();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Executes any command asynchronously.  {@link AsyncCommand} is executed directly, synchronous command is
+	 * executed by executor.
+	 *
+	 * @param command
+	 * 	command to execute
+	 * @param executor
+	 * 	executor for synchronous command
+	 *
+	 * @return
+	 * 	stage completed by exit code.
+	 */
+	static CompletionStage<Integer> executeAsync(Command command, CommandExecutor executor)
+	{
+		if (command instanceof AsyncCommand)
+			return ((AsyncCommand) command).executeAsync();
+		return executor.submit(command::execute);
+	}
+
+	/**
+	 * Adapts any command to {@link AsyncCommand}.
+	 *
+	 * @param command
+	 * 	command to adapt
+	 * @param executor
+	 * 	executor for synchronous command
+	 *
+	 * @return
+	 * 	the command itself if already asynchronous, adapter executing it by executor otherwise.
+	 */
+	static AsyncCommand of(Command command, CommandExecutor executor)
+	{
+		if (command instanceof AsyncCommand)
+			return (AsyncCommand) command;
+		return new AsyncCommand()
+		{
+			@Override
+			public int setup(CommandContext context, List<String> args) throws Exception
+			{
+				return command.setup(context, args);
+			}
+
+			@Override
+			public int setup(CommandContext context, ArgumentCursor args) throws Exception
+			{
+				return command.setup(context, args);
+			}
+
+			@Override
+			public int help(CommandContext context, List<String> args) throws Exception
+			{
+				return command.help(context, args);
+			}
+
+			@Override
+			public int subHelp(CommandContext context, List<String> args) throws Exception
+			{
+				return command.subHelp(context, args);
+			}
+
+			@Override
+			public int execute() throws Exception
+			{
+				return command.execute();
+			}
+
+			@Override
+			public CompletionNode completion(CommandContext context) throws Exception
+			{
+				return command.completion(context);
+			}
+
+			@Override
+			public CompletionStage<Integer> executeAsync()
+			{
+				return executor.submit(command::execute);
+			}
+		};
+	}
+}
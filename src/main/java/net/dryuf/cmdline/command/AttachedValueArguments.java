@@ -0,0 +1,135 @@
+package net.dryuf.cmdline.command;
+
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Arguments pending after option, starting with value attached to the option token, such as {@code value} in
+ * {@code --name=value} or {@code -ovalue}.
+ *
+ * The attached value is kept as offset into the token and the string is created only when the option consumes it,
+ * so flags within cluster like {@code -abc} do not allocate.  The instance is reused for all options of single
+ * {@link AbstractCommand#parseOptions} call.
+ */
+final class AttachedValueArguments implements ListIterator<String>
+{
+	private ListIterator<String> args;
+
+	private String token;
+
+	private int valueStart;
+
+	private boolean pending;
+
+	private boolean consumed;
+
+	private int delegated;
+
+	/**
+	 * Resets to new option token.
+	 *
+	 * @param args
+	 * 	arguments following the token
+	 * @param token
+	 * 	option token
+	 * @param valueStart
+	 * 	offset of attached value within token
+	 * @param pending
+	 * 	whether the token has attached value, even empty
+	 *
+	 * @return
+	 * 	this instance.
+	 */
+	AttachedValueArguments reset(ListIterator<String> args, String token, int valueStart, boolean pending)
+	{
+		this.args = args;
+		this.token = token;
+		this.valueStart = valueStart;
+		this.pending = pending;
+		this.consumed = false;
+		this.delegated = 0;
+		return this;
+	}
+
+	/**
+	 * Checks whether the attached value was consumed by option.
+	 *
+	 * @return
+	 * 	true if the attached value was consumed.
+	 */
+	boolean isValueConsumed()
+	{
+		return consumed;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		return pending || args.hasNext();
+	}
+
+	@Override
+	public String next()
+	{
+		if (pending) {
+			pending = false;
+			consumed = true;
+			return token.substring(valueStart);
+		}
+		String next = args.next();
+		++delegated;
+		return next;
+	}
+
+	@Override
+	public boolean hasPrevious()
+	{
+		return delegated > 0 || consumed;
+	}
+
+	@Override
+	public String previous()
+	{
+		if (delegated > 0) {
+			--delegated;
+			return args.previous();
+		}
+		if (consumed) {
+			consumed = false;
+			pending = true;
+			return token.substring(valueStart);
+		}
+		throw new NoSuchElementException();
+	}
+
+	@Override
+	public int nextIndex()
+	{
+		return args.nextIndex()-(pending ? 1 : 0);
+	}
+
+	@Override
+	public int previousIndex()
+	{
+		return nextIndex()-1;
+	}
+
+	@Override
+	public void remove()
+	{
+		throw new UnsupportedOperationException("Arguments are read only");
+	}
+
+	@Override
+	public void set(String s)
+	{
+		throw new UnsupportedOperationException("Arguments are read only");
+	}
+
+	@Override
+	public void add(String s)
+	{
+		throw new UnsupportedOperationException("Arguments are read only");
+	}
+}
@@ -1,11 +1,11 @@
 package net.dryuf.cmdline.command;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import net.dryuf.cmdline.app.AppContext;
 import net.dryuf.cmdline.app.CommonAppContext;
 
 import java.util.Map;
-import java.util.Optional;
 
 
 /**
@@ -18,6 +18,8 @@ public class ChildCommandContext implements CommandContext
 	private final CommandContext parentContext;
 	private final Command parentCommand;
 	private final String commandName;
+	@Getter(AccessLevel.NONE)
+	private CommandPath path;
 
 	public ChildCommandContext(CommandContext parentContext, Command parentCommand, String commandName)
 	{
@@ -45,8 +47,16 @@ public class ChildCommandContext implements CommandContext
 	@Override
 	public String getCommandPath()
 	{
-		return getParentContext().getCommandPath() +
-				Optional.ofNullable(commandName).map(s -> s + " ").orElse("");
+		return getPath().getJoined();
+	}
+
+	@Override
+	public CommandPath getPath()
+	{
+		CommandPath result = path;
+		if (result == null)
+			path = result = parentContext.getPath().child(commandName);
+		return result;
 	}
 
 	@Override
@@ -1,10 +1,16 @@
 package net.dryuf.cmdline.command;
 
+import net.dryuf.cmdline.completion.CompletionNode;
+
 import java.util.List;
 
 
 /**
  * Command object interface.
+ *
+ * Command instance serves single invocation, the state of invocation is held by the instance itself and by its
+ * {@link CommandContext}, including the output streams.  Therefore independent invocations can run concurrently, as
+ * long as the commands do not share mutable state otherwise.
  */
 public interface Command
 {
@@ -16,6 +22,8 @@ public interface Command
 	int EXIT_FAILURE = 121;
 	/** Exit due to incorrect usage. */
 	int EXIT_USAGE = 122;
+	/** Exit due to timeout, the same as timeout(1) utility. */
+	int EXIT_TIMEOUT = 124;
 
 	/**
 	 * Sets up the Command object.
@@ -33,6 +41,26 @@ public interface Command
 	 */
 	int setup(CommandContext context, List<String> args) throws Exception;
 
+	/**
+	 * Sets up the Command object, reading arguments from cursor.  The default implementation passes the remaining
+	 * arguments to {@link #setup(CommandContext, List)}, without copying them.
+	 *
+	 * @param context
+	 * 	command context
+	 * @param args
+	 * 	cursor over command arguments
+	 *
+	 * @return
+	 * 	-1 to continue, exit code otherwise.
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	default int setup(CommandContext context, ArgumentCursor args) throws Exception
+	{
+		return setup(context, args.remaining());
+	}
+
 	/**
 	 * Prints help.
 	 *
@@ -75,4 +103,21 @@ public interface Command
 	 * 	in case of error.
 	 */
 	int execute() throws Exception;
+
+	/**
+	 * Provides completion metadata.  The command is initialized for the context, but not set up.
+	 *
+	 * @param context
+	 * 	command context
+	 *
+	 * @return
+	 * 	completion node of this command.
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	default CompletionNode completion(CommandContext context) throws Exception
+	{
+		return CompletionNode.EMPTY;
+	}
 }
@@ -3,6 +3,7 @@ package net.dryuf.cmdline.command;
 import net.dryuf.cmdline.app.AppContext;
 import net.dryuf.cmdline.app.CommonAppContext;
 
+import java.io.PrintStream;
 import java.util.Map;
 
 
@@ -15,7 +16,61 @@ public interface CommandContext
 
 	CommandContext getParentContext();
 
+	/**
+	 * Gets path of this command, each command name followed by space, such as {@code "homecontrol door "}.
+	 *
+	 * @return
+	 * 	joined command path.
+	 */
 	String getCommandPath();
 
+	/**
+	 * Gets structured path of this command, suitable for metrics tags.  The built-in contexts create it once,
+	 * the default implementation parses {@link #getCommandPath()}.
+	 *
+	 * @return
+	 * 	command path.
+	 */
+	default CommandPath getPath()
+	{
+		String path = getCommandPath().trim();
+		return path.isEmpty() ? CommandPath.ROOT : CommandPath.of(path.split(" "));
+	}
+
+	/**
+	 * Gets depth of this command within command tree.
+	 *
+	 * @return
+	 * 	number of commands in path, zero for root context.
+	 */
+	default int getDepth()
+	{
+		return getPath().getDepth();
+	}
+
 	CommandContext createChild(Command command, String commandName, Map<Class<?>, Object> beans);
+
+	/**
+	 * Gets standard output of this invocation.  Commands should write here instead of {@link System#out}, so more
+	 * invocations can run concurrently.
+	 *
+	 * @return
+	 * 	standard output, inherited from parent context by default.
+	 */
+	default PrintStream getOutput()
+	{
+		return getParentContext().getOutput();
+	}
+
+	/**
+	 * Gets standard error of this invocation.  Commands should write here instead of {@link System#err}, so more
+	 * invocations can run concurrently.
+	 *
+	 * @return
+	 * 	standard error, inherited from parent context by default.
+	 */
+	default PrintStream getError()
+	{
+		return getParentContext().getError();
+	}
 }
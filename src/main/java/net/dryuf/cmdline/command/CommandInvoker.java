@@ -0,0 +1,206 @@
+package net.dryuf.cmdline.command;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.dryuf.cmdline.app.AppContext;
+import net.dryuf.cmdline.app.CommandExecutor;
+import net.dryuf.cmdline.app.LifecycleListener;
+import net.dryuf.cmdline.completion.CommandCompletion;
+import net.dryuf.cmdline.completion.CompletionNode;
+import net.dryuf.cmdline.jfr.CommandEvents;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+
+/**
+ * Runs root command repeatedly within single, already initialized {@link AppContext}.
+ *
+ * Each invocation gets its own command instance and {@link CommandContext}, the {@link AppContext} and its
+ * {@link net.dryuf.cmdline.app.BeanFactory} are shared.  The invocations with their own output streams can run
+ * concurrently.
+ */
+@AllArgsConstructor
+public class CommandInvoker
+{
+	/** Application context shared by invocations. */
+	@Getter
+	private final AppContext appContext;
+
+	private final String commandName;
+
+	private final Class<? extends Command> commandClass;
+
+	/**
+	 * Runs full command lifecycle.
+	 *
+	 * @param args
+	 * 	command arguments
+	 *
+	 * @return
+	 * 	exit code (must be non-negative).
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	public int invoke(List<String> args) throws Exception
+	{
+		return invoke(new RootCommandContext(appContext), args);
+	}
+
+	/**
+	 * Runs full command lifecycle, with its own output streams.  The System streams are routed to the provided
+	 * streams too, when {@link OutputRouter} is installed.
+	 *
+	 * @param args
+	 * 	command arguments
+	 * @param output
+	 * 	standard output of invocation
+	 * @param error
+	 * 	standard error of invocation
+	 *
+	 * @return
+	 * 	exit code (must be non-negative).
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	public int invoke(List<String> args, PrintStream output, PrintStream error) throws Exception
+	{
+		RootCommandContext root = new RootCommandContext(appContext, output, error);
+		return OutputRouter.route(output, error, () -> invoke(root, args));
+	}
+
+	/**
+	 * Runs full command lifecycle by {@link AppContext#getCommandExecutor()}, with its own output streams.  When the
+	 * timeout expires, the invocation is interrupted and {@link Command#EXIT_TIMEOUT} returned.
+	 *
+	 * @param args
+	 * 	command arguments
+	 * @param output
+	 * 	standard output of invocation
+	 * @param error
+	 * 	standard error of invocation
+	 * @param timeout
+	 * 	timeout of invocation, null for no timeout
+	 *
+	 * @return
+	 * 	exit code (must be non-negative).
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	public int invoke(List<String> args, PrintStream output, PrintStream error, Duration timeout) throws Exception
+	{
+		return CommandExecutor.await(submit(args, output, error), timeout, error);
+	}
+
+	/**
+	 * Submits full command lifecycle to {@link AppContext#getCommandExecutor()}, with its own output streams.
+	 *
+	 * @param args
+	 * 	command arguments
+	 * @param output
+	 * 	standard output of invocation
+	 * @param error
+	 * 	standard error of invocation
+	 *
+	 * @return
+	 * 	future of exit code, interrupting the invocation when cancelled.
+	 */
+	public CompletableFuture<Integer> submit(List<String> args, PrintStream output, PrintStream error)
+	{
+		return appContext.getCommandExecutor().submit(() -> invoke(args, output, error));
+	}
+
+	/**
+	 * Runs command lifecycle asynchronously.  The setup runs in current thread, the execution by
+	 * {@link AsyncCommand#executeAsync(Command, CommandExecutor)}.  The command output must go to context streams,
+	 * System streams are not routed for asynchronous execution.
+	 *
+	 * @param args
+	 * 	command arguments
+	 * @param output
+	 * 	standard output of invocation
+	 * @param error
+	 * 	standard error of invocation
+	 *
+	 * @return
+	 * 	stage completed by exit code.
+	 */
+	public CompletionStage<Integer> invokeAsync(List<String> args, PrintStream output, PrintStream error)
+	{
+		try {
+			TimingTrace.markInvoked();
+			Command command = appContext.getBeanFactory().getBean(commandClass);
+			CommandContext context = new RootCommandContext(appContext, output, error).createChild(null, commandName, null);
+			int ret = command.setup(context, ArgumentCursor.of(args));
+			if (ret != Command.EXIT_CONTINUE)
+				return CompletableFuture.completedFuture(ret);
+			long start = PhaseTimer.start(context);
+			Object event = CommandEvents.beginExecute();
+			CompletionStage<Integer> stage = AsyncCommand.executeAsync(command, appContext.getCommandExecutor());
+			if (event == null && appContext.getLifecycleListener() == LifecycleListener.NONE)
+				return stage;
+			return stage.thenApply(exit -> {
+				CommandEvents.endCommand(event, context, exit);
+				PhaseTimer.finish(context, LifecycleListener.Phase.EXECUTE, start);
+				return exit;
+			});
+		}
+		catch (Exception ex) {
+			CompletableFuture<Integer> failed = new CompletableFuture<>();
+			failed.completeExceptionally(ex);
+			return failed;
+		}
+	}
+
+	/**
+	 * Gets completion metadata of root command, the tree of its subcommands and options.
+	 *
+	 * @return
+	 * 	completion node of root command.
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	public CompletionNode completion() throws Exception
+	{
+		Command command = appContext.getBeanFactory().getBean(commandClass);
+		return command.completion(new RootCommandContext(appContext).createChild(null, commandName, null));
+	}
+
+	private int invoke(RootCommandContext root, List<String> args) throws Exception
+	{
+		boolean first = TimingTrace.markInvoked();
+		Command command = root.getAppContext().getBeanFactory().getBean(commandClass);
+		CommandContext context = root.createChild(null, commandName, null);
+		if (TimingTrace.isRequested(args) && TimingTrace.isEnabled(command, context)) {
+			return TimingTrace.run(root, args, first,
+					(traced, rest) -> invoke(command, ((RootCommandContext) traced).createChild(null, commandName, null), rest));
+		}
+		return invoke(command, context, args);
+	}
+
+	private int invoke(Command command, CommandContext context, List<String> args) throws Exception
+	{
+		int ret;
+		if (AbstractCommand.isCompletionEnabled(command, context)) {
+			ret = CommandCompletion.handle(command, context, args);
+			if (ret != Command.EXIT_CONTINUE)
+				return ret;
+		}
+		ret = command.setup(context, ArgumentCursor.of(args));
+		if (ret != Command.EXIT_CONTINUE)
+			return ret;
+		long start = PhaseTimer.start(context);
+		Object event = CommandEvents.beginExecute();
+		ret = command.execute();
+		CommandEvents.endCommand(event, context, ret);
+		PhaseTimer.finish(context, LifecycleListener.Phase.EXECUTE, start);
+		return ret;
+	}
+}
@@ -0,0 +1,188 @@
+package net.dryuf.cmdline.command;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+
+/**
+ * Path of command within command tree, such as {@code homecontrol door open}.
+ *
+ * The path is created once per {@link CommandContext}, on first use, extending the path of parent by single segment.
+ * The joined forms are computed on first use and cached too, so repeated calls of
+ * {@link CommandContext#getCommandPath()}, help rendering, logging or metrics do not allocate, while the contexts
+ * whose path is never requested do not pay for it.
+ */
+public final class CommandPath
+{
+	/** Empty path of root context. */
+	public static final CommandPath ROOT = new CommandPath(new String[0]);
+
+	private final String[] segments;
+
+	private String joined;
+
+	private String name;
+
+	private List<String> segmentList;
+
+	private CommandPath(String[] segments)
+	{
+		this.segments = segments;
+	}
+
+	/**
+	 * Creates path from segments.
+	 *
+	 * @param segments
+	 * 	names of commands from the top
+	 *
+	 * @return
+	 * 	new path.
+	 */
+	public static CommandPath of(String... segments)
+	{
+		return segments.length == 0 ? ROOT : new CommandPath(segments.clone());
+	}
+
+	/**
+	 * Creates path of subcommand.
+	 *
+	 * @param segment
+	 * 	name of subcommand, null for unnamed context sharing the path of parent
+	 *
+	 * @return
+	 * 	path extended by segment, this path if the segment is null.
+	 */
+	public CommandPath child(String segment)
+	{
+		if (segment == null)
+			return this;
+		String[] childSegments = new String[segments.length+1];
+		System.arraycopy(segments, 0, childSegments, 0, segments.length);
+		childSegments[segments.length] = segment;
+		return new CommandPath(childSegments);
+	}
+
+	/**
+	 * Gets number of segments.
+	 *
+	 * @return
+	 * 	depth of command, zero for root.
+	 */
+	public int getDepth()
+	{
+		return segments.length;
+	}
+
+	/**
+	 * Gets segment.
+	 *
+	 * @param index
+	 * 	index of segment, zero for the top command
+	 *
+	 * @return
+	 * 	name of command at the index.
+	 */
+	public String getSegment(int index)
+	{
+		return segments[index];
+	}
+
+	/**
+	 * Gets name of the last command.
+	 *
+	 * @return
+	 * 	name of the last command, null for root.
+	 */
+	public String getLastSegment()
+	{
+		return segments.length == 0 ? null : segments[segments.length-1];
+	}
+
+	/**
+	 * Gets segments.
+	 *
+	 * @return
+	 * 	unmodifiable list of segments.
+	 */
+	public List<String> getSegments()
+	{
+		List<String> list = segmentList;
+		if (list == null) {
+			segmentList = list = new SegmentList(segments);
+		}
+		return list;
+	}
+
+	/**
+	 * Gets path joined with each segment followed by space, the format of
+	 * {@link CommandContext#getCommandPath()}, such as {@code "homecontrol door "}.
+	 *
+	 * @return
+	 * 	joined path, ready to append arguments.
+	 */
+	public String getJoined()
+	{
+		String result = joined;
+		if (result == null) {
+			StringBuilder builder = new StringBuilder();
+			for (String segment: segments)
+				builder.append(segment).append(' ');
+			joined = result = builder.toString();
+		}
+		return result;
+	}
+
+	/**
+	 * Gets path joined by spaces, without trailing space, such as {@code "homecontrol door"}.
+	 *
+	 * @return
+	 * 	path joined by spaces.
+	 */
+	@Override
+	public String toString()
+	{
+		String result = name;
+		if (result == null) {
+			String full = getJoined();
+			name = result = full.isEmpty() ? full : full.substring(0, full.length()-1);
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object other)
+	{
+		return other instanceof CommandPath && Arrays.equals(segments, ((CommandPath) other).segments);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Arrays.hashCode(segments);
+	}
+
+	private static final class SegmentList extends AbstractList<String> implements RandomAccess
+	{
+		private final String[] segments;
+
+		SegmentList(String[] segments)
+		{
+			this.segments = segments;
+		}
+
+		@Override
+		public String get(int index)
+		{
+			return segments[index];
+		}
+
+		@Override
+		public int size()
+		{
+			return segments.length;
+		}
+	}
+}
@@ -8,7 +8,7 @@ public class HelpOfHelpCommand extends AbstractHelpCommand
 	@Override
 	public int helpThis(CommandContext context) throws Exception
 	{
-		System.out.print(""+
+		context.getOutput().print(""+
 				"Usage: "+context.getCommandPath()+"command...\n"+
 				"Prints help for specific command\n"
 		);
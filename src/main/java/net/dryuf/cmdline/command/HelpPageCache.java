@@ -0,0 +1,140 @@
+package net.dryuf.cmdline.command;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Cache of rendered help pages.
+ *
+ * The pages are kept per command class, command path, output width and page type.  They are filled lazily, on first
+ * request, and kept with the class, so reloaded class gets its pages rendered again.  Commands with help depending on
+ * runtime state should disable the cache by {@link AbstractCommand#configHelpCached(CommandContext)}.
+ */
+public final class HelpPageCache
+{
+	private static final ClassValue<ConcurrentMap<PageKey, String>> PAGES = new ClassValue<ConcurrentMap<PageKey, String>>()
+	{
+		@Override
+		protected ConcurrentMap<PageKey, String> computeValue(Class<?> type)
+		{
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private HelpPageCache()
+	{
+	}
+
+	/**
+	 * Gets the help page, rendering it if not cached yet.
+	 *
+	 * @param commandClass
+	 * 	class of command
+	 * @param page
+	 * 	type of page
+	 * @param commandPath
+	 * 	command path, as provided by {@link CommandContext#getCommandPath()}
+	 * @param width
+	 * 	output width
+	 * @param renderer
+	 * 	renderer of the page
+	 *
+	 * @return
+	 * 	rendered page.
+	 */
+	public static String get(Class<?> commandClass, Page page, String commandPath, int width, Renderer renderer)
+	{
+		ConcurrentMap<PageKey, String> pages = PAGES.get(commandClass);
+		PageKey key = new PageKey(page, commandPath, width);
+		String content = pages.get(key);
+		if (content == null) {
+			StringBuilder output = new StringBuilder();
+			try {
+				renderer.render(new HelpRenderer(output, width));
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			content = output.toString();
+			String existing = pages.putIfAbsent(key, content);
+			if (existing != null)
+				content = existing;
+		}
+		return content;
+	}
+
+	/**
+	 * Drops cached pages of command class.
+	 *
+	 * @param commandClass
+	 * 	class of command
+	 */
+	public static void invalidate(Class<?> commandClass)
+	{
+		PAGES.remove(commandClass);
+	}
+
+	/**
+	 * Type of help page.
+	 */
+	public enum Page
+	{
+		/** Full help. */
+		HELP,
+		/** Brief usage, printed on incorrect usage. */
+		USAGE,
+	}
+
+	/**
+	 * Renderer of help page.
+	 */
+	@FunctionalInterface
+	public interface Renderer
+	{
+		/**
+		 * Renders the page.
+		 *
+		 * @param help
+		 * 	help renderer to write to
+		 *
+		 * @throws IOException
+		 * 	when writing output failed.
+		 */
+		void render(HelpRenderer help) throws IOException;
+	}
+
+	private static final class PageKey
+	{
+		final Page page;
+
+		final String commandPath;
+
+		final int width;
+
+		PageKey(Page page, String commandPath, int width)
+		{
+			this.page = page;
+			this.commandPath = commandPath;
+			this.width = width;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof PageKey))
+				return false;
+			PageKey other = (PageKey) o;
+			return page == other.page && width == other.width && commandPath.equals(other.commandPath);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(page, commandPath, width);
+		}
+	}
+}
@@ -0,0 +1,352 @@
+package net.dryuf.cmdline.command;
+
+import java.io.BufferedReader;
+import java.io.Console;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Help renderer, writing directly to {@link Appendable}.
+ *
+ * The text is wrapped and indented in single pass over the input, without building intermediate strings.  The
+ * wrapping follows {@code WordUtils.wrap}: lines are broken at last space fitting the width, words longer than width
+ * are not broken and the spaces at beginning of wrapped line are skipped, trailing spaces do not create empty line.
+ * New line characters within the text are kept and the following line is indented the same way as wrapped one.
+ *
+ * For {@link Writer} output, the text fragments are written without copying them into substrings, so the best
+ * performance is reached with buffered {@link Writer} or {@link StringBuilder}.
+ */
+public class HelpRenderer
+{
+	/** Width used when terminal width cannot be detected. */
+	public static final int DEFAULT_WIDTH = 80;
+
+	/** Gap between left and right column of tables. */
+	public static final int COLUMN_GAP = 4;
+
+	private static final String SPACES = "                                                                ";
+
+	private final Appendable output;
+
+	private final int width;
+
+	/**
+	 * Creates renderer with terminal width.
+	 *
+	 * @param output
+	 * 	output to write to
+	 */
+	public HelpRenderer(Appendable output)
+	{
+		this(output, getTerminalWidth());
+	}
+
+	/**
+	 * Creates renderer.
+	 *
+	 * @param output
+	 * 	output to write to
+	 * @param width
+	 * 	output width
+	 */
+	public HelpRenderer(Appendable output, int width)
+	{
+		this.output = output;
+		this.width = width;
+	}
+
+	/**
+	 * Detects terminal width.  The width is taken from {@code dryuf.cmdline.columns} system property, {@code COLUMNS}
+	 * environment variable or, when running on Unix terminal, from {@code stty size}.  The result is detected once per
+	 * JVM.
+	 *
+	 * @return
+	 * 	terminal width or {@link #DEFAULT_WIDTH} if unknown.
+	 */
+	public static int getTerminalWidth()
+	{
+		return TerminalWidthHolder.WIDTH;
+	}
+
+	/**
+	 * Appends text.
+	 *
+	 * @param text
+	 * 	text to append
+	 *
+	 * @return
+	 * 	this renderer.
+	 *
+	 * @throws IOException
+	 * 	when writing output failed.
+	 */
+	public HelpRenderer append(CharSequence text) throws IOException
+	{
+		write(text, 0, text.length());
+		return this;
+	}
+
+	/**
+	 * Appends text, terminating it by new line unless empty or already terminated.
+	 *
+	 * @param text
+	 * 	text to append
+	 *
+	 * @return
+	 * 	this renderer.
+	 *
+	 * @throws IOException
+	 * 	when writing output failed.
+	 */
+	public HelpRenderer line(CharSequence text) throws IOException
+	{
+		int length = text.length();
+		if (length != 0) {
+			write(text, 0, length);
+			if (text.charAt(length-1) != '\n')
+				output.append('\n');
+		}
+		return this;
+	}
+
+	/**
+	 * Appends items separated by separator.
+	 *
+	 * @param items
+	 * 	items to append
+	 * @param separator
+	 * 	separator between items
+	 *
+	 * @return
+	 * 	this renderer.
+	 *
+	 * @throws IOException
+	 * 	when writing output failed.
+	 */
+	public HelpRenderer joined(Iterable<? extends CharSequence> items, CharSequence separator) throws IOException
+	{
+		boolean first = true;
+		for (CharSequence item: items) {
+			if (!first)
+				append(separator);
+			append(item);
+			first = false;
+		}
+		return this;
+	}
+
+	/**
+	 * Appends two column table, such as options or commands.  The right column is wrapped to the renderer width and
+	 * indented by the width of left column.
+	 *
+	 * @param entries
+	 * 	table entries, left column to right column
+	 *
+	 * @return
+	 * 	this renderer.
+	 *
+	 * @throws IOException
+	 * 	when writing output failed.
+	 */
+	public HelpRenderer table(Map<String, String> entries) throws IOException
+	{
+		int leftLength = 0;
+		for (String key: entries.keySet())
+			leftLength = Math.max(leftLength, key.length());
+		leftLength += COLUMN_GAP;
+		for (Map.Entry<String, String> entry: entries.entrySet()) {
+			String key = entry.getKey();
+			append(key);
+			spaces(leftLength-key.length());
+			wrapped(entry.getValue(), leftLength);
+			output.append('\n');
+		}
+		return this;
+	}
+
+	/**
+	 * Appends text wrapped to the renderer width, assuming the current line is already filled up to the indentation.
+	 * The output is not terminated by new line.
+	 *
+	 * @param text
+	 * 	text to wrap
+	 * @param indentation
+	 * 	indentation of the text and its following lines
+	 *
+	 * @return
+	 * 	this renderer.
+	 *
+	 * @throws IOException
+	 * 	when writing output failed.
+	 */
+	public HelpRenderer wrapped(CharSequence text, int indentation) throws IOException
+	{
+		int lineWidth = Math.max(1, width-indentation);
+		int end = text.length();
+		if (end != 0 && text.charAt(end-1) == '\n')
+			--end;
+		int pos = 0;
+		for (;;) {
+			int lineEnd = pos;
+			while (lineEnd < end && text.charAt(lineEnd) != '\n')
+				++lineEnd;
+			wrapLine(text, pos, lineEnd, lineWidth, indentation);
+			if (lineEnd >= end)
+				break;
+			output.append('\n');
+			pos = lineEnd+1;
+			if (pos < end && text.charAt(pos) != '\n')
+				spaces(indentation);
+		}
+		return this;
+	}
+
+	/**
+	 * Appends spaces.
+	 *
+	 * @param count
+	 * 	number of spaces
+	 *
+	 * @return
+	 * 	this renderer.
+	 *
+	 * @throws IOException
+	 * 	when writing output failed.
+	 */
+	public HelpRenderer spaces(int count) throws IOException
+	{
+		for (; count > SPACES.length(); count -= SPACES.length())
+			write(SPACES, 0, SPACES.length());
+		if (count > 0)
+			write(SPACES, 0, count);
+		return this;
+	}
+
+	/**
+	 * Flushes the output, if it is {@link Flushable}.
+	 *
+	 * @throws IOException
+	 * 	when writing output failed.
+	 */
+	public void flush() throws IOException
+	{
+		if (output instanceof Flushable)
+			((Flushable) output).flush();
+	}
+
+	private void wrapLine(CharSequence text, int pos, int end, int lineWidth, int indentation) throws IOException
+	{
+		boolean first = true;
+		for (;;) {
+			while (pos < end && text.charAt(pos) == ' ')
+				++pos;
+			if (!first) {
+				if (pos == end)
+					return;
+				output.append('\n');
+				spaces(indentation);
+			}
+			first = false;
+			if (end-pos <= lineWidth) {
+				write(text, pos, end);
+				return;
+			}
+			int split = -1;
+			for (int i = pos+lineWidth; i > pos; --i) {
+				if (text.charAt(i) == ' ') {
+					split = i;
+					break;
+				}
+			}
+			if (split < 0) {
+				for (int i = pos+lineWidth+1; i < end; ++i) {
+					if (text.charAt(i) == ' ') {
+						split = i;
+						break;
+					}
+				}
+				if (split < 0) {
+					write(text, pos, end);
+					return;
+				}
+			}
+			write(text, pos, split);
+			pos = split+1;
+		}
+	}
+
+	private void write(CharSequence text, int start, int end) throws IOException
+	{
+		if (output instanceof Writer && text instanceof String)
+			((Writer) output).write((String) text, start, end-start);
+		else
+			output.append(text, start, end);
+	}
+
+	private static class TerminalWidthHolder
+	{
+		static final int WIDTH = detectTerminalWidth();
+
+		private static int detectTerminalWidth()
+		{
+			Integer width = parseWidth(System.getProperty("dryuf.cmdline.columns"));
+			if (width == null)
+				width = parseWidth(System.getenv("COLUMNS"));
+			if (width == null)
+				width = readSttyWidth();
+			return width == null ? DEFAULT_WIDTH : width;
+		}
+
+		private static Integer readSttyWidth()
+		{
+			Console console = System.console();
+			File tty = new File("/dev/tty");
+			if (console == null || !tty.exists())
+				return null;
+			try {
+				Process process = new ProcessBuilder("stty", "size")
+					.redirectInput(tty)
+					.start();
+				String line;
+				try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+					line = reader.readLine();
+				}
+				if (!process.waitFor(1, TimeUnit.SECONDS)) {
+					process.destroy();
+					return null;
+				}
+				if (line == null)
+					return null;
+				int space = line.indexOf(' ');
+				return space < 0 ? null : parseWidth(line.substring(space+1));
+			}
+			catch (IOException ex) {
+				return null;
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+
+		private static Integer parseWidth(String value)
+		{
+			if (value == null)
+				return null;
+			try {
+				int width = Integer.parseInt(value.trim());
+				return width > 0 ? width : null;
+			}
+			catch (NumberFormatException ex) {
+				return null;
+			}
+		}
+	}
+}
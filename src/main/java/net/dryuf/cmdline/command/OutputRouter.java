@@ -0,0 +1,122 @@
+package net.dryuf.cmdline.command;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Callable;
+
+
+/**
+ * Routes {@link System#out} and {@link System#err} to streams of invocation running in current thread.
+ *
+ * This allows concurrent invocations of commands, which still write directly to System streams instead of
+ * {@link CommandContext#getOutput()} and {@link CommandContext#getError()}.  Once {@link #install()}ed, the System
+ * streams write to the streams provided to {@link #route} within the same thread or to original streams otherwise.
+ */
+public final class OutputRouter
+{
+	private static final ThreadLocal<PrintStream[]> ROUTES = new ThreadLocal<>();
+
+	/** Installed routing streams, followed by original streams, null until installed. */
+	private static volatile PrintStream[] installed;
+
+	private OutputRouter()
+	{
+	}
+
+	/**
+	 * Replaces System streams by routing ones, unless already done.
+	 */
+	public static synchronized void install()
+	{
+		if (installed != null)
+			return;
+		PrintStream output = new PrintStream(new RoutingOutputStream(System.out, 0), true);
+		PrintStream error = new PrintStream(new RoutingOutputStream(System.err, 1), true);
+		installed = new PrintStream[]{ output, error, System.out, System.err };
+		System.setOut(output);
+		System.setErr(error);
+	}
+
+	/**
+	 * Runs the code with System streams routed to provided streams, if {@link #install()}ed.
+	 *
+	 * @param output
+	 * 	standard output
+	 * @param error
+	 * 	standard error
+	 * @param code
+	 * 	code to run
+	 *
+	 * @return
+	 * 	the result of code.
+	 *
+	 * @param <T>
+	 * 	type of result
+	 *
+	 * @throws Exception
+	 * 	thrown by the code.
+	 */
+	public static <T> T route(PrintStream output, PrintStream error, Callable<T> code) throws Exception
+	{
+		PrintStream[] previous = ROUTES.get();
+		ROUTES.set(new PrintStream[]{ unrouted(output, 0), unrouted(error, 1) });
+		try {
+			return code.call();
+		}
+		finally {
+			System.out.flush();
+			System.err.flush();
+			if (previous == null)
+				ROUTES.remove();
+			else
+				ROUTES.set(previous);
+		}
+	}
+
+	/**
+	 * Replaces routing stream by the original one, so routing to System streams does not loop.
+	 */
+	private static PrintStream unrouted(PrintStream stream, int index)
+	{
+		PrintStream[] streams = installed;
+		return streams != null && stream == streams[index] ? streams[index+2] : stream;
+	}
+
+	private static class RoutingOutputStream extends OutputStream
+	{
+		private final PrintStream original;
+
+		private final int index;
+
+		RoutingOutputStream(PrintStream original, int index)
+		{
+			this.original = original;
+			this.index = index;
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			target().write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			target().write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException
+		{
+			target().flush();
+		}
+
+		private PrintStream target()
+		{
+			PrintStream[] routes = ROUTES.get();
+			return routes == null ? original : routes[index];
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package net.dryuf.cmdline.command;
+
+import net.dryuf.cmdline.app.LifecycleListener;
+
+
+/**
+ * Measures command lifecycle phases for {@link LifecycleListener} of the context.  When the listener is
+ * {@link LifecycleListener#NONE}, the time is not read at all.
+ */
+final class PhaseTimer
+{
+	private PhaseTimer()
+	{
+	}
+
+	/**
+	 * Starts the phase.
+	 *
+	 * @param context
+	 * 	command context
+	 *
+	 * @return
+	 * 	start of phase, zero if not measured.
+	 */
+	static long start(CommandContext context)
+	{
+		return context.getAppContext().getLifecycleListener() == LifecycleListener.NONE ? 0 : System.nanoTime();
+	}
+
+	/**
+	 * Finishes the phase and notifies the listener.
+	 *
+	 * @param context
+	 * 	command context
+	 * @param phase
+	 * 	finished phase
+	 * @param start
+	 * 	start of phase, as returned by {@link #start}
+	 */
+	static void finish(CommandContext context, LifecycleListener.Phase phase, long start)
+	{
+		LifecycleListener listener = context.getAppContext().getLifecycleListener();
+		if (listener != LifecycleListener.NONE)
+			listener.phaseFinished(context, phase, start, System.nanoTime()-start);
+	}
+}
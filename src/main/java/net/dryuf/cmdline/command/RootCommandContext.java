@@ -4,6 +4,7 @@ import lombok.Getter;
 import net.dryuf.cmdline.app.AppContext;
 import net.dryuf.cmdline.app.CommonAppContext;
 
+import java.io.PrintStream;
 import java.util.Map;
 
 
@@ -15,9 +16,36 @@ public class RootCommandContext implements CommandContext
 {
 	private final AppContext appContext;
 
+	private final PrintStream output;
+
+	private final PrintStream error;
+
+	/**
+	 * Creates root context, writing to {@link System#out} and {@link System#err}.
+	 *
+	 * @param appContext
+	 * 	application context
+	 */
 	public RootCommandContext(AppContext appContext)
+	{
+		this(appContext, null, null);
+	}
+
+	/**
+	 * Creates root context, writing to specific streams.
+	 *
+	 * @param appContext
+	 * 	application context
+	 * @param output
+	 * 	standard output of invocation, null for current {@link System#out}
+	 * @param error
+	 * 	standard error of invocation, null for current {@link System#err}
+	 */
+	public RootCommandContext(AppContext appContext, PrintStream output, PrintStream error)
 	{
 		this.appContext = appContext;
+		this.output = output;
+		this.error = error;
 	}
 
 	@Override
@@ -32,6 +60,24 @@ public class RootCommandContext implements CommandContext
 		return "";
 	}
 
+	@Override
+	public CommandPath getPath()
+	{
+		return CommandPath.ROOT;
+	}
+
+	@Override
+	public PrintStream getOutput()
+	{
+		return output == null ? System.out : output;
+	}
+
+	@Override
+	public PrintStream getError()
+	{
+		return error == null ? System.err : error;
+	}
+
 	@Override
 	public CommandContext createChild(Command command, String commandName, Map<Class<?>, Object> beans)
 	{
@@ -0,0 +1,57 @@
+package net.dryuf.cmdline.command;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Declares subcommand of {@link AbstractParentCommand}, as an alternative to overriding
+ * {@link AbstractParentCommand#configSubCommands} and {@link AbstractParentCommand#configCommandsDescription}.
+ *
+ * When compiled with {@link net.dryuf.cmdline.processor.SubCommandProcessor}, the declarations are turned into
+ * generated {@link SubCommandRegistry}, constructing the subcommands directly without bean container reflection.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Repeatable(SubCommands.class)
+public @interface SubCommand
+{
+	/**
+	 * Name of subcommand.
+	 *
+	 * @return
+	 * 	subcommand name.
+	 */
+	String name();
+
+	/**
+	 * Class implementing subcommand.
+	 *
+	 * @return
+	 * 	subcommand class.
+	 */
+	Class<? extends Command> command();
+
+	/**
+	 * Arguments of subcommand, as displayed in help.
+	 *
+	 * @return
+	 * 	subcommand arguments.
+	 */
+	String arguments() default "";
+
+	/**
+	 * Explanation of subcommand, as displayed in help.
+	 *
+	 * @return
+	 * 	explanation of subcommand.
+	 */
+	String description() default "";
+}
@@ -0,0 +1,160 @@
+package net.dryuf.cmdline.command;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+
+/**
+ * Reference to class implementing subcommand, resolved on first use.
+ *
+ * The entries referencing the class by name or supplier do not load the class until the subcommand is selected, so
+ * the parent with many subcommands does not load and link all of them on startup.  The help and completion are
+ * served from names and descriptions, without resolving the entries.
+ */
+public final class SubCommandEntry
+{
+	private final String className;
+
+	private final ClassLoader classLoader;
+
+	private final Supplier<Class<? extends Command>> supplier;
+
+	private volatile Class<? extends Command> resolved;
+
+	private SubCommandEntry(String className, ClassLoader classLoader, Supplier<Class<? extends Command>> supplier,
+			Class<? extends Command> resolved)
+	{
+		this.className = className;
+		this.classLoader = classLoader;
+		this.supplier = supplier;
+		this.resolved = resolved;
+	}
+
+	/**
+	 * Creates entry of already loaded class.
+	 *
+	 * @param commandClass
+	 * 	class implementing subcommand
+	 *
+	 * @return
+	 * 	new entry.
+	 */
+	public static SubCommandEntry of(Class<? extends Command> commandClass)
+	{
+		return new SubCommandEntry(commandClass.getName(), null, null, commandClass);
+	}
+
+	/**
+	 * Creates entry of class loaded by name on first use.
+	 *
+	 * @param className
+	 * 	binary name of class implementing subcommand
+	 * @param classLoader
+	 * 	class loader to load the class from
+	 *
+	 * @return
+	 * 	new entry.
+	 */
+	public static SubCommandEntry of(String className, ClassLoader classLoader)
+	{
+		return new SubCommandEntry(className, classLoader, null, null);
+	}
+
+	/**
+	 * Creates entry of class provided by supplier on first use.
+	 *
+	 * @param supplier
+	 * 	supplier of class implementing subcommand
+	 *
+	 * @return
+	 * 	new entry.
+	 */
+	public static SubCommandEntry of(Supplier<Class<? extends Command>> supplier)
+	{
+		return new SubCommandEntry(null, null, supplier, null);
+	}
+
+	/**
+	 * Converts map of classes to map of entries.
+	 *
+	 * @param subCommands
+	 * 	subcommands, name to implementing class
+	 *
+	 * @return
+	 * 	subcommands, name to entry.
+	 */
+	public static Map<String, SubCommandEntry> ofClasses(Map<String, Class<? extends Command>> subCommands)
+	{
+		Map<String, SubCommandEntry> entries = new LinkedHashMap<>();
+		subCommands.forEach((name, commandClass) -> entries.put(name, of(commandClass)));
+		return Collections.unmodifiableMap(entries);
+	}
+
+	/**
+	 * Resolves all entries.  This loads all the classes and should be used only when really needed.
+	 *
+	 * @param entries
+	 * 	subcommands, name to entry
+	 *
+	 * @return
+	 * 	subcommands, name to implementing class.
+	 */
+	public static Map<String, Class<? extends Command>> resolveAll(Map<String, SubCommandEntry> entries)
+	{
+		Map<String, Class<? extends Command>> subCommands = new LinkedHashMap<>();
+		entries.forEach((name, entry) -> subCommands.put(name, entry.get()));
+		return Collections.unmodifiableMap(subCommands);
+	}
+
+	/**
+	 * Gets class implementing subcommand, loading and initializing it on first call.
+	 *
+	 * @return
+	 * 	class implementing subcommand.
+	 *
+	 * @throws IllegalStateException
+	 * 	if the class cannot be loaded or does not implement {@link Command}.
+	 */
+	public Class<? extends Command> get()
+	{
+		Class<? extends Command> commandClass = resolved;
+		if (commandClass == null)
+			resolved = commandClass = resolve();
+		return commandClass;
+	}
+
+	/**
+	 * Checks whether the class was already resolved.
+	 *
+	 * @return
+	 * 	true if the class was resolved.
+	 */
+	public boolean isResolved()
+	{
+		return resolved != null;
+	}
+
+	@Override
+	public String toString()
+	{
+		return className != null ? className : String.valueOf(resolved != null ? resolved : supplier);
+	}
+
+	private Class<? extends Command> resolve()
+	{
+		if (supplier != null) {
+			Class<? extends Command> commandClass = supplier.get();
+			if (commandClass == null)
+				throw new IllegalStateException("Supplier provided no subcommand class: "+supplier);
+			return commandClass;
+		}
+		try {
+			return Class.forName(className, true, classLoader).asSubclass(Command.class);
+		}
+		catch (ClassNotFoundException|ClassCastException|LinkageError ex) {
+			throw new IllegalStateException("Cannot load subcommand class: "+className, ex);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package net.dryuf.cmdline.command;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import lombok.AccessLevel;
+import lombok.Getter;
+import net.dryuf.cmdline.completion.PrefixTrie;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Immutable dispatch index of subcommands of parent command.
+ *
+ * The index is built once per parent command class from its configuration and shared by all its instances, see
+ * {@link AbstractParentCommand#getSubCommandIndex(CommandContext)}.  The subcommands are kept as
+ * {@link SubCommandEntry}s, so only the selected subcommand class is loaded.
+ */
+@Getter
+public final class SubCommandIndex
+{
+	/** Subcommands, name to entry of implementing class. */
+	private final Map<String, SubCommandEntry> subCommandEntries;
+
+	/** Arguments requesting help, first being the primary one. */
+	private final Set<String> helpArguments;
+
+	/** Primary help argument, used as subcommand name for help. */
+	private final String helpArgument;
+
+	/** Entry of class implementing help subcommand, null if there is none. */
+	@Getter(AccessLevel.NONE)
+	private final SubCommandEntry helpCommand;
+
+	/** Commands description, usage to explanation. */
+	private final Map<String, String> commandsDescription;
+
+	/** Subcommand names for completion, built lazily. */
+	private volatile PrefixTrie commandNames;
+
+	private SubCommandIndex(
+			Map<String, SubCommandEntry> subCommandEntries,
+			Collection<String> helpArguments,
+			Map<String, String> commandsDescription
+	)
+	{
+		this.subCommandEntries = ImmutableMap.copyOf(subCommandEntries);
+		this.helpArguments = ImmutableSet.copyOf(helpArguments);
+		this.helpArgument = Iterables.getFirst(this.helpArguments, null);
+		this.helpCommand = helpArgument == null ? null : this.subCommandEntries.get(helpArgument);
+		this.commandsDescription = ImmutableMap.copyOf(commandsDescription);
+	}
+
+	/**
+	 * Builds the index.
+	 *
+	 * @param subCommands
+	 * 	subcommands, name to implementing class
+	 * @param helpArguments
+	 * 	help arguments, the first one being primary
+	 * @param commandsDescription
+	 * 	commands description
+	 *
+	 * @return
+	 * 	new index.
+	 */
+	public static SubCommandIndex of(
+			Map<String, Class<? extends Command>> subCommands,
+			Collection<String> helpArguments,
+			Map<String, String> commandsDescription
+	)
+	{
+		return new SubCommandIndex(SubCommandEntry.ofClasses(subCommands), helpArguments, commandsDescription);
+	}
+
+	/**
+	 * Builds the index from lazy entries.
+	 *
+	 * @param subCommandEntries
+	 * 	subcommands, name to entry of implementing class
+	 * @param helpArguments
+	 * 	help arguments, the first one being primary
+	 * @param commandsDescription
+	 * 	commands description
+	 *
+	 * @return
+	 * 	new index.
+	 */
+	public static SubCommandIndex ofEntries(
+			Map<String, SubCommandEntry> subCommandEntries,
+			Collection<String> helpArguments,
+			Map<String, String> commandsDescription
+	)
+	{
+		return new SubCommandIndex(subCommandEntries, helpArguments, commandsDescription);
+	}
+
+	/**
+	 * Gets subcommands, resolving all their classes.  Prefer {@link #getSubCommand(String)} which loads only the
+	 * requested one.
+	 *
+	 * @return
+	 * 	subcommands, name to implementing class.
+	 */
+	public Map<String, Class<? extends Command>> getSubCommands()
+	{
+		return SubCommandEntry.resolveAll(subCommandEntries);
+	}
+
+	/**
+	 * Checks whether subcommand exists, without loading its class.
+	 *
+	 * @param name
+	 * 	name of subcommand
+	 *
+	 * @return
+	 * 	true if the subcommand exists.
+	 */
+	public boolean hasSubCommand(String name)
+	{
+		return subCommandEntries.containsKey(name);
+	}
+
+	/**
+	 * Finds subcommand.
+	 *
+	 * @param name
+	 * 	name of subcommand
+	 *
+	 * @return
+	 * 	class implementing the subcommand or null if not found.
+	 */
+	public Class<? extends Command> getSubCommand(String name)
+	{
+		SubCommandEntry entry = subCommandEntries.get(name);
+		return entry == null ? null : entry.get();
+	}
+
+	/**
+	 * Gets subcommand names, indexed for completion.
+	 *
+	 * @return
+	 * 	subcommand names.
+	 */
+	public PrefixTrie getCommandNames()
+	{
+		PrefixTrie names = commandNames;
+		if (names == null)
+			commandNames = names = PrefixTrie.of(subCommandEntries.keySet());
+		return names;
+	}
+
+	/**
+	 * Checks whether the subcommand is help command.
+	 *
+	 * @param subCommand
+	 * 	class implementing the subcommand
+	 *
+	 * @return
+	 * 	true if the class is help subcommand.
+	 */
+	public boolean isHelpCommand(Class<? extends Command> subCommand)
+	{
+		return helpCommand != null && subCommand == helpCommand.get();
+	}
+}
@@ -0,0 +1,102 @@
+package net.dryuf.cmdline.command;
+
+import com.google.common.collect.ImmutableMap;
+import lombok.Getter;
+import net.dryuf.cmdline.app.BeanFactory;
+
+import java.util.Map;
+import java.util.Optional;
+
+
+/**
+ * Lookup and cache of {@link SubCommandRegistry} instances.
+ */
+final class SubCommandRegistries
+{
+	private static final ClassValue<Optional<SubCommandRegistry>> REGISTRIES =
+			new ClassValue<Optional<SubCommandRegistry>>()
+	{
+		@Override
+		protected Optional<SubCommandRegistry> computeValue(Class<?> parentClass)
+		{
+			return Optional.ofNullable(load(parentClass));
+		}
+	};
+
+	private SubCommandRegistries()
+	{
+	}
+
+	static SubCommandRegistry get(Class<?> parentClass)
+	{
+		return REGISTRIES.get(parentClass).orElse(null);
+	}
+
+	/**
+	 * Builds name of generated registry class.
+	 *
+	 * @param parentClass
+	 * 	parent command class
+	 *
+	 * @return
+	 * 	binary name of generated registry class.
+	 */
+	static String generatedName(Class<?> parentClass)
+	{
+		String name = parentClass.getName();
+		int packageEnd = name.lastIndexOf('.')+1;
+		return name.substring(0, packageEnd)+name.substring(packageEnd).replace('$', '_')+
+				SubCommandRegistry.GENERATED_SUFFIX;
+	}
+
+	private static SubCommandRegistry load(Class<?> parentClass)
+	{
+		try {
+			return (SubCommandRegistry) Class.forName(generatedName(parentClass), true, parentClass.getClassLoader())
+					.getDeclaredConstructor()
+					.newInstance();
+		}
+		catch (ClassNotFoundException ex) {
+			// not generated, fallback to annotations
+		}
+		catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("Failed to instantiate generated registry for: "+parentClass, ex);
+		}
+		SubCommand[] declared = parentClass.getAnnotationsByType(SubCommand.class);
+		if (declared.length == 0)
+			return null;
+		return new AnnotatedSubCommandRegistry(declared);
+	}
+
+	/**
+	 * Registry reading {@link SubCommand} annotations at runtime.
+	 */
+	@Getter
+	private static class AnnotatedSubCommandRegistry implements SubCommandRegistry
+	{
+		private final Map<String, Class<? extends Command>> subCommands;
+
+		private final Map<String, String> commandsDescription;
+
+		public AnnotatedSubCommandRegistry(SubCommand[] declared)
+		{
+			ImmutableMap.Builder<String, Class<? extends Command>> subCommands = ImmutableMap.builder();
+			ImmutableMap.Builder<String, String> commandsDescription = ImmutableMap.builder();
+			for (SubCommand subCommand: declared) {
+				subCommands.put(subCommand.name(), subCommand.command());
+				commandsDescription.put(
+						subCommand.arguments().isEmpty() ? subCommand.name() : subCommand.name()+" "+subCommand.arguments(),
+						subCommand.description()
+				);
+			}
+			this.subCommands = subCommands.build();
+			this.commandsDescription = commandsDescription.build();
+		}
+
+		@Override
+		public Command createCommand(Class<? extends Command> commandClass, BeanFactory beanFactory)
+		{
+			return null;
+		}
+	}
+}
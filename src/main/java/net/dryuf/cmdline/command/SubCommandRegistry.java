@@ -0,0 +1,74 @@
+package net.dryuf.cmdline.command;
+
+import net.dryuf.cmdline.app.BeanFactory;
+
+import java.util.Map;
+
+
+/**
+ * Registry of subcommands declared by {@link SubCommand} annotations of parent command.
+ *
+ * The implementation is typically generated by {@link net.dryuf.cmdline.processor.SubCommandProcessor} as class
+ * named after the parent command with {@code _SubCommands} suffix, see {@link #of(Class)}.
+ */
+public interface SubCommandRegistry
+{
+	/** Suffix of generated registry class name. */
+	String GENERATED_SUFFIX = "_SubCommands";
+
+	/**
+	 * Gets declared subcommands.
+	 *
+	 * @return
+	 * 	subcommands, name to implementing class.
+	 */
+	Map<String, Class<? extends Command>> getSubCommands();
+
+	/**
+	 * Gets declared subcommands as entries, which may load the classes lazily.  The default implementation wraps
+	 * {@link #getSubCommands()}.
+	 *
+	 * @return
+	 * 	subcommands, name to entry of implementing class.
+	 */
+	default Map<String, SubCommandEntry> getSubCommandEntries()
+	{
+		return SubCommandEntry.ofClasses(getSubCommands());
+	}
+
+	/**
+	 * Gets declared subcommands description.
+	 *
+	 * @return
+	 * 	commands description, usage to explanation.
+	 */
+	Map<String, String> getCommandsDescription();
+
+	/**
+	 * Constructs subcommand directly, without bean container reflection.
+	 *
+	 * @param commandClass
+	 * 	class of subcommand
+	 * @param beanFactory
+	 * 	bean factory providing constructor arguments
+	 *
+	 * @return
+	 * 	new subcommand instance or null if the class must be created by bean factory.
+	 */
+	Command createCommand(Class<? extends Command> commandClass, BeanFactory beanFactory);
+
+	/**
+	 * Finds registry for parent command class.  Uses generated registry if available, falls back to reading the
+	 * {@link SubCommand} annotations.
+	 *
+	 * @param parentClass
+	 * 	parent command class
+	 *
+	 * @return
+	 * 	registry or null if the class declares no subcommands.
+	 */
+	static SubCommandRegistry of(Class<?> parentClass)
+	{
+		return SubCommandRegistries.get(parentClass);
+	}
+}
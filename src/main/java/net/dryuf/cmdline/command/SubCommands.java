@@ -0,0 +1,27 @@
+package net.dryuf.cmdline.command;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Container of repeated {@link SubCommand} annotations.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface SubCommands
+{
+	/**
+	 * Declared subcommands.
+	 *
+	 * @return
+	 * 	declared subcommands.
+	 */
+	SubCommand[] value();
+}
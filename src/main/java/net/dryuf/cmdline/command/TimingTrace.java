@@ -0,0 +1,209 @@
+package net.dryuf.cmdline.command;
+
+import net.dryuf.cmdline.app.LifecycleListener;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Lifecycle listener collecting the phases of single invocation and printing them as report.
+ *
+ * The trace is enabled by {@code --trace-timing} as the first program argument, recognized by
+ * {@link AbstractCommand#run} and {@link CommandInvoker} before the root command parses its options, if the root
+ * command enables it by {@link AbstractCommand#configTraceTiming}.  The report is printed to the error stream of
+ * invocation once it finishes, the phases are still passed to the original listener of
+ * {@link net.dryuf.cmdline.app.AppContext}.  The JVM startup is reported only for the first invocation of the
+ * process, later ones, such as in server or batch mode, do not relate to it.
+ */
+public final class TimingTrace implements LifecycleListener
+{
+	/** Argument enabling the trace. */
+	public static final String TRACE_TIMING_ARGUMENT = "--trace-timing";
+
+	private static final AtomicBoolean INVOKED = new AtomicBoolean();
+
+	private final LifecycleListener next;
+
+	/** Time from JVM start to invocation, negative if not the first invocation. */
+	private final long startupMillis;
+
+	private final List<Event> events = new ArrayList<>();
+
+	/**
+	 * Creates trace, without JVM startup.
+	 *
+	 * @param next
+	 * 	listener to pass the phases to
+	 */
+	public TimingTrace(LifecycleListener next)
+	{
+		this(next, false);
+	}
+
+	/**
+	 * Creates trace.
+	 *
+	 * @param next
+	 * 	listener to pass the phases to
+	 * @param reportStartup
+	 * 	whether to report time from JVM start, meaningful for the first invocation of process only
+	 */
+	public TimingTrace(LifecycleListener next, boolean reportStartup)
+	{
+		this.next = next;
+		this.startupMillis = reportStartup ?
+				System.currentTimeMillis()-ManagementFactory.getRuntimeMXBean().getStartTime() : -1;
+	}
+
+	/**
+	 * Checks whether the trace is requested by program arguments.
+	 *
+	 * @param args
+	 * 	program arguments
+	 *
+	 * @return
+	 * 	true if the first argument is {@link #TRACE_TIMING_ARGUMENT}.
+	 */
+	public static boolean isRequested(List<String> args)
+	{
+		return !args.isEmpty() && args.get(0).equals(TRACE_TIMING_ARGUMENT);
+	}
+
+	/**
+	 * Records start of invocation.
+	 *
+	 * @return
+	 * 	true if this is the first invocation of the process.
+	 */
+	static boolean markInvoked()
+	{
+		return !INVOKED.get() && INVOKED.compareAndSet(false, true);
+	}
+
+	/**
+	 * Checks whether the command enables the trace.
+	 *
+	 * @param command
+	 * 	root command
+	 * @param context
+	 * 	context of root command
+	 *
+	 * @return
+	 * 	true if the command enables the trace by {@link AbstractCommand#configTraceTiming}.
+	 */
+	static boolean isEnabled(Command command, CommandContext context)
+	{
+		return command instanceof AbstractCommand && ((AbstractCommand) command).configTraceTiming(context);
+	}
+
+	@Override
+	public void phaseFinished(CommandContext context, Phase phase, long startNanos, long durationNanos)
+	{
+		synchronized (events) {
+			events.add(new Event(context == null ? "" : context.getPath().toString(), phase, startNanos, durationNanos));
+		}
+		next.phaseFinished(context, phase, startNanos, durationNanos);
+	}
+
+	/**
+	 * Prints the report, the phases ordered by their start.
+	 *
+	 * @param output
+	 * 	stream to print the report to
+	 */
+	public void print(PrintStream output)
+	{
+		List<Event> sorted;
+		synchronized (events) {
+			sorted = new ArrayList<>(events);
+		}
+		sorted.sort(Comparator.comparingLong(event -> event.startNanos));
+		StringBuilder report = new StringBuilder("Timing (ms):\n");
+		if (startupMillis >= 0)
+			report.append(String.format("%12.3f  %-18s%s\n", (double) startupMillis, "startup", "(JVM start to invocation)"));
+		for (Event event: sorted) {
+			report.append(String.format("%12.3f  %-18s%s\n", event.durationNanos/1_000_000.0,
+					event.phase.getDisplayName(), event.commandPath));
+		}
+		output.print(report);
+		output.flush();
+	}
+
+	/**
+	 * Runs the invocation traced, if the trace is requested by arguments.
+	 *
+	 * @param context
+	 * 	context of invocation, {@link RootCommandContext} or chain of {@link ChildCommandContext} up to root
+	 * @param args
+	 * 	program arguments, starting with {@link #TRACE_TIMING_ARGUMENT}
+	 * @param first
+	 * 	whether this is the first invocation of process, reporting JVM startup
+	 * @param invocation
+	 * 	invocation to trace
+	 *
+	 * @return
+	 * 	exit code of invocation.
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	static int run(CommandContext context, List<String> args, boolean first, Invocation invocation) throws Exception
+	{
+		TimingTrace trace = new TimingTrace(context.getAppContext().getLifecycleListener(), first);
+		try {
+			return invocation.invoke(trace.traced(context), args.subList(1, args.size()));
+		}
+		finally {
+			trace.print(context.getError());
+		}
+	}
+
+	private CommandContext traced(CommandContext context)
+	{
+		if (context instanceof RootCommandContext) {
+			RootCommandContext root = (RootCommandContext) context;
+			return new RootCommandContext(root.getAppContext().withLifecycleListener(this), root.getOutput(), root.getError());
+		}
+		else if (context instanceof ChildCommandContext) {
+			ChildCommandContext child = (ChildCommandContext) context;
+			return new ChildCommandContext(child.getAppContext().withLifecycleListener(this),
+					traced(child.getParentContext()), child.getParentCommand(), child.getCommandName());
+		}
+		else {
+			throw new IllegalArgumentException("Unsupported context for "+TRACE_TIMING_ARGUMENT+": "+context.getClass());
+		}
+	}
+
+	/**
+	 * Invocation of traced command.
+	 */
+	@FunctionalInterface
+	interface Invocation
+	{
+		int invoke(CommandContext context, List<String> args) throws Exception;
+	}
+
+	private static class Event
+	{
+		final String commandPath;
+
+		final Phase phase;
+
+		final long startNanos;
+
+		final long durationNanos;
+
+		Event(String commandPath, Phase phase, long startNanos, long durationNanos)
+		{
+			this.commandPath = commandPath;
+			this.phase = phase;
+			this.startNanos = startNanos;
+			this.durationNanos = durationNanos;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package net.dryuf.cmdline.completion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+
+/**
+ * Burkhard-Keller tree of words, finding words within Levenshtein distance.
+ *
+ * The search visits only subtrees which can contain the words within the distance, according to the triangle
+ * inequality, so it does not compare the word with all the indexed words.
+ */
+final class BkTree
+{
+	private static final Node[] NO_CHILDREN = new Node[0];
+
+	private final Node root;
+
+	private BkTree(Node root)
+	{
+		this.root = root;
+	}
+
+	/**
+	 * Builds the tree.
+	 *
+	 * @param words
+	 * 	words to index, without duplicates
+	 *
+	 * @return
+	 * 	new tree.
+	 */
+	static BkTree of(List<String> words)
+	{
+		Node root = null;
+		for (String word: words) {
+			if (root == null) {
+				root = new Node(word, 0);
+				continue;
+			}
+			for (Node node = root; ; ) {
+				int distance = distance(word, node.word);
+				Node child = node.getChild(distance);
+				if (child == null) {
+					node.addChild(new Node(word, distance));
+					break;
+				}
+				node = child;
+			}
+		}
+		return new BkTree(root);
+	}
+
+	/**
+	 * Finds words within distance.
+	 *
+	 * @param word
+	 * 	word to search for
+	 * @param maxDistance
+	 * 	maximum distance, inclusive
+	 *
+	 * @return
+	 * 	found words, sorted by distance and then alphabetically.
+	 */
+	List<String> find(String word, int maxDistance)
+	{
+		List<Match> matches = new ArrayList<>();
+		if (root != null)
+			find(root, word, maxDistance, matches);
+		matches.sort(Comparator.<Match>comparingInt(match -> match.distance).thenComparing(match -> match.word));
+		List<String> result = new ArrayList<>(matches.size());
+		for (Match match: matches)
+			result.add(match.word);
+		return result;
+	}
+
+	/**
+	 * Computes Levenshtein distance.
+	 *
+	 * @param a
+	 * 	first word
+	 * @param b
+	 * 	second word
+	 *
+	 * @return
+	 * 	number of single character insertions, deletions and substitutions converting one word into another.
+	 */
+	static int distance(CharSequence a, CharSequence b)
+	{
+		int[] previous = new int[b.length()+1];
+		int[] current = new int[b.length()+1];
+		for (int j = 0; j <= b.length(); ++j)
+			previous[j] = j;
+		for (int i = 1; i <= a.length(); ++i) {
+			current[0] = i;
+			char c = a.charAt(i-1);
+			for (int j = 1; j <= b.length(); ++j) {
+				int substitution = previous[j-1]+(c == b.charAt(j-1) ? 0 : 1);
+				current[j] = Math.min(substitution, Math.min(previous[j], current[j-1])+1);
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[b.length()];
+	}
+
+	private static void find(Node node, String word, int maxDistance, List<Match> matches)
+	{
+		int distance = distance(word, node.word);
+		if (distance <= maxDistance)
+			matches.add(new Match(node.word, distance));
+		for (Node child: node.children) {
+			if (Math.abs(child.distance-distance) <= maxDistance)
+				find(child, word, maxDistance, matches);
+		}
+	}
+
+	private static final class Node
+	{
+		final String word;
+
+		/** Distance from parent node. */
+		final int distance;
+
+		Node[] children = NO_CHILDREN;
+
+		Node(String word, int distance)
+		{
+			this.word = word;
+			this.distance = distance;
+		}
+
+		Node getChild(int distance)
+		{
+			for (Node child: children) {
+				if (child.distance == distance)
+					return child;
+			}
+			return null;
+		}
+
+		void addChild(Node child)
+		{
+			children = Arrays.copyOf(children, children.length+1);
+			children[children.length-1] = child;
+		}
+	}
+
+	private static final class Match
+	{
+		final String word;
+
+		final int distance;
+
+		Match(String word, int distance)
+		{
+			this.word = word;
+			this.distance = distance;
+		}
+	}
+}
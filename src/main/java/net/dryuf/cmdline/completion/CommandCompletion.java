@@ -0,0 +1,85 @@
+package net.dryuf.cmdline.completion;
+
+import net.dryuf.cmdline.command.Command;
+import net.dryuf.cmdline.command.CommandContext;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.List;
+
+
+/**
+ * Handles completion requests of root command.
+ *
+ * The requests are recognized as the first argument of the program, before the root command parses its options:
+ * <ul>
+ * <li>{@code __complete word...} prints the candidates for the last word, one per line</li>
+ * <li>{@code __completion bash|zsh|fish [--static]} prints completion script</li>
+ * </ul>
+ */
+public final class CommandCompletion
+{
+	/** Argument requesting completion candidates. */
+	public static final String COMPLETE_COMMAND = "__complete";
+
+	/** Argument requesting completion script. */
+	public static final String COMPLETION_COMMAND = "__completion";
+
+	private CommandCompletion()
+	{
+	}
+
+	/**
+	 * Handles completion request, if the arguments are such.
+	 *
+	 * @param command
+	 * 	root command, not set up yet
+	 * @param context
+	 * 	root command context
+	 * @param args
+	 * 	program arguments
+	 *
+	 * @return
+	 * 	{@link Command#EXIT_CONTINUE} if not completion request, exit code otherwise.
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	public static int handle(Command command, CommandContext context, List<String> args) throws Exception
+	{
+		if (args.isEmpty())
+			return Command.EXIT_CONTINUE;
+		switch (args.get(0)) {
+		case COMPLETE_COMMAND: {
+			PrintStream output = context.getOutput();
+			for (String candidate: Completer.complete(command.completion(context), args.subList(1, args.size())))
+				output.println(candidate);
+			return Command.EXIT_SUCCESS;
+		}
+
+		case COMPLETION_COMMAND: {
+			CompletionScripts.Shell shell;
+			try {
+				if (args.size() < 2 || args.size() > 3 || args.size() == 3 && !args.get(2).equals("--static"))
+					throw new IllegalArgumentException("Usage: "+COMPLETION_COMMAND+" bash|zsh|fish [--static]");
+				shell = CompletionScripts.Shell.of(args.get(1));
+			}
+			catch (IllegalArgumentException ex) {
+				context.getError().println(ex.getMessage());
+				return Command.EXIT_USAGE;
+			}
+			String program = context.getPath().toString();
+			PrintWriter output = new PrintWriter(context.getOutput());
+			if (args.size() == 3)
+				CompletionScripts.writeStatic(output, shell, program, command.completion(context));
+			else
+				CompletionScripts.writeDynamic(output, shell, program);
+			output.flush();
+			return Command.EXIT_SUCCESS;
+		}
+
+		default:
+			return Command.EXIT_CONTINUE;
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package net.dryuf.cmdline.completion;
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Completes command line against {@link CompletionNode} tree.
+ */
+public final class Completer
+{
+	/** Argument ending the options. */
+	public static final String OPTIONS_END = "--";
+
+	private Completer()
+	{
+	}
+
+	/**
+	 * Finds completion candidates.
+	 *
+	 * The words are walked from the root node, descending into subcommands and skipping the values of options.  The
+	 * last word is the one being completed, it is completed as option if it starts with dash, as subcommand otherwise.
+	 * If it is value of option or positional argument, no candidates are returned, so the shell can fall back to its
+	 * default completion.
+	 *
+	 * @param root
+	 * 	root command node
+	 * @param words
+	 * 	words following the program name, the last one being completed
+	 *
+	 * @return
+	 * 	sorted list of candidates.
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	public static List<String> complete(CompletionNode root, List<String> words) throws Exception
+	{
+		CompletionNode node = root;
+		boolean optionsEnded = false;
+		int current = words.size()-1;
+		for (int i = 0; i < current; ++i) {
+			String word = words.get(i);
+			if (!optionsEnded && word.startsWith("-")) {
+				if (word.equals(OPTIONS_END))
+					optionsEnded = true;
+				else if (word.indexOf('=') < 0 && node.isValueOption(word) && ++i == current)
+					return Collections.emptyList();
+				continue;
+			}
+			CompletionNode child = node.getChild(word);
+			if (child != null) {
+				node = child;
+				optionsEnded = false;
+			}
+		}
+		String prefix = current < 0 ? "" : words.get(current);
+		if (!optionsEnded && prefix.startsWith("-")) {
+			if (prefix.indexOf('=') >= 0)
+				return Collections.emptyList();
+			return node.getOptions().find(prefix);
+		}
+		return node.getCommands().find(prefix);
+	}
+}
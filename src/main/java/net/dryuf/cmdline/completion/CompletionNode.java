@@ -0,0 +1,186 @@
+package net.dryuf.cmdline.completion;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Completion metadata of command: its options and subcommands.
+ *
+ * The options and subcommand names are indexed in {@link PrefixTrie}s, the subcommand nodes are resolved lazily, only
+ * for the subcommands present on the command line.
+ */
+public final class CompletionNode
+{
+	/** Node without options and subcommands. */
+	public static final CompletionNode EMPTY = new CompletionNode(PrefixTrie.EMPTY, ImmutableSet.of(), PrefixTrie.EMPTY, null);
+
+	private final PrefixTrie options;
+
+	private final Set<String> valueOptions;
+
+	private final PrefixTrie commands;
+
+	private final ChildResolver children;
+
+	/**
+	 * Creates node.
+	 *
+	 * @param options
+	 * 	option names
+	 * @param valueOptions
+	 * 	names of options taking value
+	 * @param commands
+	 * 	subcommand names
+	 * @param children
+	 * 	resolver of subcommand nodes, null if there are no subcommands
+	 */
+	public CompletionNode(PrefixTrie options, Set<String> valueOptions, PrefixTrie commands, ChildResolver children)
+	{
+		this.options = options;
+		this.valueOptions = valueOptions;
+		this.commands = commands;
+		this.children = children;
+	}
+
+	/**
+	 * Creates node from options description, as provided for help.  The description key consists of comma separated
+	 * option names, optionally followed by space and value name, in which case the option takes value.
+	 *
+	 * @param optionsDescription
+	 * 	options description, option names and value to explanation
+	 * @param flags
+	 * 	additional flags, such as help arguments, the ones not starting with dash are ignored
+	 *
+	 * @return
+	 * 	node with options only.
+	 */
+	public static CompletionNode ofOptions(Map<String, String> optionsDescription, Collection<String> flags)
+	{
+		List<String> names = new ArrayList<>();
+		ImmutableSet.Builder<String> valueOptions = ImmutableSet.builder();
+		for (String key: optionsDescription.keySet()) {
+			int space = key.indexOf(' ', key.lastIndexOf(',')+2);
+			String namesPart = space < 0 ? key : key.substring(0, space);
+			for (String name: namesPart.split(",")) {
+				name = name.trim();
+				if (name.isEmpty())
+					continue;
+				names.add(name);
+				if (space >= 0)
+					valueOptions.add(name);
+			}
+		}
+		for (String flag: flags) {
+			if (flag.startsWith("-"))
+				names.add(flag);
+		}
+		return new CompletionNode(PrefixTrie.of(names), valueOptions.build(), PrefixTrie.EMPTY, null);
+	}
+
+	/**
+	 * Creates copy of this node, with subcommands.
+	 *
+	 * @param commands
+	 * 	subcommand names
+	 * @param children
+	 * 	resolver of subcommand nodes
+	 *
+	 * @return
+	 * 	new node.
+	 */
+	public CompletionNode withCommands(PrefixTrie commands, ChildResolver children)
+	{
+		return new CompletionNode(options, valueOptions, commands, children);
+	}
+
+	/**
+	 * Gets option names.
+	 *
+	 * @return
+	 * 	option names.
+	 */
+	public PrefixTrie getOptions()
+	{
+		return options;
+	}
+
+	/**
+	 * Gets subcommand names.
+	 *
+	 * @return
+	 * 	subcommand names.
+	 */
+	public PrefixTrie getCommands()
+	{
+		return commands;
+	}
+
+	/**
+	 * Checks whether option takes value.
+	 *
+	 * @param option
+	 * 	option name
+	 *
+	 * @return
+	 * 	true if the option takes value.
+	 */
+	public boolean isValueOption(String option)
+	{
+		return valueOptions.contains(option);
+	}
+
+	/**
+	 * Gets names of options taking value.
+	 *
+	 * @return
+	 * 	names of options taking value.
+	 */
+	public Set<String> getValueOptions()
+	{
+		return valueOptions;
+	}
+
+	/**
+	 * Resolves subcommand node.
+	 *
+	 * @param name
+	 * 	subcommand name
+	 *
+	 * @return
+	 * 	subcommand node or null if there is no such subcommand.
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	public CompletionNode getChild(String name) throws Exception
+	{
+		return children == null || !commands.contains(name) ? null : children.resolve(name);
+	}
+
+	/**
+	 * Resolver of subcommand nodes.
+	 */
+	@FunctionalInterface
+	public interface ChildResolver
+	{
+		/**
+		 * Resolves subcommand node.
+		 *
+		 * @param name
+		 * 	subcommand name
+		 *
+		 * @return
+		 * 	subcommand node or null if there is no such subcommand.
+		 *
+		 * @throws Exception
+		 * 	in case of error.
+		 */
+		CompletionNode resolve(String name) throws Exception;
+	}
+}
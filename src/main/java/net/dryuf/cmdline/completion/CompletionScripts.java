@@ -0,0 +1,286 @@
+package net.dryuf.cmdline.completion;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+
+/**
+ * Generator of shell completion scripts.
+ *
+ * The dynamic scripts call the program with {@link CommandCompletion#COMPLETE_COMMAND} on each completion, so they
+ * always match the current program and are cheap with warm process, such as served by
+ * {@link net.dryuf.cmdline.server.CommandServer}.  The static scripts embed the whole command tree and do not run
+ * the program at all.
+ */
+public final class CompletionScripts
+{
+	/** Maximum depth of command tree in static scripts, protecting against recursive trees. */
+	public static final int MAX_DEPTH = 16;
+
+	private CompletionScripts()
+	{
+	}
+
+	/**
+	 * Supported shells.
+	 */
+	public enum Shell
+	{
+		BASH,
+		ZSH,
+		FISH;
+
+		/**
+		 * Parses shell name.
+		 *
+		 * @param name
+		 * 	shell name, case insensitive
+		 *
+		 * @return
+		 * 	shell.
+		 *
+		 * @throws IllegalArgumentException
+		 * 	if the shell is not supported.
+		 */
+		public static Shell of(String name)
+		{
+			try {
+				return valueOf(name.toUpperCase(Locale.ROOT));
+			}
+			catch (IllegalArgumentException ex) {
+				throw new IllegalArgumentException("Unsupported shell, expected bash, zsh or fish: "+name);
+			}
+		}
+	}
+
+	/**
+	 * Writes dynamic script, completing by calling the program.
+	 *
+	 * @param output
+	 * 	output to write to
+	 * @param shell
+	 * 	target shell
+	 * @param program
+	 * 	program name
+	 *
+	 * @throws IOException
+	 * 	when writing output failed.
+	 */
+	public static void writeDynamic(Appendable output, Shell shell, String program) throws IOException
+	{
+		String function = functionName(program);
+		switch (shell) {
+		case BASH:
+			output.append("# bash completion for ").append(program).append("\n")
+				.append(function).append("()\n")
+				.append("{\n")
+				.append("\tlocal IFS=$'\\n'\n")
+				.append("\tCOMPREPLY=($(").append(bashQuote(program)).append(" ").append(CommandCompletion.COMPLETE_COMMAND)
+				.append(" \"${COMP_WORDS[@]:1:COMP_CWORD}\" 2>/dev/null))\n")
+				.append("}\n")
+				.append("complete -o default -F ").append(function).append(" ").append(bashQuote(program)).append("\n");
+			break;
+
+		case ZSH:
+			output.append("#compdef ").append(program).append("\n")
+				.append(function).append("()\n")
+				.append("{\n")
+				.append("\tlocal -a candidates\n")
+				.append("\tcandidates=(${(f)\"$(").append(bashQuote(program)).append(" ").append(CommandCompletion.COMPLETE_COMMAND)
+				.append(" \"${(@)words[2,CURRENT]}\" 2>/dev/null)\"})\n")
+				.append("\tif (( ${#candidates} )); then\n")
+				.append("\t\tcompadd -a candidates\n")
+				.append("\telse\n")
+				.append("\t\t_files\n")
+				.append("\tfi\n")
+				.append("}\n")
+				.append("compdef ").append(function).append(" ").append(bashQuote(program)).append("\n");
+			break;
+
+		case FISH:
+			output.append("# fish completion for ").append(program).append("\n")
+				.append("function ").append(function).append("\n")
+				.append("\tset -l tokens (commandline -opc) (commandline -ct)\n")
+				.append("\tset -e tokens[1]\n")
+				.append("\t").append(fishQuote(program)).append(" ").append(CommandCompletion.COMPLETE_COMMAND)
+				.append(" $tokens 2>/dev/null\n")
+				.append("end\n")
+				.append("complete -c ").append(fishQuote(program)).append(" -f -a '(").append(function).append(")'\n");
+			break;
+
+		default:
+			throw new IllegalArgumentException("Unsupported shell: "+shell);
+		}
+	}
+
+	/**
+	 * Writes static script, containing the whole command tree.
+	 *
+	 * @param output
+	 * 	output to write to
+	 * @param shell
+	 * 	target shell
+	 * @param program
+	 * 	program name
+	 * @param root
+	 * 	root command node
+	 *
+	 * @throws Exception
+	 * 	when resolving the tree or writing output failed.
+	 */
+	public static void writeStatic(Appendable output, Shell shell, String program, CompletionNode root) throws Exception
+	{
+		List<PathNode> nodes = new ArrayList<>();
+		collectNodes(nodes, "", root, 0);
+		String function = functionName(program);
+		switch (shell) {
+		case ZSH:
+			output.append("#compdef ").append(program).append("\n")
+				.append("autoload -U +X bashcompinit && bashcompinit\n");
+			writeStaticBash(output, program, function, nodes);
+			break;
+
+		case BASH:
+			output.append("# bash completion for ").append(program).append("\n");
+			writeStaticBash(output, program, function, nodes);
+			break;
+
+		case FISH:
+			output.append("# fish completion for ").append(program).append("\n");
+			writeStaticFish(output, program, function, nodes);
+			break;
+
+		default:
+			throw new IllegalArgumentException("Unsupported shell: "+shell);
+		}
+	}
+
+	private static void writeStaticBash(Appendable output, String program, String function, List<PathNode> nodes) throws IOException
+	{
+		output.append(function).append("()\n")
+			.append("{\n")
+			.append("\tlocal cur=\"${COMP_WORDS[COMP_CWORD]}\" path='' i\n")
+			.append("\tfor ((i = 1; i < COMP_CWORD; ++i)); do\n")
+			.append("\t\tcase \"$path:${COMP_WORDS[i]}\" in\n");
+		for (PathNode pathNode: nodes) {
+			for (String option: pathNode.node.getValueOptions())
+				output.append("\t\t").append(bashQuote(pathNode.path+":"+option)).append(") ((++i));;\n");
+			for (String command: pathNode.node.getCommands().find("")) {
+				output.append("\t\t").append(bashQuote(pathNode.path+":"+command)).append(") path=")
+					.append(bashQuote(pathNode.path+" "+command)).append(";;\n");
+			}
+		}
+		output.append("\t\tesac\n")
+			.append("\tdone\n")
+			.append("\t((i > COMP_CWORD)) && return\n")
+			.append("\tcase \"$path\" in\n");
+		for (PathNode pathNode: nodes) {
+			output.append("\t").append(bashQuote(pathNode.path)).append(")\n")
+				.append("\t\tif [[ \"$cur\" == -* ]]; then\n")
+				.append("\t\t\tCOMPREPLY=($(compgen -W ").append(bashQuote(String.join(" ", pathNode.node.getOptions().find(""))))
+				.append(" -- \"$cur\"))\n")
+				.append("\t\telse\n")
+				.append("\t\t\tCOMPREPLY=($(compgen -W ").append(bashQuote(String.join(" ", pathNode.node.getCommands().find(""))))
+				.append(" -- \"$cur\"))\n")
+				.append("\t\tfi\n")
+				.append("\t\t;;\n");
+		}
+		output.append("\tesac\n")
+			.append("}\n")
+			.append("complete -o default -F ").append(function).append(" ").append(bashQuote(program)).append("\n");
+	}
+
+	private static void writeStaticFish(Appendable output, String program, String function, List<PathNode> nodes) throws IOException
+	{
+		output.append("function ").append(function).append("\n")
+			.append("\tset -l tokens (commandline -opc)\n")
+			.append("\tset -l cur (commandline -ct)\n")
+			.append("\tset -l path ''\n")
+			.append("\tset -l i 2\n")
+			.append("\twhile test $i -le (count $tokens)\n")
+			.append("\t\tswitch \"$path:$tokens[$i]\"\n");
+		for (PathNode pathNode: nodes) {
+			for (String option: pathNode.node.getValueOptions()) {
+				output.append("\t\t\tcase ").append(fishQuote(pathNode.path+":"+option)).append("\n")
+					.append("\t\t\t\tset i (math $i + 1)\n");
+			}
+			for (String command: pathNode.node.getCommands().find("")) {
+				output.append("\t\t\tcase ").append(fishQuote(pathNode.path+":"+command)).append("\n")
+					.append("\t\t\t\tset path ").append(fishQuote(pathNode.path+" "+command)).append("\n");
+			}
+		}
+		output.append("\t\tend\n")
+			.append("\t\tset i (math $i + 1)\n")
+			.append("\tend\n")
+			.append("\ttest $i -gt (math (count $tokens) + 1); and return\n")
+			.append("\tswitch \"$path\"\n");
+		for (PathNode pathNode: nodes) {
+			output.append("\t\tcase ").append(fishQuote(pathNode.path)).append("\n")
+				.append("\t\t\tif string match -q -- '-*' \"$cur\"\n")
+				.append("\t\t\t\t").append(fishPrint(pathNode.node.getOptions().find(""))).append("\n")
+				.append("\t\t\telse\n")
+				.append("\t\t\t\t").append(fishPrint(pathNode.node.getCommands().find(""))).append("\n")
+				.append("\t\t\tend\n");
+		}
+		output.append("\tend\n")
+			.append("end\n")
+			.append("complete -c ").append(fishQuote(program)).append(" -f -a '(").append(function).append(")'\n");
+	}
+
+	private static void collectNodes(List<PathNode> nodes, String path, CompletionNode node, int depth) throws Exception
+	{
+		nodes.add(new PathNode(path, node));
+		if (depth >= MAX_DEPTH)
+			return;
+		for (String command: node.getCommands().find("")) {
+			CompletionNode child = node.getChild(command);
+			if (child != null)
+				collectNodes(nodes, path+" "+command, child, depth+1);
+		}
+	}
+
+	private static String functionName(String program)
+	{
+		StringBuilder name = new StringBuilder("_");
+		for (int i = 0; i < program.length(); ++i) {
+			char c = program.charAt(i);
+			name.append(Character.isLetterOrDigit(c) ? c : '_');
+		}
+		return name.append("_complete").toString();
+	}
+
+	private static String bashQuote(String value)
+	{
+		return "'"+value.replace("'", "'\\''")+"'";
+	}
+
+	private static String fishQuote(String value)
+	{
+		return "'"+value.replace("\\", "\\\\").replace("'", "\\'")+"'";
+	}
+
+	private static String fishPrint(List<String> words)
+	{
+		if (words.isEmpty())
+			return "true";
+		StringBuilder result = new StringBuilder("printf '%s\\n'");
+		for (String word: words)
+			result.append(' ').append(fishQuote(word));
+		return result.toString();
+	}
+
+	private static final class PathNode
+	{
+		final String path;
+
+		final CompletionNode node;
+
+		PathNode(String path, CompletionNode node)
+		{
+			this.path = path;
+			this.node = node;
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package net.dryuf.cmdline.completion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+
+/**
+ * Immutable prefix trie of words.
+ *
+ * The nodes keep their children in sorted arrays, so the lookup of prefix costs binary search per prefix character
+ * and the words are enumerated in sorted order, without sorting at lookup time.  The nodes also count the words below
+ * them, so unique prefix is resolved without enumerating the words.  Similar words are looked up in {@link BkTree},
+ * built on first use.
+ */
+public final class PrefixTrie
+{
+	private static final char[] NO_KEYS = new char[0];
+
+	private static final Node[] NO_CHILDREN = new Node[0];
+
+	/** Empty trie. */
+	public static final PrefixTrie EMPTY = new PrefixTrie(new Node(), 0);
+
+	private final Node root;
+
+	private final int size;
+
+	private volatile BkTree similar;
+
+	private PrefixTrie(Node root, int size)
+	{
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Builds the trie.
+	 *
+	 * @param words
+	 * 	words to index, duplicates are ignored
+	 *
+	 * @return
+	 * 	new trie.
+	 */
+	public static PrefixTrie of(Collection<String> words)
+	{
+		if (words.isEmpty())
+			return EMPTY;
+		String[] sorted = words.stream().sorted().distinct().toArray(String[]::new);
+		return new PrefixTrie(build(sorted, 0, sorted.length, 0), sorted.length);
+	}
+
+	/**
+	 * Gets number of words.
+	 *
+	 * @return
+	 * 	number of words.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Checks whether the word is present.
+	 *
+	 * @param word
+	 * 	word to check
+	 *
+	 * @return
+	 * 	true if the word is present.
+	 */
+	public boolean contains(String word)
+	{
+		Node node = findNode(word);
+		return node != null && node.word != null;
+	}
+
+	/**
+	 * Finds the word equal to range of characters, without creating string of the range.
+	 *
+	 * @param text
+	 * 	text containing the word
+	 * @param start
+	 * 	start of range, inclusive
+	 * @param end
+	 * 	end of range, exclusive
+	 *
+	 * @return
+	 * 	the indexed word instance, null if not present.
+	 */
+	public String findWord(CharSequence text, int start, int end)
+	{
+		Node node = root;
+		for (int i = start; i < end; ++i) {
+			int index = Arrays.binarySearch(node.keys, text.charAt(i));
+			if (index < 0)
+				return null;
+			node = node.children[index];
+		}
+		return node.word;
+	}
+
+	/**
+	 * Finds words starting with prefix.
+	 *
+	 * @param prefix
+	 * 	prefix of words
+	 *
+	 * @return
+	 * 	sorted list of words starting with prefix.
+	 */
+	public List<String> find(String prefix)
+	{
+		List<String> result = new ArrayList<>();
+		forEach(prefix, result::add);
+		return result;
+	}
+
+	/**
+	 * Finds the only word starting with prefix.
+	 *
+	 * @param prefix
+	 * 	prefix of word
+	 *
+	 * @return
+	 * 	the word starting with prefix, null if there is none or more than one.
+	 */
+	public String findUnique(String prefix)
+	{
+		Node node = findNode(prefix);
+		if (node == null || node.count != 1)
+			return null;
+		while (node.word == null)
+			node = node.children[0];
+		return node.word;
+	}
+
+	/**
+	 * Finds words similar to the word, within Levenshtein distance.
+	 *
+	 * @param word
+	 * 	word to search for
+	 * @param maxDistance
+	 * 	maximum distance, inclusive
+	 *
+	 * @return
+	 * 	found words, sorted by distance and then alphabetically.
+	 */
+	public List<String> findSimilar(String word, int maxDistance)
+	{
+		BkTree tree = similar;
+		if (tree == null)
+			similar = tree = BkTree.of(find(""));
+		return tree.find(word, maxDistance);
+	}
+
+	/**
+	 * Iterates words starting with prefix, in sorted order.
+	 *
+	 * @param prefix
+	 * 	prefix of words
+	 * @param consumer
+	 * 	consumer of words
+	 */
+	public void forEach(String prefix, Consumer<String> consumer)
+	{
+		Node node = findNode(prefix);
+		if (node != null)
+			collect(node, consumer);
+	}
+
+	private Node findNode(String prefix)
+	{
+		Node node = root;
+		for (int i = 0; i < prefix.length(); ++i) {
+			int index = Arrays.binarySearch(node.keys, prefix.charAt(i));
+			if (index < 0)
+				return null;
+			node = node.children[index];
+		}
+		return node;
+	}
+
+	private static void collect(Node node, Consumer<String> consumer)
+	{
+		if (node.word != null)
+			consumer.accept(node.word);
+		for (Node child: node.children)
+			collect(child, consumer);
+	}
+
+	private static Node build(String[] words, int from, int to, int depth)
+	{
+		Node node = new Node();
+		node.count = to-from;
+		if (words[from].length() == depth)
+			node.word = words[from++];
+		int count = 0;
+		for (int i = from; i < to; ++i) {
+			if (i == from || words[i].charAt(depth) != words[i-1].charAt(depth))
+				++count;
+		}
+		if (count == 0)
+			return node;
+		node.keys = new char[count];
+		node.children = new Node[count];
+		int start = from;
+		for (int k = 0; k < count; ++k) {
+			char c = words[start].charAt(depth);
+			int end = start+1;
+			while (end < to && words[end].charAt(depth) == c)
+				++end;
+			node.keys[k] = c;
+			node.children[k] = build(words, start, end, depth+1);
+			start = end;
+		}
+		return node;
+	}
+
+	private static final class Node
+	{
+		char[] keys = NO_KEYS;
+
+		Node[] children = NO_CHILDREN;
+
+		String word;
+
+		/** Number of words in this node and below. */
+		int count;
+	}
+}
@@ -0,0 +1,145 @@
+package net.dryuf.cmdline.jfr;
+
+import net.dryuf.cmdline.command.CommandContext;
+
+import java.lang.reflect.Type;
+
+
+/**
+ * Java Flight Recorder events of command lifecycle and bean creation.
+ *
+ * The begin methods return the started event, or null when no recording is running, the end methods commit it.  The
+ * state of recordings is tracked by listener, so without running recording the instrumentation costs single volatile
+ * read and allocates nothing.  On JVM without Flight Recorder the {@code jdk.jfr} classes are never loaded.
+ *
+ * The events are {@code net.dryuf.cmdline.CommandRun}, {@code CommandSetup}, {@code CommandExecute},
+ * {@code GetBean} and {@code CreateChildBeanFactory}, in category Dryuf CmdLine.
+ */
+public final class CommandEvents
+{
+	static volatile boolean recording;
+
+	static {
+		try {
+			Class.forName("jdk.jfr.FlightRecorder", false, CommandEvents.class.getClassLoader());
+			JfrEvents.register();
+		}
+		catch (ClassNotFoundException|LinkageError|SecurityException ex) {
+			// Flight Recorder not available, events are never recorded
+		}
+	}
+
+	private CommandEvents()
+	{
+	}
+
+	/**
+	 * Checks whether any Flight Recorder recording is running.
+	 *
+	 * @return
+	 * 	true if recording is running.
+	 */
+	public static boolean isRecording()
+	{
+		return recording;
+	}
+
+	/**
+	 * Begins event of full command run, from program arguments to exit code.
+	 *
+	 * @return
+	 * 	started event, null if not recording.
+	 */
+	public static Object beginRun()
+	{
+		return recording ? JfrEvents.beginRun() : null;
+	}
+
+	/**
+	 * Begins event of command setup, including setup of its subcommands.
+	 *
+	 * @return
+	 * 	started event, null if not recording.
+	 */
+	public static Object beginSetup()
+	{
+		return recording ? JfrEvents.beginSetup() : null;
+	}
+
+	/**
+	 * Begins event of command execution, including execution of its subcommands.
+	 *
+	 * @return
+	 * 	started event, null if not recording.
+	 */
+	public static Object beginExecute()
+	{
+		return recording ? JfrEvents.beginExecute() : null;
+	}
+
+	/**
+	 * Ends command event.
+	 *
+	 * @param event
+	 * 	event returned by begin method
+	 * @param context
+	 * 	command context
+	 * @param exitCode
+	 * 	exit code, {@link net.dryuf.cmdline.command.Command#EXIT_CONTINUE} for setup continuing to execution
+	 */
+	public static void endCommand(Object event, CommandContext context, int exitCode)
+	{
+		if (event != null)
+			JfrEvents.endCommand(event, context, exitCode);
+	}
+
+	/**
+	 * Begins event of getting bean from bean factory.
+	 *
+	 * @return
+	 * 	started event, null if not recording.
+	 */
+	public static Object beginGetBean()
+	{
+		return recording ? JfrEvents.beginGetBean() : null;
+	}
+
+	/**
+	 * Ends event of getting bean.
+	 *
+	 * @param event
+	 * 	event returned by {@link #beginGetBean}
+	 * @param beanType
+	 * 	type of requested bean
+	 */
+	public static void endGetBean(Object event, Type beanType)
+	{
+		if (event != null)
+			JfrEvents.endGetBean(event, beanType);
+	}
+
+	/**
+	 * Begins event of creating child bean factory.
+	 *
+	 * @return
+	 * 	started event, null if not recording.
+	 */
+	public static Object beginCreateChild()
+	{
+		return recording ? JfrEvents.beginCreateChild() : null;
+	}
+
+	/**
+	 * Ends event of creating child bean factory.
+	 *
+	 * @param event
+	 * 	event returned by {@link #beginCreateChild}
+	 * @param beanCount
+	 * 	number of beans added by child factory
+	 */
+	public static void endCreateChild(Object event, int beanCount)
+	{
+		if (event != null)
+			JfrEvents.endCreateChild(event, beanCount);
+	}
+}
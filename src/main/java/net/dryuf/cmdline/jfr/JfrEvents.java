@@ -0,0 +1,174 @@
+package net.dryuf.cmdline.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import net.dryuf.cmdline.command.CommandContext;
+
+import java.lang.reflect.Type;
+
+
+/**
+ * Flight Recorder event types, referenced only from {@link CommandEvents} when recording, so the {@code jdk.jfr}
+ * classes are not needed otherwise.
+ */
+final class JfrEvents
+{
+	private JfrEvents()
+	{
+	}
+
+	static void register()
+	{
+		if (!FlightRecorder.isAvailable())
+			return;
+		FlightRecorder.addListener(new FlightRecorderListener()
+		{
+			@Override
+			public void recorderInitialized(FlightRecorder recorder)
+			{
+				update(recorder);
+			}
+
+			@Override
+			public void recordingStateChanged(Recording recording)
+			{
+				update(FlightRecorder.getFlightRecorder());
+			}
+		});
+		if (FlightRecorder.isInitialized())
+			update(FlightRecorder.getFlightRecorder());
+	}
+
+	static Object beginRun()
+	{
+		CommandRunEvent event = new CommandRunEvent();
+		event.begin();
+		return event;
+	}
+
+	static Object beginSetup()
+	{
+		CommandSetupEvent event = new CommandSetupEvent();
+		event.begin();
+		return event;
+	}
+
+	static Object beginExecute()
+	{
+		CommandExecuteEvent event = new CommandExecuteEvent();
+		event.begin();
+		return event;
+	}
+
+	static void endCommand(Object started, CommandContext context, int exitCode)
+	{
+		CommandEvent event = (CommandEvent) started;
+		event.end();
+		if (event.shouldCommit()) {
+			event.commandPath = context.getPath().toString();
+			event.exitCode = exitCode;
+			event.commit();
+		}
+	}
+
+	static Object beginGetBean()
+	{
+		GetBeanEvent event = new GetBeanEvent();
+		event.begin();
+		return event;
+	}
+
+	static void endGetBean(Object started, Type beanType)
+	{
+		GetBeanEvent event = (GetBeanEvent) started;
+		event.end();
+		if (event.shouldCommit()) {
+			event.beanType = beanType.getTypeName();
+			event.commit();
+		}
+	}
+
+	static Object beginCreateChild()
+	{
+		CreateChildBeanFactoryEvent event = new CreateChildBeanFactoryEvent();
+		event.begin();
+		return event;
+	}
+
+	static void endCreateChild(Object started, int beanCount)
+	{
+		CreateChildBeanFactoryEvent event = (CreateChildBeanFactoryEvent) started;
+		event.end();
+		if (event.shouldCommit()) {
+			event.beanCount = beanCount;
+			event.commit();
+		}
+	}
+
+	private static void update(FlightRecorder recorder)
+	{
+		CommandEvents.recording = recorder.getRecordings().stream()
+				.anyMatch(recording -> recording.getState() == RecordingState.RUNNING);
+	}
+
+	@Category("Dryuf CmdLine")
+	@StackTrace(false)
+	abstract static class CommandEvent extends Event
+	{
+		@Label("Command Path")
+		String commandPath;
+
+		@Label("Exit Code")
+		@Description("Exit code, -1 when setup continues to execution")
+		int exitCode;
+	}
+
+	@Name("net.dryuf.cmdline.CommandRun")
+	@Label("Command Run")
+	@Description("Full command lifecycle, from program arguments to exit code")
+	static class CommandRunEvent extends CommandEvent
+	{
+	}
+
+	@Name("net.dryuf.cmdline.CommandSetup")
+	@Label("Command Setup")
+	@Description("Setup of command, including setup of its subcommand")
+	static class CommandSetupEvent extends CommandEvent
+	{
+	}
+
+	@Name("net.dryuf.cmdline.CommandExecute")
+	@Label("Command Execute")
+	@Description("Execution of command, including execution of its subcommand")
+	static class CommandExecuteEvent extends CommandEvent
+	{
+	}
+
+	@Name("net.dryuf.cmdline.GetBean")
+	@Label("Get Bean")
+	@Category("Dryuf CmdLine")
+	@StackTrace(false)
+	static class GetBeanEvent extends Event
+	{
+		@Label("Bean Type")
+		String beanType;
+	}
+
+	@Name("net.dryuf.cmdline.CreateChildBeanFactory")
+	@Label("Create Child Bean Factory")
+	@Category("Dryuf CmdLine")
+	@StackTrace(false)
+	static class CreateChildBeanFactoryEvent extends Event
+	{
+		@Label("Bean Count")
+		int beanCount;
+	}
+}
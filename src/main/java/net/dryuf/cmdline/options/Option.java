@@ -0,0 +1,65 @@
+package net.dryuf.cmdline.options;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Binds command line option to field of options bean.
+ *
+ * Fields of type boolean are flags not taking any value, {@link java.util.List} fields collect values of repeated
+ * option, other fields can be specified only once.  The values are converted to field type (or element type of List)
+ * by {@link #converter()}.
+ *
+ * @see OptionsDefinition
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Option
+{
+	/**
+	 * Names of option, including the prefix, such as {@code --door}.
+	 *
+	 * @return
+	 * 	option names.
+	 */
+	String[] value();
+
+	/**
+	 * Name of option value, as displayed in help.
+	 *
+	 * @return
+	 * 	value name.
+	 */
+	String valueName() default "value";
+
+	/**
+	 * Explanation of option, as displayed in help.
+	 *
+	 * @return
+	 * 	explanation of option.
+	 */
+	String description() default "";
+
+	/**
+	 * Indicates whether the option must be specified.
+	 *
+	 * @return
+	 * 	true if the option is mandatory.
+	 */
+	boolean required() default false;
+
+	/**
+	 * Converter of value, resolved by field type (or element type of List) if not specified, see
+	 * {@link ValueConverters#of(Class)}.
+	 *
+	 * @return
+	 * 	converter class.
+	 */
+	@SuppressWarnings("rawtypes")
+	Class<? extends ValueConverter> converter() default ValueConverter.class;
+}
@@ -0,0 +1,437 @@
+package net.dryuf.cmdline.options;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import lombok.Getter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+
+/**
+ * Options parser compiled from {@link Option} and {@link Parameter} annotations of options bean class.
+ *
+ * The definition is built once per class, on first use, see {@link #of(Class)}.  The field accessors are resolved
+ * to {@link MethodHandle}s at that time, so parsing does not use reflection.  The same applies to
+ * {@link ValueConverter}s converting the values to field types, the primitive fields are set without boxing.  The
+ * primitive fields cannot be required and the repeated option overwrites them, wrapper types can be used instead.
+ */
+public final class OptionsDefinition
+{
+	private static final ClassValue<OptionsDefinition> DEFINITIONS = new ClassValue<OptionsDefinition>()
+	{
+		@Override
+		protected OptionsDefinition computeValue(Class<?> type)
+		{
+			return new OptionsDefinition(type);
+		}
+	};
+
+	private final Map<String, Binding> options;
+
+	private final List<Binding> parameters;
+
+	private final List<Binding> required;
+
+	/** Options description, usage to explanation. */
+	@Getter
+	private final Map<String, String> optionsDescription;
+
+	/** Parameters description, name to explanation. */
+	@Getter
+	private final Map<String, String> parametersDescription;
+
+	private OptionsDefinition(Class<?> type)
+	{
+		Map<String, Binding> options = new HashMap<>();
+		List<Binding> parameters = new ArrayList<>();
+		List<Binding> required = new ArrayList<>();
+		Map<String, String> optionsDescription = new LinkedHashMap<>();
+		Map<String, String> parametersDescription = new LinkedHashMap<>();
+
+		for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+			for (Field field: clazz.getDeclaredFields()) {
+				Option option = field.getAnnotation(Option.class);
+				Parameter parameter = field.getAnnotation(Parameter.class);
+				if (option == null && parameter == null)
+					continue;
+				if (option != null && parameter != null)
+					throw new IllegalArgumentException("Field annotated as both Option and Parameter: "+field);
+				if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers()))
+					throw new IllegalArgumentException("Options field must not be static or final: "+field);
+				if (option != null) {
+					if (option.value().length == 0)
+						throw new IllegalArgumentException("Option without name: "+field);
+					String longName = option.value()[option.value().length-1];
+					Binding binding = new Binding(field, longName, "Option "+longName, option.description(), 0, option.converter());
+					for (String name: option.value()) {
+						if (options.put(name, binding) != null)
+							throw new IllegalArgumentException("Duplicate option "+name+": "+field);
+					}
+					if (option.required()) {
+						if (binding.kind.primitive)
+							throw new IllegalArgumentException("Required option must not be primitive: "+field);
+						required.add(binding);
+					}
+					optionsDescription.put(
+							String.join(", ", option.value())+(binding.kind == Kind.FLAG ? "" : " "+option.valueName()),
+							option.description()
+					);
+				}
+				else {
+					Binding binding = new Binding(field, parameter.value(), "Parameter "+parameter.value(), parameter.description(), parameter.index(), parameter.converter());
+					if (binding.kind == Kind.FLAG)
+						throw new IllegalArgumentException("Parameter cannot be boolean: "+field);
+					parameters.add(binding);
+					if (parameter.required()) {
+						if (binding.kind.primitive)
+							throw new IllegalArgumentException("Required parameter must not be primitive: "+field);
+						required.add(binding);
+					}
+				}
+			}
+		}
+		parameters.sort(Comparator.comparingInt(binding -> binding.index));
+		for (int i = 0; i < parameters.size(); ++i) {
+			Binding binding = parameters.get(i);
+			if (binding.kind == Kind.LIST && i != parameters.size()-1)
+				throw new IllegalArgumentException("Only last parameter can be List: "+binding.field);
+			parametersDescription.put(binding.name, binding.description);
+		}
+
+		this.options = ImmutableMap.copyOf(options);
+		this.parameters = ImmutableList.copyOf(parameters);
+		this.required = ImmutableList.copyOf(required);
+		this.optionsDescription = ImmutableMap.copyOf(optionsDescription);
+		this.parametersDescription = ImmutableMap.copyOf(parametersDescription);
+	}
+
+	/**
+	 * Gets definition for options bean class.
+	 *
+	 * @param type
+	 * 	options bean class
+	 *
+	 * @return
+	 * 	options definition.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if the annotations are invalid.
+	 */
+	public static OptionsDefinition of(Class<?> type)
+	{
+		return DEFINITIONS.get(type);
+	}
+
+	/**
+	 * Parses option.
+	 *
+	 * @param bean
+	 * 	options bean
+	 * @param arg
+	 * 	argument to process
+	 * @param args
+	 * 	pending arguments
+	 *
+	 * @return
+	 * 	true if argument was processed, false if it is not known option.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if option value is missing or invalid or the option is specified twice.
+	 */
+	public boolean parseOption(Object bean, String arg, ListIterator<String> args)
+	{
+		Binding binding = options.get(arg);
+		if (binding == null)
+			return false;
+		switch (binding.kind) {
+		case FLAG:
+			binding.set(bean, Boolean.TRUE);
+			break;
+
+		case VALUE:
+			if (binding.get(bean) != null)
+				throw new IllegalArgumentException("option specified twice");
+			binding.setValue(bean, needValue(args));
+			break;
+
+		default:
+			binding.setValue(bean, needValue(args));
+			break;
+		}
+		return true;
+	}
+
+	/**
+	 * Parses parameters, consuming as many arguments as there are parameters.
+	 *
+	 * @param bean
+	 * 	options bean
+	 * @param args
+	 * 	pending arguments
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if parameter value is invalid.
+	 */
+	public void parseParameters(Object bean, ListIterator<String> args)
+	{
+		for (Binding binding: parameters) {
+			try {
+				if (binding.kind == Kind.LIST) {
+					while (args.hasNext())
+						binding.setValue(bean, args.next());
+				}
+				else if (args.hasNext()) {
+					binding.setValue(bean, args.next());
+				}
+				else {
+					break;
+				}
+			}
+			catch (IllegalArgumentException ex) {
+				throw new IllegalArgumentException(binding.display+": "+ex.getMessage(), ex);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the class defines any parameters.
+	 *
+	 * @return
+	 * 	true if there are parameters.
+	 */
+	public boolean hasParameters()
+	{
+		return !parameters.isEmpty();
+	}
+
+	/**
+	 * Validates that required options and parameters were specified.
+	 *
+	 * @param bean
+	 * 	options bean
+	 *
+	 * @return
+	 * 	error message or null if validation passed.
+	 */
+	public String validate(Object bean)
+	{
+		for (Binding binding: required) {
+			Object value = binding.get(bean);
+			if (value == null || value instanceof List && ((List<?>) value).isEmpty())
+				return binding.display+" not specified";
+		}
+		return null;
+	}
+
+	private static String needValue(ListIterator<String> args)
+	{
+		if (!args.hasNext())
+			throw new IllegalArgumentException("option need a value");
+		return args.next();
+	}
+
+	private enum Kind
+	{
+		FLAG(false),
+		VALUE(false),
+		LIST(false),
+		INT(true),
+		LONG(true),
+		DOUBLE(true),
+		;
+
+		final boolean primitive;
+
+		Kind(boolean primitive)
+		{
+			this.primitive = primitive;
+		}
+	}
+
+	/**
+	 * Compiled accessor of single field.
+	 */
+	private static class Binding
+	{
+		private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+		private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+		final Field field;
+
+		final String name;
+
+		final String display;
+
+		final String description;
+
+		final Kind kind;
+
+		final ValueConverter<?> converter;
+
+		final MethodHandle getter;
+
+		final MethodHandle setter;
+
+		final int index;
+
+		@SuppressWarnings("rawtypes")
+		Binding(Field field, String name, String display, String description, int index, Class<? extends ValueConverter> converterClass)
+		{
+			this.field = field;
+			this.name = name;
+			this.display = display;
+			this.description = description;
+			this.index = index;
+			Class<?> type = field.getType();
+			if (type == boolean.class || type == Boolean.class) {
+				this.kind = Kind.FLAG;
+				this.converter = null;
+			}
+			else if (type == List.class) {
+				this.kind = Kind.LIST;
+				this.converter = resolveConverter(field, converterClass, getElementType(field), ValueConverter.class);
+			}
+			else if (type == int.class) {
+				this.kind = Kind.INT;
+				this.converter = resolveConverter(field, converterClass, type, ValueConverter.OfInt.class);
+			}
+			else if (type == long.class) {
+				this.kind = Kind.LONG;
+				this.converter = resolveConverter(field, converterClass, type, ValueConverter.OfLong.class);
+			}
+			else if (type == double.class) {
+				this.kind = Kind.DOUBLE;
+				this.converter = resolveConverter(field, converterClass, type, ValueConverter.OfDouble.class);
+			}
+			else {
+				this.kind = Kind.VALUE;
+				this.converter = resolveConverter(field, converterClass, type, ValueConverter.class);
+			}
+			try {
+				field.setAccessible(true);
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
+				this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+				this.setter = lookup.unreflectSetter(field).asType(kind.primitive ?
+						MethodType.methodType(void.class, Object.class, type) : SETTER_TYPE);
+			}
+			catch (IllegalAccessException ex) {
+				throw new IllegalArgumentException("Cannot access options field: "+field, ex);
+			}
+		}
+
+		@SuppressWarnings("rawtypes")
+		private static ValueConverter<?> resolveConverter(Field field, Class<? extends ValueConverter> converterClass,
+				Class<?> type, Class<?> required)
+		{
+			ValueConverter<?> converter;
+			try {
+				converter = converterClass == ValueConverter.class ? ValueConverters.of(type) :
+						converterClass.getConstructor().newInstance();
+			}
+			catch (ReflectiveOperationException ex) {
+				throw new IllegalArgumentException("Cannot create converter for options field: "+field, ex);
+			}
+			catch (IllegalArgumentException ex) {
+				throw new IllegalArgumentException("Unsupported options field type: "+field, ex);
+			}
+			if (!required.isInstance(converter))
+				throw new IllegalArgumentException("Converter must implement "+required.getName()+": "+field);
+			return converter;
+		}
+
+		private static Class<?> getElementType(Field field)
+		{
+			Type type = field.getGenericType();
+			if (type instanceof ParameterizedType) {
+				Type element = ((ParameterizedType) type).getActualTypeArguments()[0];
+				if (element instanceof Class)
+					return (Class<?>) element;
+			}
+			return String.class;
+		}
+
+		void setValue(Object bean, String value)
+		{
+			try {
+				switch (kind) {
+				case INT:
+					setter.invokeExact(bean, ((ValueConverter.OfInt) converter).convertInt(value));
+					break;
+
+				case LONG:
+					setter.invokeExact(bean, ((ValueConverter.OfLong) converter).convertLong(value));
+					break;
+
+				case DOUBLE:
+					setter.invokeExact(bean, ((ValueConverter.OfDouble) converter).convertDouble(value));
+					break;
+
+				case LIST:
+					addToList(bean, converter.convert(value));
+					break;
+
+				default:
+					setter.invokeExact(bean, (Object) converter.convert(value));
+					break;
+				}
+			}
+			catch (RuntimeException|Error ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+
+		Object get(Object bean)
+		{
+			try {
+				return (Object) getter.invokeExact(bean);
+			}
+			catch (RuntimeException|Error ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+
+		void set(Object bean, Object value)
+		{
+			try {
+				setter.invokeExact(bean, value);
+			}
+			catch (RuntimeException|Error ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		void addToList(Object bean, Object value)
+		{
+			List<Object> list = (List<Object>) get(bean);
+			if (list == null) {
+				list = new ArrayList<>();
+				set(bean, list);
+			}
+			list.add(value);
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package net.dryuf.cmdline.options;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Binds positional command line parameter to field of options bean.
+ *
+ * Parameters are assigned in order of their {@link #index()}.  The last parameter may be of type
+ * {@link java.util.List}, collecting all remaining arguments.
+ *
+ * @see OptionsDefinition
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Parameter
+{
+	/**
+	 * Name of parameter, as displayed in help.
+	 *
+	 * @return
+	 * 	parameter name.
+	 */
+	String value();
+
+	/**
+	 * Position of parameter.
+	 *
+	 * @return
+	 * 	position of parameter.
+	 */
+	int index() default 0;
+
+	/**
+	 * Explanation of parameter, as displayed in help.
+	 *
+	 * @return
+	 * 	explanation of parameter.
+	 */
+	String description() default "";
+
+	/**
+	 * Indicates whether the parameter must be specified.
+	 *
+	 * @return
+	 * 	true if the parameter is mandatory.
+	 */
+	boolean required() default true;
+
+	/**
+	 * Converter of value, resolved by field type (or element type of List) if not specified, see
+	 * {@link ValueConverters#of(Class)}.
+	 *
+	 * @return
+	 * 	converter class.
+	 */
+	@SuppressWarnings("rawtypes")
+	Class<? extends ValueConverter> converter() default ValueConverter.class;
+}
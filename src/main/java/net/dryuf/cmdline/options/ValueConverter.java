@@ -0,0 +1,113 @@
+package net.dryuf.cmdline.options;
+
+
+/**
+ * Converts option or parameter value from its string representation.
+ *
+ * The primitive specializations convert without boxing, the options fields of primitive types require them.  The
+ * implementations referenced from {@link Option#converter()} and {@link Parameter#converter()} must have public
+ * no-argument constructor, they are instantiated once per options class.
+ *
+ * @param <T>
+ * 	type of value
+ *
+ * @see ValueConverters
+ */
+@FunctionalInterface
+public interface ValueConverter<T>
+{
+	/**
+	 * Converts the value.
+	 *
+	 * @param value
+	 * 	string representation
+	 *
+	 * @return
+	 * 	converted value.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if the value is invalid.
+	 */
+	T convert(String value);
+
+	/**
+	 * Converter to int.
+	 */
+	@FunctionalInterface
+	interface OfInt extends ValueConverter<Integer>
+	{
+		/**
+		 * Converts the value.
+		 *
+		 * @param value
+		 * 	string representation
+		 *
+		 * @return
+		 * 	converted value.
+		 *
+		 * @throws IllegalArgumentException
+		 * 	if the value is invalid.
+		 */
+		int convertInt(String value);
+
+		@Override
+		default Integer convert(String value)
+		{
+			return convertInt(value);
+		}
+	}
+
+	/**
+	 * Converter to long.
+	 */
+	@FunctionalInterface
+	interface OfLong extends ValueConverter<Long>
+	{
+		/**
+		 * Converts the value.
+		 *
+		 * @param value
+		 * 	string representation
+		 *
+		 * @return
+		 * 	converted value.
+		 *
+		 * @throws IllegalArgumentException
+		 * 	if the value is invalid.
+		 */
+		long convertLong(String value);
+
+		@Override
+		default Long convert(String value)
+		{
+			return convertLong(value);
+		}
+	}
+
+	/**
+	 * Converter to double.
+	 */
+	@FunctionalInterface
+	interface OfDouble extends ValueConverter<Double>
+	{
+		/**
+		 * Converts the value.
+		 *
+		 * @param value
+		 * 	string representation
+		 *
+		 * @return
+		 * 	converted value.
+		 *
+		 * @throws IllegalArgumentException
+		 * 	if the value is invalid.
+		 */
+		double convertDouble(String value);
+
+		@Override
+		default Double convert(String value)
+		{
+			return convertDouble(value);
+		}
+	}
+}
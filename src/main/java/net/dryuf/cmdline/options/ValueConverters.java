@@ -0,0 +1,367 @@
+package net.dryuf.cmdline.options;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+
+/**
+ * Registry of standard {@link ValueConverter}s.
+ *
+ * The converters are resolved once per type, see {@link #of(Class)}.  They fail with
+ * {@link IllegalArgumentException} describing the invalid value, which is reported as usage error by
+ * {@link net.dryuf.cmdline.command.AbstractCommand}.
+ */
+public final class ValueConverters
+{
+	/** Converter to int. */
+	public static final ValueConverter.OfInt INT = ValueConverters::parseInt;
+
+	/** Converter to long. */
+	public static final ValueConverter.OfLong LONG = ValueConverters::parseLong;
+
+	/** Converter to double. */
+	public static final ValueConverter.OfDouble DOUBLE = ValueConverters::parseDouble;
+
+	private static final ClassValue<ValueConverter<?>> CONVERTERS = new ClassValue<ValueConverter<?>>()
+	{
+		@Override
+		protected ValueConverter<?> computeValue(Class<?> type)
+		{
+			return createConverter(type);
+		}
+	};
+
+	private static final Map<String, Long> SIZE_UNITS = ImmutableMap.<String, Long>builder()
+			.put("", 1L).put("B", 1L)
+			.put("k", 1L<<10).put("K", 1L<<10).put("KiB", 1L<<10).put("kB", 1000L).put("KB", 1000L)
+			.put("M", 1L<<20).put("MiB", 1L<<20).put("MB", 1000_000L)
+			.put("G", 1L<<30).put("GiB", 1L<<30).put("GB", 1000_000_000L)
+			.put("T", 1L<<40).put("TiB", 1L<<40).put("TB", 1000_000_000_000L)
+			.build();
+
+	private ValueConverters()
+	{
+	}
+
+	/**
+	 * Gets converter for type.  Supported are String, primitive types and their wrappers, {@link Path},
+	 * {@link Duration} and enums.
+	 *
+	 * @param type
+	 * 	type of value
+	 * @param <T>
+	 * 	type of value
+	 *
+	 * @return
+	 * 	converter for type, primitive specialization for primitive types and their wrappers.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if the type is not supported.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> ValueConverter<T> of(Class<T> type)
+	{
+		return (ValueConverter<T>) CONVERTERS.get(type);
+	}
+
+	/**
+	 * Parses int.
+	 *
+	 * @param value
+	 * 	string representation
+	 *
+	 * @return
+	 * 	parsed value.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if the value is invalid.
+	 */
+	public static int parseInt(String value)
+	{
+		try {
+			return Integer.parseInt(value);
+		}
+		catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("invalid integer: "+value);
+		}
+	}
+
+	/**
+	 * Parses long.
+	 *
+	 * @param value
+	 * 	string representation
+	 *
+	 * @return
+	 * 	parsed value.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if the value is invalid.
+	 */
+	public static long parseLong(String value)
+	{
+		try {
+			return Long.parseLong(value);
+		}
+		catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("invalid integer: "+value);
+		}
+	}
+
+	/**
+	 * Parses double.
+	 *
+	 * @param value
+	 * 	string representation
+	 *
+	 * @return
+	 * 	parsed value.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if the value is invalid.
+	 */
+	public static double parseDouble(String value)
+	{
+		try {
+			return Double.parseDouble(value);
+		}
+		catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("invalid number: "+value);
+		}
+	}
+
+	/**
+	 * Parses boolean, accepting true, false, yes, no, on, off, 1 and 0, ignoring case.
+	 *
+	 * @param value
+	 * 	string representation
+	 *
+	 * @return
+	 * 	parsed value.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if the value is invalid.
+	 */
+	public static boolean parseBoolean(String value)
+	{
+		switch (value.toLowerCase(Locale.ROOT)) {
+		case "true":
+		case "yes":
+		case "on":
+		case "1":
+			return true;
+
+		case "false":
+		case "no":
+		case "off":
+		case "0":
+			return false;
+
+		default:
+			throw new IllegalArgumentException("invalid boolean: "+value);
+		}
+	}
+
+	/**
+	 * Parses size in bytes, such as {@code 512}, {@code 10MiB} or {@code 2GB}.  The units k, K, KiB, M, MiB, G, GiB,
+	 * T and TiB are binary, kB, KB, MB, GB and TB are decimal.
+	 *
+	 * @param value
+	 * 	string representation
+	 *
+	 * @return
+	 * 	size in bytes.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if the value is invalid or overflows.
+	 */
+	public static long parseSize(String value)
+	{
+		int unitStart = 0;
+		while (unitStart < value.length() && value.charAt(unitStart) >= '0' && value.charAt(unitStart) <= '9')
+			++unitStart;
+		Long unit = SIZE_UNITS.get(unitStart == value.length() ? "" : value.substring(unitStart).trim());
+		if (unitStart == 0 || unit == null)
+			throw new IllegalArgumentException("invalid size: "+value);
+		try {
+			return Math.multiplyExact(Long.parseLong(value.substring(0, unitStart)), unit);
+		}
+		catch (ArithmeticException|NumberFormatException ex) {
+			throw new IllegalArgumentException("size too large: "+value);
+		}
+	}
+
+	/**
+	 * Parses duration, either ISO-8601 such as {@code PT1M30S} or sequence of numbers with units ns, us, ms, s, m, h
+	 * and d, such as {@code 1h30m}.  Number without unit means seconds.
+	 *
+	 * @param value
+	 * 	string representation
+	 *
+	 * @return
+	 * 	parsed duration.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if the value is invalid.
+	 */
+	public static Duration parseDuration(String value)
+	{
+		if (value.startsWith("P") || value.startsWith("-P")) {
+			try {
+				return Duration.parse(value);
+			}
+			catch (DateTimeParseException ex) {
+				throw new IllegalArgumentException("invalid duration: "+value);
+			}
+		}
+		Duration result = Duration.ZERO;
+		int position = 0;
+		do {
+			int numberStart = position;
+			long number = 0;
+			while (position < value.length() && value.charAt(position) >= '0' && value.charAt(position) <= '9') {
+				if (number > (Long.MAX_VALUE-9)/10)
+					throw new IllegalArgumentException("invalid duration: "+value);
+				number = number*10+(value.charAt(position++)-'0');
+			}
+			int unitStart = position;
+			while (position < value.length() && (value.charAt(position) < '0' || value.charAt(position) > '9'))
+				++position;
+			if (numberStart == unitStart)
+				throw new IllegalArgumentException("invalid duration: "+value);
+			try {
+				result = result.plus(durationOf(number, value, unitStart, position));
+			}
+			catch (ArithmeticException ex) {
+				throw new IllegalArgumentException("invalid duration: "+value);
+			}
+		} while (position < value.length());
+		return result;
+	}
+
+	/**
+	 * Parses path.
+	 *
+	 * @param value
+	 * 	string representation
+	 *
+	 * @return
+	 * 	parsed path.
+	 *
+	 * @throws IllegalArgumentException
+	 * 	if the value is invalid.
+	 */
+	public static Path parsePath(String value)
+	{
+		try {
+			return Paths.get(value);
+		}
+		catch (InvalidPathException ex) {
+			throw new IllegalArgumentException("invalid path: "+ex.getMessage());
+		}
+	}
+
+	private static Duration durationOf(long number, String value, int unitStart, int unitEnd)
+	{
+		switch (value.substring(unitStart, unitEnd)) {
+		case "ns":
+			return Duration.ofNanos(number);
+
+		case "us":
+			return Duration.ofNanos(Math.multiplyExact(number, 1000L));
+
+		case "ms":
+			return Duration.ofMillis(number);
+
+		case "":
+		case "s":
+			return Duration.ofSeconds(number);
+
+		case "m":
+			return Duration.ofMinutes(number);
+
+		case "h":
+			return Duration.ofHours(number);
+
+		case "d":
+			return Duration.ofDays(number);
+
+		default:
+			throw new IllegalArgumentException("invalid duration: "+value);
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static ValueConverter<?> createEnumConverter(Class<?> type)
+	{
+		return new EnumConverter((Class) type);
+	}
+
+	private static ValueConverter<?> createConverter(Class<?> type)
+	{
+		if (type == String.class)
+			return (ValueConverter<String>) value -> value;
+		else if (type == int.class || type == Integer.class)
+			return INT;
+		else if (type == long.class || type == Long.class)
+			return LONG;
+		else if (type == double.class || type == Double.class)
+			return DOUBLE;
+		else if (type == boolean.class || type == Boolean.class)
+			return (ValueConverter<Boolean>) ValueConverters::parseBoolean;
+		else if (type == Path.class)
+			return (ValueConverter<Path>) ValueConverters::parsePath;
+		else if (type == Duration.class)
+			return (ValueConverter<Duration>) ValueConverters::parseDuration;
+		else if (type.isEnum())
+			return createEnumConverter(type);
+		else
+			throw new IllegalArgumentException("Unsupported value type: "+type);
+	}
+
+	/**
+	 * Converter to long, parsing size with units, see {@link #parseSize(String)}.
+	 */
+	public static final class Size implements ValueConverter.OfLong
+	{
+		@Override
+		public long convertLong(String value)
+		{
+			return parseSize(value);
+		}
+	}
+
+	/**
+	 * Converter to enum, matching the constant names ignoring case and accepting dash instead of underscore.
+	 */
+	private static final class EnumConverter<E extends Enum<E>> implements ValueConverter<E>
+	{
+		private final Map<String, E> constants;
+
+		private final String expected;
+
+		EnumConverter(Class<E> type)
+		{
+			this.constants = Stream.of(type.getEnumConstants())
+					.collect(ImmutableMap.toImmutableMap(constant -> constant.name().toLowerCase(Locale.ROOT), constant -> constant));
+			this.expected = String.join(", ", constants.keySet());
+		}
+
+		@Override
+		public E convert(String value)
+		{
+			E constant = constants.get(value.toLowerCase(Locale.ROOT).replace('-', '_'));
+			if (constant == null)
+				throw new IllegalArgumentException("invalid value: "+value+", expected one of: "+expected);
+			return constant;
+		}
+	}
+}
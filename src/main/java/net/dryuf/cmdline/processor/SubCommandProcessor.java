@@ -0,0 +1,513 @@
+package net.dryuf.cmdline.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+
+/**
+ * Annotation processor generating {@link net.dryuf.cmdline.command.SubCommandRegistry} implementations from
+ * {@link net.dryuf.cmdline.command.SubCommand} declarations.
+ *
+ * The generated registry contains the subcommands map and descriptions and constructs the subcommands by direct
+ * constructor calls, resolving the constructor arguments from {@link net.dryuf.cmdline.app.BeanFactory}.  Classes
+ * which cannot be constructed this way (members injection, qualified or generic constructor arguments, inaccessible
+ * constructors) are left to the bean factory.
+ *
+ * Additionally, the processor generates GraalVM native image {@code reflect-config.json} for the declared command
+ * trees, under {@value #NATIVE_IMAGE_DIRECTORY} directory named after the package of first processed command.
+ *
+ * When used together with Lombok generated constructors, Lombok processor must run first.
+ */
+public class SubCommandProcessor extends AbstractProcessor
+{
+	static final String SUB_COMMAND = "net.dryuf.cmdline.command.SubCommand";
+
+	static final String SUB_COMMANDS = "net.dryuf.cmdline.command.SubCommands";
+
+	static final String COMMAND = "net.dryuf.cmdline.command.Command";
+
+	static final String GENERATED_SUFFIX = "_SubCommands";
+
+	static final String NATIVE_IMAGE_DIRECTORY = "META-INF/native-image/net.dryuf.cmdline.generated/";
+
+	private static final Set<String> OPTIONS_ANNOTATIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"net.dryuf.cmdline.options.Option",
+			"net.dryuf.cmdline.options.Parameter"
+	)));
+
+	private static final Set<String> INJECT_ANNOTATIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"javax.inject.Inject",
+			"com.google.inject.Inject"
+	)));
+
+	private static final Set<String> QUALIFIER_ANNOTATIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"javax.inject.Qualifier",
+			"com.google.inject.BindingAnnotation"
+	)));
+
+	private final Set<String> processed = new HashSet<>();
+
+	/** Classes accessed reflectively at runtime, to be registered for native image. */
+	private final Set<String> reflectionClasses = new TreeSet<>();
+
+	private final List<Element> reflectionOrigins = new ArrayList<>();
+
+	private String nativeImageId;
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes()
+	{
+		return new LinkedHashSet<>(Arrays.asList(SUB_COMMAND, SUB_COMMANDS));
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+	{
+		if (roundEnv.processingOver()) {
+			generateNativeImageConfig();
+			return true;
+		}
+		Set<TypeElement> parents = new LinkedHashSet<>();
+		for (TypeElement annotation: annotations) {
+			for (Element element: roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element.getKind() == ElementKind.CLASS)
+					parents.add((TypeElement) element);
+			}
+		}
+		for (TypeElement parent: parents) {
+			if (!processed.add(parent.getQualifiedName().toString()))
+				continue;
+			List<Declaration> declarations = readDeclarations(parent);
+			// inherited annotations are served at runtime from the parent registry or reflection
+			if (declarations != null && !declarations.isEmpty()) {
+				generateRegistry(parent, declarations);
+				collectReflection(parent, declarations);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reads {@code SubCommand} declarations of parent command, both direct and within container.
+	 */
+	List<Declaration> readDeclarations(TypeElement parent)
+	{
+		TypeMirror commandType = processingEnv.getElementUtils().getTypeElement(COMMAND).asType();
+		List<Declaration> declarations = new ArrayList<>();
+		Set<String> names = new HashSet<>();
+		boolean valid = true;
+		for (AnnotationMirror mirror: parent.getAnnotationMirrors()) {
+			String annotationName = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+			List<AnnotationMirror> subCommands = new ArrayList<>();
+			if (annotationName.equals(SUB_COMMAND)) {
+				subCommands.add(mirror);
+			}
+			else if (annotationName.equals(SUB_COMMANDS)) {
+				@SuppressWarnings("unchecked")
+				List<? extends AnnotationValue> values =
+						(List<? extends AnnotationValue>) annotationValue(mirror, "value").getValue();
+				for (AnnotationValue value: values)
+					subCommands.add((AnnotationMirror) value.getValue());
+			}
+			for (AnnotationMirror subCommand: subCommands) {
+				Declaration declaration = new Declaration();
+				declaration.name = (String) annotationValue(subCommand, "name").getValue();
+				declaration.command = (DeclaredType) annotationValue(subCommand, "command").getValue();
+				declaration.arguments = (String) annotationValue(subCommand, "arguments").getValue();
+				declaration.description = (String) annotationValue(subCommand, "description").getValue();
+				if (!processingEnv.getTypeUtils().isAssignable(declaration.command, commandType)) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+							"SubCommand "+declaration.name+" does not implement Command: "+declaration.command,
+							parent, subCommand);
+					valid = false;
+				}
+				if (!names.add(declaration.name)) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+							"Duplicate SubCommand: "+declaration.name, parent, subCommand);
+					valid = false;
+				}
+				declarations.add(declaration);
+			}
+		}
+		return valid ? declarations : null;
+	}
+
+	private void generateRegistry(TypeElement parent, List<Declaration> declarations)
+	{
+		PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(parent);
+		String packageName = packageElement.getQualifiedName().toString();
+		String simpleName = flatName(parent)+GENERATED_SUFFIX;
+		String className = packageName.isEmpty() ? simpleName : packageName+"."+simpleName;
+
+		StringBuilder source = new StringBuilder();
+		if (!packageName.isEmpty())
+			source.append("package ").append(packageName).append(";\n\n");
+		source.append("/**\n");
+		source.append(" * Subcommands of {@link ").append(parent.getQualifiedName()).append("}.\n");
+		source.append(" *\n");
+		source.append(" * Generated by ").append(getClass().getName()).append(", do not edit.\n");
+		source.append(" */\n");
+		source.append("public final class ").append(simpleName)
+				.append(" implements net.dryuf.cmdline.command.SubCommandRegistry\n");
+		source.append("{\n");
+		source.append("\tprivate static final java.util.Map<String, net.dryuf.cmdline.command.SubCommandEntry> SUB_COMMAND_ENTRIES;\n\n");
+		source.append("\tprivate static final java.util.Map<String, String> COMMANDS_DESCRIPTION;\n\n");
+		source.append("\tstatic {\n");
+		source.append("\t\tClassLoader classLoader = ").append(simpleName).append(".class.getClassLoader();\n");
+		source.append("\t\tjava.util.Map<String, net.dryuf.cmdline.command.SubCommandEntry> subCommandEntries = new java.util.LinkedHashMap<>();\n");
+		for (Declaration declaration: declarations) {
+			String binaryName = processingEnv.getElementUtils().getBinaryName((TypeElement) declaration.command.asElement()).toString();
+			source.append("\t\tsubCommandEntries.put(").append(literal(declaration.name))
+					.append(", net.dryuf.cmdline.command.SubCommandEntry.of(").append(literal(binaryName)).append(", classLoader));\n");
+		}
+		source.append("\t\tSUB_COMMAND_ENTRIES = java.util.Collections.unmodifiableMap(subCommandEntries);\n");
+		source.append("\t\tjava.util.Map<String, String> commandsDescription = new java.util.LinkedHashMap<>();\n");
+		for (Declaration declaration: declarations) {
+			String usage = declaration.arguments.isEmpty() ?
+					declaration.name : declaration.name+" "+declaration.arguments;
+			source.append("\t\tcommandsDescription.put(").append(literal(usage)).append(", ")
+					.append(literal(declaration.description)).append(");\n");
+		}
+		source.append("\t\tCOMMANDS_DESCRIPTION = java.util.Collections.unmodifiableMap(commandsDescription);\n");
+		source.append("\t}\n\n");
+
+		source.append("\t@Override\n");
+		source.append("\tpublic java.util.Map<String, Class<? extends net.dryuf.cmdline.command.Command>> getSubCommands()\n");
+		source.append("\t{\n");
+		source.append("\t\treturn net.dryuf.cmdline.command.SubCommandEntry.resolveAll(SUB_COMMAND_ENTRIES);\n");
+		source.append("\t}\n\n");
+
+		source.append("\t@Override\n");
+		source.append("\tpublic java.util.Map<String, net.dryuf.cmdline.command.SubCommandEntry> getSubCommandEntries()\n");
+		source.append("\t{\n");
+		source.append("\t\treturn SUB_COMMAND_ENTRIES;\n");
+		source.append("\t}\n\n");
+
+		source.append("\t@Override\n");
+		source.append("\tpublic java.util.Map<String, String> getCommandsDescription()\n");
+		source.append("\t{\n");
+		source.append("\t\treturn COMMANDS_DESCRIPTION;\n");
+		source.append("\t}\n\n");
+
+		source.append("\t@Override\n");
+		source.append("\tpublic net.dryuf.cmdline.command.Command createCommand(Class<? extends net.dryuf.cmdline.command.Command> commandClass, net.dryuf.cmdline.app.BeanFactory beanFactory)\n");
+		source.append("\t{\n");
+		source.append("\t\tswitch (commandClass.getName()) {\n");
+		Set<String> generated = new HashSet<>();
+		for (Declaration declaration: declarations) {
+			TypeElement command = (TypeElement) declaration.command.asElement();
+			String binaryName = processingEnv.getElementUtils().getBinaryName(command).toString();
+			if (!generated.add(binaryName))
+				continue;
+			String construction = constructionExpression(command, packageElement);
+			if (construction == null)
+				continue;
+			source.append("\t\tcase ").append(literal(binaryName)).append(":\n");
+			source.append("\t\t\treturn ").append(construction).append(";\n\n");
+		}
+		source.append("\t\tdefault:\n");
+		source.append("\t\t\treturn null;\n");
+		source.append("\t\t}\n");
+		source.append("\t}\n");
+		source.append("}\n");
+
+		try (Writer writer = processingEnv.getFiler().createSourceFile(className, parent).openWriter()) {
+			writer.write(source.toString());
+		}
+		catch (IOException ex) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					"Failed to generate "+className+": "+ex, parent);
+		}
+	}
+
+	/**
+	 * Collects classes of the command tree which need reflection at runtime: the commands and their superclasses,
+	 * inspected by bean container for injection points, options beans, processed by
+	 * {@link net.dryuf.cmdline.options.OptionsDefinition}, and the generated registry, looked up by name.
+	 */
+	private void collectReflection(TypeElement parent, List<Declaration> declarations)
+	{
+		if (nativeImageId == null)
+			nativeImageId = processingEnv.getElementUtils().getPackageOf(parent).getQualifiedName().toString();
+		reflectionOrigins.add(parent);
+		String parentName = processingEnv.getElementUtils().getBinaryName(parent).toString();
+		int packageEnd = parentName.lastIndexOf('.')+1;
+		reflectionClasses.add(parentName.substring(0, packageEnd)+flatName(parent)+GENERATED_SUFFIX);
+		collectCommandReflection(parent);
+		for (Declaration declaration: declarations)
+			collectCommandReflection((TypeElement) declaration.command.asElement());
+	}
+
+	private void collectCommandReflection(TypeElement command)
+	{
+		for (TypeElement current = command; current != null; current = superclass(current)) {
+			if (current.getQualifiedName().toString().startsWith("java."))
+				break;
+			if (!reflectionClasses.add(processingEnv.getElementUtils().getBinaryName(current).toString()))
+				break;
+			for (Element member: current.getEnclosedElements()) {
+				if (member.getKind() == ElementKind.FIELD) {
+					collectOptionsReflection(member.asType());
+				}
+				else if (member.getKind() == ElementKind.CONSTRUCTOR) {
+					for (VariableElement parameter: ((ExecutableElement) member).getParameters())
+						collectOptionsReflection(parameter.asType());
+				}
+			}
+		}
+	}
+
+	private void collectOptionsReflection(TypeMirror type)
+	{
+		if (type.getKind() != TypeKind.DECLARED)
+			return;
+		TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+		for (TypeElement current = element; current != null; current = superclass(current)) {
+			for (Element member: current.getEnclosedElements()) {
+				if (member.getKind() == ElementKind.FIELD && hasAnnotation(member, OPTIONS_ANNOTATIONS)) {
+					reflectionClasses.add(processingEnv.getElementUtils().getBinaryName(current).toString());
+					break;
+				}
+			}
+		}
+	}
+
+	private void generateNativeImageConfig()
+	{
+		if (reflectionClasses.isEmpty())
+			return;
+		String path = NATIVE_IMAGE_DIRECTORY+nativeImageId+"/reflect-config.json";
+		StringBuilder json = new StringBuilder("[\n");
+		String separator = "";
+		for (String className: reflectionClasses) {
+			json.append(separator);
+			json.append("\t{\n");
+			json.append("\t\t\"name\": ").append(literal(className)).append(",\n");
+			json.append("\t\t\"allDeclaredConstructors\": true,\n");
+			json.append("\t\t\"allDeclaredMethods\": true,\n");
+			json.append("\t\t\"allDeclaredFields\": true\n");
+			json.append("\t}");
+			separator = ",\n";
+		}
+		json.append("\n]\n");
+		try (Writer writer = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path,
+				reflectionOrigins.toArray(new Element[0])).openWriter()) {
+			writer.write(json.toString());
+		}
+		catch (IOException ex) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate "+path+": "+ex);
+		}
+	}
+
+	private static TypeElement superclass(TypeElement type)
+	{
+		TypeMirror superclass = type.getSuperclass();
+		return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+	}
+
+	/**
+	 * Builds direct construction expression, following the rules of JSR-330 constructor injection.
+	 *
+	 * @return
+	 * 	construction expression or null if the class must be constructed by bean factory.
+	 */
+	String constructionExpression(TypeElement command, PackageElement targetPackage)
+	{
+		if (command.getModifiers().contains(Modifier.ABSTRACT) || !isAccessible(command, targetPackage))
+			return null;
+		if (command.getNestingKind() == NestingKind.MEMBER && !command.getModifiers().contains(Modifier.STATIC))
+			return null;
+		if (hasMembersInjection(command))
+			return null;
+
+		ExecutableElement injectConstructor = null;
+		ExecutableElement defaultConstructor = null;
+		for (Element member: command.getEnclosedElements()) {
+			if (member.getKind() != ElementKind.CONSTRUCTOR)
+				continue;
+			ExecutableElement constructor = (ExecutableElement) member;
+			if (hasAnnotation(constructor, INJECT_ANNOTATIONS)) {
+				if (injectConstructor != null)
+					return null;
+				injectConstructor = constructor;
+			}
+			else if (constructor.getParameters().isEmpty()) {
+				defaultConstructor = constructor;
+			}
+		}
+		ExecutableElement constructor = injectConstructor != null ? injectConstructor : defaultConstructor;
+		if (constructor == null || !isMemberAccessible(constructor, targetPackage))
+			return null;
+
+		StringBuilder expression = new StringBuilder("new ").append(command.getQualifiedName()).append("(");
+		String separator = "";
+		for (VariableElement parameter: constructor.getParameters()) {
+			TypeMirror type = parameter.asType();
+			if (type.getKind() != TypeKind.DECLARED)
+				return null;
+			DeclaredType declared = (DeclaredType) type;
+			TypeElement typeElement = (TypeElement) declared.asElement();
+			if (!declared.getTypeArguments().isEmpty() || !typeElement.getTypeParameters().isEmpty())
+				return null;
+			if (!isAccessible(typeElement, targetPackage))
+				return null;
+			for (AnnotationMirror annotation: parameter.getAnnotationMirrors()) {
+				if (hasAnnotation(annotation.getAnnotationType().asElement(), QUALIFIER_ANNOTATIONS))
+					return null;
+			}
+			expression.append(separator)
+					.append("beanFactory.<").append(typeElement.getQualifiedName()).append(">getBean(")
+					.append(typeElement.getQualifiedName()).append(".class)");
+			separator = ", ";
+		}
+		return expression.append(")").toString();
+	}
+
+	private boolean hasMembersInjection(TypeElement command)
+	{
+		for (TypeElement current = command; current != null; current = superclass(current)) {
+			for (Element member: current.getEnclosedElements()) {
+				if ((member.getKind() == ElementKind.FIELD || member.getKind() == ElementKind.METHOD) &&
+						hasAnnotation(member, INJECT_ANNOTATIONS))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isAccessible(TypeElement type, PackageElement targetPackage)
+	{
+		for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+			if (!isMemberAccessible(current, targetPackage))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean isMemberAccessible(Element member, PackageElement targetPackage)
+	{
+		Set<Modifier> modifiers = member.getModifiers();
+		if (modifiers.contains(Modifier.PUBLIC))
+			return true;
+		if (modifiers.contains(Modifier.PRIVATE))
+			return false;
+		return processingEnv.getElementUtils().getPackageOf(member).equals(targetPackage);
+	}
+
+	private static boolean hasAnnotation(Element element, Set<String> annotationNames)
+	{
+		for (AnnotationMirror annotation: element.getAnnotationMirrors()) {
+			if (annotationNames.contains(((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString()))
+				return true;
+		}
+		return false;
+	}
+
+	private AnnotationValue annotationValue(AnnotationMirror mirror, String name)
+	{
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry:
+				processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals(name))
+				return entry.getValue();
+		}
+		throw new IllegalArgumentException("Annotation value not found: "+name);
+	}
+
+	/**
+	 * Builds simple name of nested class, joining the enclosing class names by underscore.
+	 */
+	static String flatName(TypeElement type)
+	{
+		StringBuilder name = new StringBuilder(type.getSimpleName());
+		for (Element current = type.getEnclosingElement(); current instanceof TypeElement;
+				current = current.getEnclosingElement()) {
+			name.insert(0, '_').insert(0, current.getSimpleName());
+		}
+		return name.toString();
+	}
+
+	static String literal(String value)
+	{
+		StringBuilder literal = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); ++i) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				literal.append("\\\"");
+				break;
+
+			case '\\':
+				literal.append("\\\\");
+				break;
+
+			case '\n':
+				literal.append("\\n");
+				break;
+
+			case '\r':
+				literal.append("\\r");
+				break;
+
+			case '\t':
+				literal.append("\\t");
+				break;
+
+			default:
+				if (c < 0x20 || c > 0x7e) {
+					literal.append(String.format("\\u%04x", (int) c));
+				}
+				else {
+					literal.append(c);
+				}
+			}
+		}
+		return literal.append("\"").toString();
+	}
+
+	/**
+	 * Single {@code SubCommand} declaration.
+	 */
+	static class Declaration
+	{
+		String name;
+
+		DeclaredType command;
+
+		String arguments;
+
+		String description;
+	}
+}
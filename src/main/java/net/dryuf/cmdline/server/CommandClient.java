@@ -0,0 +1,87 @@
+package net.dryuf.cmdline.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+
+/**
+ * Client of {@link CommandServer}.
+ */
+public class CommandClient
+{
+	/**
+	 * Executes command line on server listening on Unix domain socket.
+	 *
+	 * @param socketPath
+	 * 	path to server socket
+	 * @param args
+	 * 	command arguments
+	 * @param stdout
+	 * 	stream to receive standard output
+	 * @param stderr
+	 * 	stream to receive standard error
+	 *
+	 * @return
+	 * 	exit code.
+	 *
+	 * @throws IOException
+	 * 	in case of communication error.
+	 */
+	public static int executeUnix(Path socketPath, List<String> args, OutputStream stdout, OutputStream stderr) throws IOException
+	{
+		try (SocketChannel channel = CommandProtocol.openUnixClient(socketPath)) {
+			return execute(channel, args, stdout, stderr);
+		}
+	}
+
+	/**
+	 * Executes command line on server listening on TCP loopback interface.
+	 *
+	 * @param port
+	 * 	server port
+	 * @param args
+	 * 	command arguments
+	 * @param stdout
+	 * 	stream to receive standard output
+	 * @param stderr
+	 * 	stream to receive standard error
+	 *
+	 * @return
+	 * 	exit code.
+	 *
+	 * @throws IOException
+	 * 	in case of communication error.
+	 */
+	public static int executeLoopback(int port, List<String> args, OutputStream stdout, OutputStream stderr) throws IOException
+	{
+		try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port))) {
+			return execute(channel, args, stdout, stderr);
+		}
+	}
+
+	private static int execute(SocketChannel channel, List<String> args, OutputStream stdout, OutputStream stderr) throws IOException
+	{
+		CommandProtocol.writeRequest(
+				new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel))),
+				args
+		);
+		int exitCode = CommandProtocol.readResponse(
+				new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel))),
+				stdout,
+				stderr
+		);
+		stdout.flush();
+		stderr.flush();
+		return exitCode;
+	}
+}
@@ -0,0 +1,197 @@
+package net.dryuf.cmdline.server;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Wire protocol of {@link CommandServer}.
+ *
+ * Request consists of big-endian int argument count, followed by each argument encoded as big-endian int length
+ * and UTF-8 bytes.
+ *
+ * Response is a sequence of frames, each consisting of single type byte, big-endian int length and payload.
+ * Frame {@link #FRAME_STDOUT} carries standard output, {@link #FRAME_STDERR} carries standard error and final
+ * {@link #FRAME_EXIT} carries four bytes of exit code.
+ */
+final class CommandProtocol
+{
+	/** Standard output frame. */
+	static final int FRAME_STDOUT = 'O';
+	/** Standard error frame. */
+	static final int FRAME_STDERR = 'E';
+	/** Exit code frame, terminating the response. */
+	static final int FRAME_EXIT = 'X';
+
+	/** Maximum number of arguments accepted in single request. */
+	static final int MAX_ARGS = 1_000_000;
+	/** Maximum length of single argument, in bytes. */
+	static final int MAX_ARG_LENGTH = 16*1024*1024;
+
+	private CommandProtocol()
+	{
+	}
+
+	static void writeRequest(DataOutputStream output, List<String> args) throws IOException
+	{
+		output.writeInt(args.size());
+		for (String arg: args) {
+			byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+			output.writeInt(bytes.length);
+			output.write(bytes);
+		}
+		output.flush();
+	}
+
+	static List<String> readRequest(DataInputStream input) throws IOException
+	{
+		int count = input.readInt();
+		if (count < 0 || count > MAX_ARGS)
+			throw new IOException("Invalid number of arguments: "+count);
+		List<String> args = new ArrayList<>(count);
+		for (int i = 0; i < count; ++i) {
+			int length = input.readInt();
+			if (length < 0 || length > MAX_ARG_LENGTH)
+				throw new IOException("Invalid argument length: "+length);
+			byte[] bytes = new byte[length];
+			input.readFully(bytes);
+			args.add(new String(bytes, StandardCharsets.UTF_8));
+		}
+		return args;
+	}
+
+	/**
+	 * Reads the response, passing the output frames to streams.
+	 *
+	 * @return
+	 * 	exit code.
+	 */
+	static int readResponse(DataInputStream input, OutputStream stdout, OutputStream stderr) throws IOException
+	{
+		byte[] buffer = new byte[0];
+		for (;;) {
+			int type = input.read();
+			if (type < 0)
+				throw new EOFException("Connection closed before receiving exit code");
+			int length = input.readInt();
+			if (length < 0)
+				throw new IOException("Invalid frame length: "+length);
+			if (type == FRAME_EXIT) {
+				if (length != 4)
+					throw new IOException("Invalid exit frame length: "+length);
+				return input.readInt();
+			}
+			if (buffer.length < length)
+				buffer = new byte[length];
+			input.readFully(buffer, 0, length);
+			switch (type) {
+			case FRAME_STDOUT:
+				stdout.write(buffer, 0, length);
+				break;
+
+			case FRAME_STDERR:
+				stderr.write(buffer, 0, length);
+				break;
+
+			default:
+				throw new IOException("Unknown frame type: "+type);
+			}
+		}
+	}
+
+	static ServerSocketChannel openUnixServer(Path path) throws IOException
+	{
+		try {
+			ServerSocketChannel channel = (ServerSocketChannel) ServerSocketChannel.class
+					.getMethod("open", ProtocolFamily.class)
+					.invoke(null, unixProtocolFamily());
+			try {
+				channel.bind(unixAddress(path));
+			}
+			catch (IOException|RuntimeException|ReflectiveOperationException ex) {
+				closeSuppressed(channel, ex);
+				throw ex;
+			}
+			return channel;
+		}
+		catch (InvocationTargetException ex) {
+			throw unwrapIo(ex);
+		}
+		catch (ReflectiveOperationException ex) {
+			throw new UnsupportedOperationException("Unix domain sockets require Java 16 or later", ex);
+		}
+	}
+
+	static SocketChannel openUnixClient(Path path) throws IOException
+	{
+		try {
+			SocketChannel channel = (SocketChannel) SocketChannel.class
+					.getMethod("open", ProtocolFamily.class)
+					.invoke(null, unixProtocolFamily());
+			try {
+				channel.connect(unixAddress(path));
+			}
+			catch (IOException|RuntimeException|ReflectiveOperationException ex) {
+				closeSuppressed(channel, ex);
+				throw ex;
+			}
+			return channel;
+		}
+		catch (InvocationTargetException ex) {
+			throw unwrapIo(ex);
+		}
+		catch (ReflectiveOperationException ex) {
+			throw new UnsupportedOperationException("Unix domain sockets require Java 16 or later", ex);
+		}
+	}
+
+	private static ProtocolFamily unixProtocolFamily() throws ReflectiveOperationException
+	{
+		try {
+			return StandardProtocolFamily.valueOf("UNIX");
+		}
+		catch (IllegalArgumentException ex) {
+			throw new ClassNotFoundException("StandardProtocolFamily.UNIX", ex);
+		}
+	}
+
+	private static SocketAddress unixAddress(Path path) throws ReflectiveOperationException
+	{
+		return (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+				.getMethod("of", Path.class)
+				.invoke(null, path);
+	}
+
+	private static void closeSuppressed(Closeable closeable, Exception ex)
+	{
+		try {
+			closeable.close();
+		}
+		catch (IOException closeEx) {
+			ex.addSuppressed(closeEx);
+		}
+	}
+
+	private static IOException unwrapIo(InvocationTargetException ex)
+	{
+		if (ex.getCause() instanceof IOException)
+			return (IOException) ex.getCause();
+		if (ex.getCause() instanceof RuntimeException)
+			throw (RuntimeException) ex.getCause();
+		return new IOException(ex.getCause());
+	}
+}
@@ -0,0 +1,409 @@
+package net.dryuf.cmdline.server;
+
+import lombok.Setter;
+import net.dryuf.cmdline.command.Command;
+import net.dryuf.cmdline.command.CommandInvoker;
+import net.dryuf.cmdline.command.OutputRouter;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+
+
+/**
+ * Long running server, executing command lines received over local socket within single warm JVM.
+ *
+ * The {@link net.dryuf.cmdline.app.AppContext} behind the {@link CommandInvoker} is created once and reused by all
+ * requests, avoiding repeated JVM startup and bean container bootstrap.  Each request receives its own standard
+ * output, standard error and exit code, see {@link CommandProtocol} for the wire format and {@link CommandClient}
+ * for the client.
+ *
+ * Requests are processed concurrently, each connection in its own thread of
+ * {@link net.dryuf.cmdline.app.AppContext#getCommandExecutor()}, virtual one if supported.  The output is captured from
+ * {@link net.dryuf.cmdline.command.CommandContext} streams as well as from System streams, by {@link OutputRouter}.
+ */
+public class CommandServer implements Closeable
+{
+	private final CommandInvoker invoker;
+
+	private final ServerSocketChannel serverChannel;
+
+	private final Path socketPath;
+
+	/** Timeout of single invocation, null for no timeout. */
+	@Setter
+	private volatile Duration timeout;
+
+	/** Stream to report failed connections to, null for {@link System#err}. */
+	@Setter
+	private volatile PrintStream errorStream;
+
+	/**
+	 * Creates server listening on provided channel.
+	 *
+	 * @param invoker
+	 * 	invoker of root command
+	 * @param serverChannel
+	 * 	bound server channel
+	 */
+	public CommandServer(CommandInvoker invoker, ServerSocketChannel serverChannel)
+	{
+		this(invoker, serverChannel, null);
+	}
+
+	private CommandServer(CommandInvoker invoker, ServerSocketChannel serverChannel, Path socketPath)
+	{
+		this.invoker = invoker;
+		this.serverChannel = serverChannel;
+		this.socketPath = socketPath;
+	}
+
+	/**
+	 * Creates server listening on Unix domain socket.  Requires Java 16 or later.
+	 *
+	 * @param invoker
+	 * 	invoker of root command
+	 * @param socketPath
+	 * 	path to socket file, removed when the server is closed
+	 *
+	 * @return
+	 * 	new server.
+	 *
+	 * @throws IOException
+	 * 	if binding the socket failed.
+	 * @throws UnsupportedOperationException
+	 * 	if Unix domain sockets are not supported by current Java runtime.
+	 */
+	public static CommandServer openUnix(CommandInvoker invoker, Path socketPath) throws IOException
+	{
+		return new CommandServer(invoker, CommandProtocol.openUnixServer(socketPath), socketPath);
+	}
+
+	/**
+	 * Creates server listening on TCP loopback interface.
+	 *
+	 * @param invoker
+	 * 	invoker of root command
+	 * @param port
+	 * 	port to listen on, 0 to choose any available
+	 *
+	 * @return
+	 * 	new server.
+	 *
+	 * @throws IOException
+	 * 	if binding the socket failed.
+	 */
+	public static CommandServer openLoopback(CommandInvoker invoker, int port) throws IOException
+	{
+		ServerSocketChannel channel = ServerSocketChannel.open();
+		try {
+			channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		}
+		catch (IOException|RuntimeException ex) {
+			channel.close();
+			throw ex;
+		}
+		return new CommandServer(invoker, channel);
+	}
+
+	/**
+	 * Gets channel the server listens on, useful for finding the bound address.
+	 *
+	 * @return
+	 * 	server channel.
+	 */
+	public ServerSocketChannel getServerChannel()
+	{
+		return serverChannel;
+	}
+
+	/**
+	 * Accepts and processes requests until the server is closed.
+	 *
+	 * @throws IOException
+	 * 	if accepting connection failed.
+	 */
+	public void serve() throws IOException
+	{
+		OutputRouter.install();
+		for (;;) {
+			SocketChannel client;
+			try {
+				client = serverChannel.accept();
+			}
+			catch (ClosedChannelException ex) {
+				return;
+			}
+			invoker.getAppContext().getCommandExecutor().submit(() -> {
+				try (SocketChannel autoClose = client) {
+					processConnection(client);
+				}
+				catch (IOException ex) {
+					reportConnectionFailure(client, ex);
+				}
+				return Command.EXIT_SUCCESS;
+			});
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		try {
+			serverChannel.close();
+		}
+		finally {
+			if (socketPath != null)
+				Files.deleteIfExists(socketPath);
+		}
+	}
+
+	private void processConnection(SocketChannel client) throws IOException
+	{
+		DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+		OutputStream output = Channels.newOutputStream(client);
+		List<String> args = CommandProtocol.readRequest(input);
+
+		FrameWriter frames = new FrameWriter();
+		PrintStream stdout = new PrintStream(new FrameOutputStream(frames, CommandProtocol.FRAME_STDOUT), false);
+		PrintStream stderr = new PrintStream(new FrameOutputStream(frames, CommandProtocol.FRAME_STDERR), false);
+		// the invocation runs in other thread, as the timeout interrupts it and interrupt closes the channel it writes
+		// to, the socket is written only from this thread:
+		Duration timeout = this.timeout;
+		CompletableFuture<Integer> result = invoker.getAppContext().getCommandExecutor().submit(() ->
+				timeout == null ? invoker.invoke(args, stdout, stderr) : invoker.invoke(args, stdout, stderr, timeout)
+		);
+		result.whenComplete((exit, ex) -> frames.wakeUp());
+		int exitCode;
+		try {
+			frames.transfer(output, result);
+			exitCode = result.join();
+			if (exitCode < 0)
+				exitCode = Command.EXIT_FAILURE;
+		}
+		catch (CompletionException ex) {
+			ex.getCause().printStackTrace(stderr);
+			exitCode = Command.EXIT_FAILURE;
+		}
+		catch (IOException|RuntimeException ex) {
+			result.cancel(true);
+			frames.abort();
+			throw ex;
+		}
+		stdout.flush();
+		stderr.flush();
+		if (stdout.checkError() || stderr.checkError())
+			throw new IOException("Failed to send output to client");
+		// the command may still run after timeout, its later output is dropped:
+		frames.finish(exitCode);
+		frames.transfer(output, result);
+	}
+
+	private void reportConnectionFailure(SocketChannel client, IOException ex)
+	{
+		PrintStream error = errorStream == null ? System.err : errorStream;
+		String remote;
+		try {
+			remote = String.valueOf(client.getRemoteAddress());
+		}
+		catch (IOException remoteEx) {
+			remote = "unknown client";
+		}
+		error.println("Failed to process command connection from "+remote+": "+ex);
+	}
+
+	/**
+	 * Writer of protocol frames, shared by the streams of single connection.  The frames are collected in memory and
+	 * sent by {@link #transfer(OutputStream, Future)} called from connection thread, so the invocation thread never
+	 * writes to the socket.  Rejects frames once the exit frame is written.
+	 */
+	private static class FrameWriter
+	{
+		/** Size of pending content, after which the writers wait for transfer. */
+		private static final int MAX_PENDING = 65536;
+
+		private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+		private final DataOutputStream pendingData = new DataOutputStream(pending);
+
+		private boolean flushRequested;
+
+		private boolean finished;
+
+		synchronized void write(int type, byte[] buffer, int length) throws IOException
+		{
+			checkOpen();
+			try {
+				while (pending.size() >= MAX_PENDING) {
+					wait();
+					checkOpen();
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for client");
+			}
+			pendingData.writeByte(type);
+			pendingData.writeInt(length);
+			pendingData.write(buffer, 0, length);
+			if (pending.size() >= MAX_PENDING)
+				notifyAll();
+		}
+
+		synchronized void flush() throws IOException
+		{
+			checkOpen();
+			if (pending.size() > 0) {
+				flushRequested = true;
+				notifyAll();
+			}
+		}
+
+		synchronized void finish(int exitCode) throws IOException
+		{
+			checkOpen();
+			finished = true;
+			pendingData.writeByte(CommandProtocol.FRAME_EXIT);
+			pendingData.writeInt(4);
+			pendingData.writeInt(exitCode);
+			flushRequested = true;
+			notifyAll();
+		}
+
+		/**
+		 * Rejects further frames, releasing the waiting writers.
+		 */
+		synchronized void abort()
+		{
+			finished = true;
+			notifyAll();
+		}
+
+		synchronized void wakeUp()
+		{
+			notifyAll();
+		}
+
+		/**
+		 * Sends the frames to output as they are flushed, until the future is done and all flushed content is sent.
+		 *
+		 * @param output
+		 * 	output to write to
+		 * @param until
+		 * 	future completing the transfer
+		 *
+		 * @throws IOException
+		 * 	if writing failed or current thread was interrupted.
+		 */
+		void transfer(OutputStream output, Future<?> until) throws IOException
+		{
+			for (;;) {
+				byte[] content;
+				synchronized (this) {
+					try {
+						while (!flushRequested && pending.size() < MAX_PENDING && !until.isDone())
+							wait();
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						throw new InterruptedIOException("Interrupted while waiting for output");
+					}
+					if (!flushRequested && pending.size() < MAX_PENDING)
+						return;
+					content = pending.toByteArray();
+					pending.reset();
+					flushRequested = false;
+					notifyAll();
+				}
+				output.write(content);
+				output.flush();
+			}
+		}
+
+		private void checkOpen() throws IOException
+		{
+			if (finished)
+				throw new IOException("Invocation already finished");
+		}
+	}
+
+	/**
+	 * Stream writing its content as protocol frames of specific type.
+	 */
+	private static class FrameOutputStream extends OutputStream
+	{
+		private final FrameWriter frames;
+
+		private final int type;
+
+		private final byte[] buffer = new byte[8192];
+
+		private int length;
+
+		public FrameOutputStream(FrameWriter frames, int type)
+		{
+			this.frames = frames;
+			this.type = type;
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			if (length == buffer.length)
+				flushFrame();
+			buffer[length++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			while (len > 0) {
+				if (length == buffer.length)
+					flushFrame();
+				int chunk = Math.min(len, buffer.length-length);
+				System.arraycopy(b, off, buffer, length, chunk);
+				length += chunk;
+				off += chunk;
+				len -= chunk;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException
+		{
+			flushFrame();
+			frames.flush();
+		}
+
+		private void flushFrame() throws IOException
+		{
+			if (length == 0)
+				return;
+			try {
+				frames.write(type, buffer, length);
+			}
+			finally {
+				length = 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package net.dryuf.cmdline.app;
+
+import net.dryuf.cmdline.command.Command;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class CommandExecutorTest
+{
+	CommandExecutor executor = CommandExecutor.getDefault();
+
+	@Test(timeOut = 10_000L)
+	public void execute_finished_exitCode() throws Exception
+	{
+		assertEquals(executor.execute(() -> 3, Duration.ofSeconds(5), System.err), 3);
+	}
+
+	@Test(timeOut = 10_000L)
+	public void execute_exception_propagated() throws Exception
+	{
+		try {
+			executor.execute(() -> { throw new IOException("failed"); }, null, System.err);
+		}
+		catch (IOException ex) {
+			assertEquals(ex.getMessage(), "failed");
+			return;
+		}
+		throw new AssertionError("Expected IOException");
+	}
+
+	@Test(timeOut = 10_000L)
+	public void execute_timeout_interrupted() throws Exception
+	{
+		CountDownLatch interrupted = new CountDownLatch(1);
+		ByteArrayOutputStream error = new ByteArrayOutputStream();
+		int exit = executor.execute(() -> {
+			try {
+				Thread.sleep(60_000L);
+				return Command.EXIT_SUCCESS;
+			}
+			catch (InterruptedException ex) {
+				interrupted.countDown();
+				throw ex;
+			}
+		}, Duration.ofMillis(100), new PrintStream(error, true));
+		assertEquals(exit, Command.EXIT_TIMEOUT);
+		assertEquals(new String(error.toByteArray(), StandardCharsets.UTF_8), "Timed out after 100 ms\n");
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test(timeOut = 10_000L)
+	public void submit_cancel_interrupted() throws Exception
+	{
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		CompletableFuture<Integer> future = executor.submit(() -> {
+			started.countDown();
+			try {
+				Thread.sleep(60_000L);
+				return Command.EXIT_SUCCESS;
+			}
+			catch (InterruptedException ex) {
+				interrupted.countDown();
+				throw ex;
+			}
+		});
+		started.await();
+		future.cancel(true);
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+		assertTrue(future.isCancelled());
+	}
+}
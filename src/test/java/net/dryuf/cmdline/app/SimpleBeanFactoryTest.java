@@ -0,0 +1,178 @@
+package net.dryuf.cmdline.app;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Qualifier;
+import javax.inject.Singleton;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+
+public class SimpleBeanFactoryTest
+{
+	SimpleBeanFactory beans = new SimpleBeanFactory(ImmutableMap.of(
+		IntShared.class, ClassTwo.class,
+		ClassThree.class, ClassThree.class,
+		String.class, "root"
+	));
+
+	@Test
+	public void getBean_unbound_created()
+	{
+		Object o = beans.getBean(ClassOne.class);
+		assertThat(o, instanceOf(ClassOne.class));
+		assertThat(beans.getBean(ClassOne.class), not(sameInstance(o)));
+	}
+
+	@Test
+	public void getBean_boundImplementation_created()
+	{
+		Object o = beans.getBean(IntShared.class);
+		assertThat(o, instanceOf(ClassTwo.class));
+	}
+
+	@Test
+	public void getBean_singleton_same()
+	{
+		Object o = beans.getBean(ClassThree.class);
+		assertSame(beans.getBean(ClassThree.class), o);
+		assertSame(beans.createChild(ImmutableMap.of(String.class, "child")).getBean(ClassThree.class), o);
+	}
+
+	@Test
+	public void getBean_injected_resolvedFromChild()
+	{
+		BeanFactory child = beans.createChild(ImmutableMap.of(String.class, "child"))
+			.createChildQualified(Collections.singletonMap(
+				new AbstractMap.SimpleImmutableEntry<>(String.class, named("two")), "two"
+			));
+		Injected o = child.getBean(Injected.class);
+		assertEquals(o.value, "child");
+		assertThat(o.shared, instanceOf(ClassTwo.class));
+		assertEquals(o.named, "two");
+		assertSame(o.factory, child);
+		assertThat(o.provider.get(), instanceOf(ClassOne.class));
+	}
+
+	@Test
+	public void getBean_bindingType_getGeneric()
+	{
+		List<String> list = Collections.singletonList("generic");
+		BeanFactory child = beans.createChildAnnotated(Collections.singletonMap(
+			new AbstractMap.SimpleImmutableEntry<>(new BeanFactory.BindingType<List<String>>() {}.getType(), null), list
+		));
+		assertSame(child.getBean(new BeanFactory.BindingType<List<String>>() {}), list);
+	}
+
+	@Test
+	public void createChild_addingAnnotatedClassObject_getsNew()
+	{
+		ClassOne instanceTwo = new ClassOne();
+		ClassOne instanceThree = new ClassOne();
+		BeanFactory childs = beans.createChildAnnotated(ImmutableMap.of(
+			new AbstractMap.SimpleImmutableEntry<>(ClassOne.class, ResourceTwo.class), instanceTwo,
+			new AbstractMap.SimpleImmutableEntry<>(ClassOne.class, ResourceThree.class), instanceThree
+		));
+
+		assertSame(childs.getBean(ClassOne.class, ResourceTwo.class), instanceTwo);
+		assertSame(childs.getBean(ClassOne.class, ResourceThree.class), instanceThree);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void getBean_unboundInterface_fails()
+	{
+		beans.getBean(Runnable.class);
+	}
+
+	private static Named named(String value)
+	{
+		return new Named() {
+			@Override
+			public Class<? extends Annotation> annotationType()
+			{
+				return Named.class;
+			}
+
+			@Override
+			public String value()
+			{
+				return value;
+			}
+
+			@Override
+			public boolean equals(Object o)
+			{
+				return o instanceof Named && value.equals(((Named) o).value());
+			}
+
+			@Override
+			public int hashCode()
+			{
+				return (127*"value".hashCode())^value.hashCode();
+			}
+		};
+	}
+
+	private static interface IntShared
+	{
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Qualifier
+	private static @interface ResourceTwo {}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Qualifier
+	private static @interface ResourceThree {}
+
+	private static class ClassOne
+	{
+	}
+
+	private static class ClassTwo implements IntShared
+	{
+	}
+
+	@Singleton
+	private static class ClassThree
+	{
+	}
+
+	private static class Injected
+	{
+		final String value;
+
+		final IntShared shared;
+
+		final String named;
+
+		final BeanFactory factory;
+
+		final Provider<ClassOne> provider;
+
+		@Inject
+		Injected(String value, IntShared shared, @Named("two") String named, BeanFactory factory, Provider<ClassOne> provider)
+		{
+			this.value = value;
+			this.shared = shared;
+			this.named = named;
+			this.factory = factory;
+			this.provider = provider;
+		}
+	}
+}
@@ -4,12 +4,15 @@ import com.google.common.collect.ImmutableMap;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Key;
+import com.google.inject.ProvisionException;
 import com.google.inject.Provides;
 import com.google.inject.name.Names;
 import net.dryuf.cmdline.app.BeanFactory;
 import org.testng.annotations.Test;
 
+import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Qualifier;
 import javax.inject.Singleton;
 
@@ -17,16 +20,21 @@ import java.lang.annotation.Annotation;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 
 
 public class GuiceBeanFactoryTest
 {
 	GuiceBeanFactory beans = new GuiceBeanFactory(Guice.createInjector(new GuiceModule()));
 
+	GuiceBeanFactory sharedBeans = GuiceBeanFactory.sharingChildInjectors(Guice.createInjector(new GuiceModule()));
+
 	@Test
 	public void getBean_class_getClass()
 	{
@@ -60,6 +68,13 @@ public class GuiceBeanFactoryTest
 		assertThat(o3, instanceOf(NamedThree.class));
 	}
 
+	@Test
+	public void getBean_bindingType_getGeneric()
+	{
+		List<String> o = beans.getBean(new BeanFactory.BindingType<List<String>>() {});
+		assertEquals(o, Collections.singletonList("generic"));
+	}
+
 	@Test
 	public void createChild_addingClassClass_getsNew()
 	{
@@ -81,6 +96,74 @@ public class GuiceBeanFactoryTest
 		assertEquals(o, instance);
 	}
 
+	@Test
+	public void createChild_singletonDependingOnChildBean_rebuiltPerChild()
+	{
+		ChildOne first = new ChildOne();
+		ChildOne second = new ChildOne();
+		ChildSingleton firstSingleton = beans.createChild(ImmutableMap.of(ChildOne.class, first))
+			.getBean(ChildSingleton.class);
+		ChildSingleton secondSingleton = beans.createChild(ImmutableMap.of(ChildOne.class, second))
+			.getBean(ChildSingleton.class);
+		assertSame(firstSingleton.one, first);
+		assertSame(secondSingleton.one, second);
+	}
+
+	@Test
+	public void createChild_providerCalledLater_getsChildBean()
+	{
+		ChildOne instance = new ChildOne();
+		BeanFactory childs = beans.createChild(ImmutableMap.of(ChildOne.class, instance));
+		Provider<ChildOne> provider = childs.getBean(new BeanFactory.BindingType<Provider<ChildOne>>() {});
+		assertSame(provider.get(), instance);
+	}
+
+	@Test
+	public void createChild_nested_getsFromAllLevels()
+	{
+		ChildOne one = new ChildOne();
+		ChildTwo two = new ChildTwo();
+		BeanFactory childs = beans.createChild(ImmutableMap.of(ChildOne.class, one))
+			.createChild(ImmutableMap.of(ChildTwo.class, two));
+		ChildConsumer consumer = childs.getBean(ChildConsumer.class);
+		assertSame(consumer.one, one);
+		assertSame(consumer.two, two);
+	}
+
+	@Test
+	public void createChild_sharedSameKeys_reusesInjector()
+	{
+		GuiceBeanFactory first = (GuiceBeanFactory) sharedBeans.createChild(ImmutableMap.of(
+			ChildOne.class, new ChildOne()
+		));
+		ChildOne instance = new ChildOne();
+		GuiceBeanFactory second = (GuiceBeanFactory) sharedBeans.createChild(ImmutableMap.of(
+			ChildOne.class, instance
+		));
+		assertSame(second.getInjector(), first.getInjector());
+		assertEquals(second.getBean(ChildOne.class), instance);
+	}
+
+	@Test
+	public void createChild_sharedNested_getsFromAllLevels()
+	{
+		ChildOne one = new ChildOne();
+		ChildTwo two = new ChildTwo();
+		BeanFactory childs = sharedBeans.createChild(ImmutableMap.of(ChildOne.class, one))
+			.createChild(ImmutableMap.of(ChildTwo.class, two));
+		ChildConsumer consumer = childs.getBean(ChildConsumer.class);
+		assertSame(consumer.one, one);
+		assertSame(consumer.two, two);
+	}
+
+	@Test(expectedExceptions = ProvisionException.class)
+	public void createChild_sharedProviderOutOfScope_fails()
+	{
+		BeanFactory childs = sharedBeans.createChild(ImmutableMap.of(ChildOne.class, new ChildOne()));
+		Provider<ChildOne> provider = childs.getBean(new BeanFactory.BindingType<Provider<ChildOne>>() {});
+		provider.get();
+	}
+
 	@Test
 	public void createChild_addingAnnotatedClassObject_getsNew()
 	{
@@ -124,6 +207,12 @@ public class GuiceBeanFactoryTest
 			bind(Key.get(IntShared.class, ResourceThree.class)).to(ClassThree.class).in(Singleton.class);
 		}
 
+		@Provides
+		public List<String> genericList()
+		{
+			return Collections.singletonList("generic");
+		}
+
 		@Provides
 		@Singleton
 		@Named("two")
@@ -183,4 +272,30 @@ public class GuiceBeanFactoryTest
 	private static class ChildTwo implements IntChild
 	{
 	}
+
+	@Singleton
+	private static class ChildSingleton
+	{
+		final ChildOne one;
+
+		@Inject
+		ChildSingleton(ChildOne one)
+		{
+			this.one = one;
+		}
+	}
+
+	private static class ChildConsumer
+	{
+		final ChildOne one;
+
+		final ChildTwo two;
+
+		@Inject
+		ChildConsumer(ChildOne one, ChildTwo two)
+		{
+			this.one = one;
+			this.two = two;
+		}
+	}
 }
@@ -0,0 +1,42 @@
+package net.dryuf.cmdline.batch;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class ArgumentTokenizerTest
+{
+	@Test
+	public void tokenize_plain_split()
+	{
+		assertEquals(ArgumentTokenizer.tokenize("  door --door  front\topen "), Arrays.asList("door", "--door", "front", "open"));
+	}
+
+	@Test
+	public void tokenize_quoted_joined()
+	{
+		assertEquals(ArgumentTokenizer.tokenize("a' b 'c \"d \\\" e\" f\\ g ''"), Arrays.asList("a b c", "d \" e", "f g", ""));
+	}
+
+	@Test
+	public void tokenize_comment_skipped()
+	{
+		assertEquals(ArgumentTokenizer.tokenize("# comment\nfirst a#b # rest\nsecond"), Arrays.asList("first", "a#b", "second"));
+	}
+
+	@Test
+	public void tokenize_empty_empty()
+	{
+		assertEquals(ArgumentTokenizer.tokenize(" \n "), Collections.emptyList());
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void tokenize_unterminated_exception()
+	{
+		ArgumentTokenizer.tokenize("a \"b");
+	}
+}
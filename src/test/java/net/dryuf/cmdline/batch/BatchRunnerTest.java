@@ -0,0 +1,104 @@
+package net.dryuf.cmdline.batch;
+
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.SimpleBeanFactory;
+import net.dryuf.cmdline.command.AbstractCommand;
+import net.dryuf.cmdline.command.CommandContext;
+import net.dryuf.cmdline.command.CommandInvoker;
+import org.testng.annotations.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ListIterator;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class BatchRunnerTest
+{
+	CommandInvoker invoker = new CommandInvoker(new CommonAppContext(new SimpleBeanFactory()), "exit", ExitCommand.class);
+
+	@Test
+	public void run_lines_reported()
+	{
+		StringWriter report = new StringWriter();
+		int exit = run(new BatchRunner(invoker, BatchRunner.Format.LINES), "0\n\n# comment\n'3'\n0 1 2\n", report);
+		assertEquals(report.toString(), "1\t0\n4\t3\n5\t122\n");
+		assertEquals(exit, 3);
+	}
+
+	@Test
+	public void run_nul_reported()
+	{
+		StringWriter report = new StringWriter();
+		int exit = run(new BatchRunner(invoker, BatchRunner.Format.NUL), "0\0\0a b\0\0", report);
+		assertEquals(report.toString(), "1\t0\n2\t121\n");
+		assertEquals(exit, 121);
+	}
+
+	@Test(timeOut = 10_000L)
+	public void run_parallel_ordered()
+	{
+		StringBuilder input = new StringBuilder();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 1; i <= 100; ++i) {
+			input.append(i%7).append(" ").append(i%3).append("\n");
+			expected.append(i).append("\t").append(i%7).append("\n");
+		}
+		StringWriter report = new StringWriter();
+		run(new BatchRunner(invoker, BatchRunner.Format.LINES, 4), input.toString(), report);
+		assertEquals(report.toString(), expected.toString());
+	}
+
+	@Test(timeOut = 10_000L)
+	public void run_timeout_reported()
+	{
+		StringWriter report = new StringWriter();
+		int exit = run(new BatchRunner(invoker, BatchRunner.Format.LINES, 2, Duration.ofMillis(100)), "1 60000\n0\n", report);
+		assertEquals(report.toString(), "1\t124\n2\t0\n");
+		assertEquals(exit, 124);
+	}
+
+	private static int run(BatchRunner runner, String input, StringWriter report)
+	{
+		try {
+			return runner.run(new StringReader(input), report);
+		}
+		catch (Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	/**
+	 * Exits with code provided as first parameter, after sleeping number of milliseconds provided as optional second
+	 * parameter.
+	 */
+	public static class ExitCommand extends AbstractCommand
+	{
+		private int code;
+
+		private long sleep;
+
+		@Override
+		protected int parseNonOptions(CommandContext context, ListIterator<String> args) throws Exception
+		{
+			try {
+				code = Integer.parseInt(args.next());
+				if (args.hasNext())
+					sleep = Long.parseLong(args.next());
+			}
+			catch (NumberFormatException ex) {
+				return EXIT_FAILURE;
+			}
+			return super.parseNonOptions(context, args);
+		}
+
+		@Override
+		public int execute() throws Exception
+		{
+			Thread.sleep(sleep);
+			return code;
+		}
+	}
+}
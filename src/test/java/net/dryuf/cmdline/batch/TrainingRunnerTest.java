@@ -0,0 +1,86 @@
+package net.dryuf.cmdline.batch;
+
+import com.google.inject.Guice;
+import net.dryuf.cmdline.app.BeanFactory;
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.guice.GuiceBeanFactoryModule;
+import net.dryuf.cmdline.command.CommandInvoker;
+import net.dryuf.cmdline.test.homecontrol.HomeControlCommand;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.expectThrows;
+
+
+public class TrainingRunnerTest
+{
+	CommandInvoker invoker = new CommandInvoker(
+			new CommonAppContext(Guice.createInjector(new GuiceBeanFactoryModule()).getInstance(BeanFactory.class)),
+			"homecontrol",
+			HomeControlCommand.class
+	);
+
+	@Test(timeOut = 20_000L)
+	public void train_tree_allCommandsWalked() throws Exception
+	{
+		int count = runQuietly(() -> new TrainingRunner(invoker).train());
+		// homecontrol, help, door, door open, door close, sell, three invocations each
+		assertEquals(count, 18);
+	}
+
+	@Test(timeOut = 20_000L)
+	public void train_file_linesExecuted() throws Exception
+	{
+		Path file = Files.createTempFile("training", ".args");
+		try {
+			Files.write(file, "# comment\n--id my door --door front open\n\n--id my sell\n".getBytes(StandardCharsets.UTF_8));
+			int count = runQuietly(() -> new TrainingRunner(invoker).train(file));
+			assertEquals(count, 18+2);
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void train_malformedFile_exception() throws Exception
+	{
+		Path file = Files.createTempFile("training", ".args");
+		try {
+			Files.write(file, "sell\n'unterminated\n".getBytes(StandardCharsets.UTF_8));
+			IllegalArgumentException ex = expectThrows(IllegalArgumentException.class, () -> new TrainingRunner(invoker).train(file));
+			assertThat(ex.getMessage(), containsString(": Line 2: "));
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	private static int runQuietly(TrainingCall call) throws Exception
+	{
+		PrintStream error = System.err;
+		ByteArrayOutputStream captured = new ByteArrayOutputStream();
+		System.setErr(new PrintStream(captured, true));
+		try {
+			return call.run();
+		}
+		finally {
+			System.setErr(error);
+			assertEquals(captured.size(), 0, new String(captured.toByteArray(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@FunctionalInterface
+	private interface TrainingCall
+	{
+		int run() throws Exception;
+	}
+}
@@ -0,0 +1,212 @@
+package net.dryuf.cmdline.command;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Guice;
+import net.dryuf.cmdline.app.AppContext;
+import net.dryuf.cmdline.app.BeanFactory;
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.guice.GuiceBeanFactoryModule;
+import net.dryuf.cmdline.options.Option;
+import net.dryuf.cmdline.options.Parameter;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class AbstractCommandTest
+{
+	AppContext appContext = new CommonAppContext(Guice.createInjector(new GuiceBeanFactoryModule()).getInstance(BeanFactory.class));
+
+	ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+	@Test
+	public void parseOptions_attachedValues_parsed() throws Exception
+	{
+		OptionsCommand command = new OptionsCommand();
+		assertEquals(setup(command, "--name=first", "-tone", "-t", "two", "--tag=", "file"), Command.EXIT_CONTINUE);
+		assertEquals(command.options.name, "first");
+		assertEquals(command.options.tags, ImmutableList.of("one", "two", ""));
+		assertEquals(command.options.files, ImmutableList.of("file"));
+	}
+
+	@Test
+	public void parseOptions_cluster_parsed() throws Exception
+	{
+		OptionsCommand command = new OptionsCommand();
+		assertEquals(setup(command, "-vqnname", "-vt", "tag"), Command.EXIT_CONTINUE);
+		assertTrue(command.options.verbose);
+		assertTrue(command.options.quiet);
+		assertEquals(command.options.name, "name");
+		assertEquals(command.options.tags, ImmutableList.of("tag"));
+	}
+
+	@Test
+	public void parseOptions_negativeNumbers_parameters() throws Exception
+	{
+		OptionsCommand command = new OptionsCommand();
+		assertEquals(setup(command, "-n", "-1", "-5", "-2.5"), Command.EXIT_CONTINUE);
+		assertEquals(command.options.name, "-1");
+		assertFalse(command.options.verbose);
+		assertEquals(command.options.files, ImmutableList.of("-5", "-2.5"));
+	}
+
+	@Test
+	public void parseOptions_invalidCombined_usage() throws Exception
+	{
+		assertEquals(setup(new OptionsCommand(), "--verbose=yes"), Command.EXIT_USAGE);
+		assertThat(errorText(), startsWith("Option --verbose=yes: option does not take a value\n"));
+
+		assertEquals(setup(new OptionsCommand(), "-vx"), Command.EXIT_USAGE);
+		assertThat(errorText(), startsWith("Option -vx: unknown option -x\n"));
+
+		assertEquals(setup(new OptionsCommand(), "--nmae=value"), Command.EXIT_USAGE);
+		assertThat(errorText(), startsWith("Unknown option: --nmae\nDid you mean: --name\n"));
+	}
+
+	@Test
+	public void parseOptions_combinedDisabled_unknown() throws Exception
+	{
+		assertEquals(setup(new OptionsCommand() {
+			@Override
+			protected boolean configCombinedOptions(CommandContext context)
+			{
+				return false;
+			}
+		}, "-vq"), Command.EXIT_USAGE);
+		assertThat(errorText(), startsWith("Unknown option: -vq\n"));
+	}
+
+	@Test
+	public void parseOptions_typedValues_converted() throws Exception
+	{
+		TypedCommand command = new TypedCommand();
+		assertEquals(setup(command, "--count=3", "-n", "-1", "-5", "-2.5", "1"), Command.EXIT_CONTINUE);
+		assertEquals(command.options.count, 3);
+		assertEquals(command.options.name, "-1");
+		assertEquals(command.options.numbers, ImmutableList.of(-5.0, -2.5, 1.0));
+	}
+
+	@Test
+	public void parseOptions_invalidTyped_usage() throws Exception
+	{
+		assertEquals(setup(new TypedCommand(), "--count=many"), Command.EXIT_USAGE);
+		assertThat(errorText(), startsWith("Option --count=many: invalid integer: many\n"));
+
+		assertEquals(setup(new TypedCommand(), "-c", "2", "-3", "x"), Command.EXIT_USAGE);
+		assertThat(errorText(), startsWith("Parameter numbers...: invalid number: x\n"));
+	}
+
+	@Test
+	public void setup_argumentFile_streamed() throws Exception
+	{
+		TypedCommand command = new FileOptionsCommand();
+		assertEquals(setup(command, "-v", "@"+ArgumentFileExpanderTest.createFile("--name=file 1 2\n3"), "4"), Command.EXIT_CONTINUE);
+		assertTrue(command.options.verbose);
+		assertEquals(command.options.name, "file");
+		assertEquals(command.options.numbers, ImmutableList.of(1.0, 2.0, 3.0, 4.0));
+
+		assertEquals(setup(new FileOptionsCommand(), "@/nonexistent/args"), Command.EXIT_USAGE);
+		assertThat(errorText(), startsWith("Cannot read argument file /nonexistent/args: NoSuchFileException\n"));
+
+		assertEquals(setup(new TypedCommand(), "@/nonexistent/args"), Command.EXIT_USAGE);
+		assertThat(errorText(), startsWith("Parameter numbers...: invalid number: @/nonexistent/args\n"));
+	}
+
+	private int setup(Command command, String... args) throws Exception
+	{
+		error.reset();
+		CommandContext context = new RootCommandContext(appContext, System.out, new PrintStream(error, true))
+				.createChild(null, "options", null);
+		return command.setup(context, ArgumentCursor.of(args));
+	}
+
+	private String errorText()
+	{
+		return new String(error.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	public static class OptionsCommand extends AbstractCommand
+	{
+		Options options = new Options();
+
+		@Override
+		protected Object getOptionsBean()
+		{
+			return options;
+		}
+
+		@Override
+		public int execute() throws Exception
+		{
+			return EXIT_SUCCESS;
+		}
+	}
+
+	public static class TypedCommand extends AbstractCommand
+	{
+		TypedOptions options = new TypedOptions();
+
+		@Override
+		protected Object getOptionsBean()
+		{
+			return options;
+		}
+
+		@Override
+		public int execute() throws Exception
+		{
+			return EXIT_SUCCESS;
+		}
+	}
+
+	public static class FileOptionsCommand extends TypedCommand
+	{
+		@Override
+		protected boolean configArgumentFiles(CommandContext context)
+		{
+			return true;
+		}
+	}
+
+	public static class Options
+	{
+		@Option(value = { "-n", "--name" }, valueName = "name", description = "name of item")
+		String name;
+
+		@Option(value = { "-v", "--verbose" }, description = "verbose output")
+		boolean verbose;
+
+		@Option(value = { "-q", "--quiet" }, description = "quiet output")
+		boolean quiet;
+
+		@Option(value = { "-t", "--tag" }, description = "tags")
+		List<String> tags;
+
+		@Parameter(value = "files...", description = "files", required = false)
+		List<String> files;
+	}
+
+	public static class TypedOptions
+	{
+		@Option(value = { "-n", "--name" }, valueName = "name", description = "name of item")
+		String name;
+
+		@Option(value = { "-v", "--verbose" }, description = "verbose output")
+		boolean verbose;
+
+		@Option(value = { "-c", "--count" }, description = "count")
+		int count;
+
+		@Parameter(value = "numbers...", description = "numbers", required = false)
+		List<Double> numbers;
+	}
+}
@@ -0,0 +1,239 @@
+package net.dryuf.cmdline.command;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Guice;
+import net.dryuf.cmdline.app.BeanFactory;
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.guice.GuiceBeanFactoryModule;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class AbstractParentCommandTest
+{
+	CommandInvoker invoker = new CommandInvoker(
+			new CommonAppContext(Guice.createInjector(new GuiceBeanFactoryModule()).getInstance(BeanFactory.class)),
+			"counting",
+			CountingParentCommand.class
+	);
+
+	@Test
+	public void setup_repeated_configSubCommandsCalledOnce() throws Exception
+	{
+		for (int i = 0; i < 3; ++i) {
+			assertEquals(invoker.invoke(ImmutableList.of("leaf")), Command.EXIT_SUCCESS);
+		}
+		assertEquals(invoker.invoke(ImmutableList.of("unknown")), Command.EXIT_USAGE);
+		assertEquals(CountingParentCommand.CONFIG_CALLS.get(), 1);
+	}
+
+	@Test
+	public void setup_abbreviated_resolved() throws Exception
+	{
+		CommandInvoker abbreviating = new CommandInvoker(invoker.getAppContext(), "abbrev", AbbreviatingParentCommand.class);
+		ByteArrayOutputStream error = new ByteArrayOutputStream();
+		assertEquals(abbreviating.invoke(ImmutableList.of("--ve", "le"), System.out, new PrintStream(error, true)), Command.EXIT_SUCCESS);
+		assertEquals(abbreviating.invoke(ImmutableList.of("lis"), System.out, new PrintStream(error, true)), Command.EXIT_SUCCESS);
+		assertEquals(error.size(), 0);
+
+		assertEquals(abbreviating.invoke(ImmutableList.of("l"), System.out, new PrintStream(error, true)), Command.EXIT_USAGE);
+		assertThat(new String(error.toByteArray(), StandardCharsets.UTF_8), startsWith(
+				"Unknown option or command: l\nAmbiguous, matches: leaf, list\n"));
+	}
+
+	@Test
+	public void setup_misspelled_suggested() throws Exception
+	{
+		ByteArrayOutputStream error = new ByteArrayOutputStream();
+		assertEquals(invoker.invoke(ImmutableList.of("lef"), System.out, new PrintStream(error, true)), Command.EXIT_USAGE);
+		assertThat(new String(error.toByteArray(), StandardCharsets.UTF_8), startsWith(
+				"Unknown option or command: lef\nDid you mean: leaf\n"));
+
+		error.reset();
+		CommandInvoker abbreviating = new CommandInvoker(invoker.getAppContext(), "abbrev", AbbreviatingParentCommand.class);
+		assertEquals(abbreviating.invoke(ImmutableList.of("--verbsoe", "leaf"), System.out, new PrintStream(error, true)), Command.EXIT_USAGE);
+		assertThat(new String(error.toByteArray(), StandardCharsets.UTF_8), startsWith(
+				"Unknown option: --verbsoe\nDid you mean: --verbose\n"));
+	}
+
+	@Test
+	public void setup_legacyListOverride_receivesRemaining() throws Exception
+	{
+		CommandInvoker legacy = new CommandInvoker(invoker.getAppContext(), "legacy", LegacyParentCommand.class);
+		assertEquals(legacy.invoke(ImmutableList.of("leaf", "one", "two")), Command.EXIT_SUCCESS);
+		assertEquals(LegacyLeafCommand.ARGS.get(), ImmutableList.of("one", "two"));
+	}
+
+	@Test
+	public void setup_argumentFile_remainingPassed() throws Exception
+	{
+		CommandInvoker files = new CommandInvoker(invoker.getAppContext(), "files", FilesParentCommand.class);
+		assertEquals(files.invoke(ImmutableList.of("@"+ArgumentFileExpanderTest.createFile("leaf one"), "two")), Command.EXIT_SUCCESS);
+		assertEquals(LegacyLeafCommand.ARGS.get(), ImmutableList.of("one", "two"));
+	}
+
+	@Test
+	public void setup_lazyEntries_onlySelectedLoaded() throws Exception
+	{
+		CommandInvoker lazy = new CommandInvoker(invoker.getAppContext(), "lazy", LazyParentCommand.class);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		assertEquals(lazy.invoke(ImmutableList.of("leaf")), Command.EXIT_SUCCESS);
+		assertEquals(lazy.invoke(ImmutableList.of("help"), new PrintStream(output, true), System.err), Command.EXIT_SUCCESS);
+		assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8), containsString("lazy    Lazily loaded"));
+		assertEquals(lazy.invoke(ImmutableList.of("--help"), new PrintStream(output, true), System.err), Command.EXIT_SUCCESS);
+		assertFalse(LAZY_INITIALIZED.get());
+
+		assertEquals(lazy.invoke(ImmutableList.of("lazy")), Command.EXIT_SUCCESS);
+		assertTrue(LAZY_INITIALIZED.get());
+		assertEquals(lazy.invoke(ImmutableList.of("supplied")), Command.EXIT_SUCCESS);
+	}
+
+	static final AtomicBoolean LAZY_INITIALIZED = new AtomicBoolean();
+
+	public static class LazyParentCommand extends AbstractParentCommand
+	{
+		@Override
+		protected Map<String, SubCommandEntry> configSubCommandEntries(CommandContext context)
+		{
+			return ImmutableMap.of(
+					"help", SubCommandEntry.of(HelpOfHelpCommand.class),
+					"leaf", SubCommandEntry.of(LeafCommand.class),
+					"lazy", SubCommandEntry.of(AbstractParentCommandTest.class.getName()+"$LazyLoadedCommand", getClass().getClassLoader()),
+					"supplied", SubCommandEntry.of(() -> LeafCommand.class)
+			);
+		}
+
+		@Override
+		protected Map<String, String> configCommandsDescription(CommandContext context)
+		{
+			return ImmutableMap.of(
+					"leaf", "Leaf",
+					"lazy", "Lazily loaded"
+			);
+		}
+	}
+
+	public static class LazyLoadedCommand extends LeafCommand
+	{
+		static {
+			LAZY_INITIALIZED.set(true);
+		}
+	}
+
+	public static class FilesParentCommand extends LegacyParentCommand
+	{
+		@Override
+		protected boolean configArgumentFiles(CommandContext context)
+		{
+			return true;
+		}
+	}
+
+	public static class AbbreviatingParentCommand extends AbstractParentCommand
+	{
+		boolean verbose;
+
+		@Override
+		protected Map<String, Class<? extends Command>> configSubCommands(CommandContext context)
+		{
+			return ImmutableMap.of(
+					"help", HelpOfHelpCommand.class,
+					"leaf", LeafCommand.class,
+					"list", LeafCommand.class
+			);
+		}
+
+		@Override
+		protected Map<String, String> configOptionsDescription(CommandContext context)
+		{
+			return ImmutableMap.of("--verbose", "verbose output");
+		}
+
+		@Override
+		protected boolean configAbbreviations(CommandContext context)
+		{
+			return true;
+		}
+
+		@Override
+		protected boolean parseOption(CommandContext context, String arg, ListIterator<String> args) throws Exception
+		{
+			if (arg.equals("--verbose")) {
+				verbose = true;
+				return true;
+			}
+			return super.parseOption(context, arg, args);
+		}
+	}
+
+	public static class CountingParentCommand extends AbstractParentCommand
+	{
+		static final AtomicInteger CONFIG_CALLS = new AtomicInteger();
+
+		@Override
+		protected Map<String, Class<? extends Command>> configSubCommands(CommandContext context)
+		{
+			CONFIG_CALLS.incrementAndGet();
+			return ImmutableMap.of(
+					"help", HelpOfHelpCommand.class,
+					"leaf", LeafCommand.class
+			);
+		}
+	}
+
+	public static class LegacyParentCommand extends AbstractParentCommand
+	{
+		@Override
+		protected Map<String, Class<? extends Command>> configSubCommands(CommandContext context)
+		{
+			return ImmutableMap.of(
+					"help", HelpOfHelpCommand.class,
+					"leaf", LegacyLeafCommand.class
+			);
+		}
+	}
+
+	public static class LegacyLeafCommand extends AbstractCommand
+	{
+		static final AtomicReference<List<String>> ARGS = new AtomicReference<>();
+
+		@Override
+		public int setup(CommandContext context, List<String> args) throws Exception
+		{
+			ARGS.set(ImmutableList.copyOf(args));
+			return EXIT_CONTINUE;
+		}
+
+		@Override
+		public int execute() throws Exception
+		{
+			return EXIT_SUCCESS;
+		}
+	}
+
+	public static class LeafCommand extends AbstractCommand
+	{
+		@Override
+		public int execute() throws Exception
+		{
+			return EXIT_SUCCESS;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package net.dryuf.cmdline.command;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.expectThrows;
+
+
+public class ArgumentCursorTest
+{
+	@Test
+	public void consume_all_endReached()
+	{
+		ArgumentCursor cursor = ArgumentCursor.of("a", "b");
+		assertEquals(cursor.peek(), "a");
+		assertEquals(cursor.consume(), "a");
+		assertEquals(cursor.next(), "b");
+		assertFalse(cursor.hasNext());
+		assertNull(cursor.peek());
+		expectThrows(NoSuchElementException.class, cursor::consume);
+		assertEquals(cursor.previous(), "b");
+		assertEquals(cursor.nextIndex(), 1);
+	}
+
+	@Test
+	public void reset_marked_returns()
+	{
+		ArgumentCursor cursor = ArgumentCursor.of("a", "b", "c");
+		cursor.consume();
+		int mark = cursor.mark();
+		cursor.consume();
+		cursor.consume();
+		cursor.reset(mark);
+		assertEquals(cursor.consume(), "b");
+		expectThrows(IllegalArgumentException.class, () -> cursor.reset(4));
+	}
+
+	@Test
+	public void fork_remaining_relativeIndexes()
+	{
+		ArgumentCursor cursor = ArgumentCursor.of("a", "b", "c");
+		cursor.consume();
+		ArgumentCursor fork = cursor.fork();
+		assertEquals(fork.nextIndex(), 0);
+		assertFalse(fork.hasPrevious());
+		assertEquals(fork.remainingCount(), 2);
+		assertEquals(fork.consume(), "b");
+		assertEquals(cursor.peek(), "b");
+	}
+
+	@Test
+	public void remaining_view_sharesArguments()
+	{
+		ArgumentCursor cursor = ArgumentCursor.of("a", "b", "c");
+		cursor.consume();
+		List<String> remaining = cursor.remaining();
+		cursor.consume();
+		assertEquals(remaining, ImmutableList.of("b", "c"));
+		assertEquals(remaining.subList(1, 2), ImmutableList.of("c"));
+
+		ArgumentCursor again = ArgumentCursor.of(remaining.subList(1, 2));
+		assertEquals(again.consume(), "c");
+		assertFalse(again.hasNext());
+		expectThrows(UnsupportedOperationException.class, () -> again.set("x"));
+	}
+}
@@ -0,0 +1,78 @@
+package net.dryuf.cmdline.command;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.expectThrows;
+
+
+public class ArgumentFileExpanderTest
+{
+	@Test
+	public void next_files_expanded() throws IOException
+	{
+		Path file = createFile("--name 'two words'\n# comment\nčeský \"x\\\"y\"\n");
+		Path empty = createFile("");
+		ArgumentFileExpander expander = new ArgumentFileExpander(ArgumentCursor.of("a", "@"+file, "@"+empty, "@@b", "c"));
+		assertEquals(drain(expander), ImmutableList.of("a", "--name", "two words", "český", "x\"y", "@b", "c"));
+	}
+
+	@Test
+	public void next_largeFile_mapped() throws IOException
+	{
+		StringBuilder content = new StringBuilder();
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; content.length() < 2*ArgumentFileExpander.MAP_THRESHOLD; ++i) {
+			content.append("id-").append(i).append('\n');
+			expected.add("id-"+i);
+		}
+		ArgumentFileExpander expander = new ArgumentFileExpander(ArgumentCursor.of("@"+createFile(content.toString())));
+		assertEquals(drain(expander), expected);
+	}
+
+	@Test
+	public void previous_singleStep_returnsLast() throws IOException
+	{
+		ArgumentFileExpander expander = new ArgumentFileExpander(ArgumentCursor.of("@"+createFile("a b"), "c"));
+		assertEquals(expander.next(), "a");
+		assertEquals(expander.previous(), "a");
+		expectThrows(java.util.NoSuchElementException.class, expander::previous);
+		assertEquals(expander.next(), "a");
+		assertEquals(expander.nextIndex(), 1);
+		assertEquals(expander.remaining().remaining(), ImmutableList.of("b", "c"));
+	}
+
+	@Test
+	public void next_missingFile_fails()
+	{
+		ArgumentFileExpander expander = new ArgumentFileExpander(ArgumentCursor.of("@/nonexistent/args"));
+		assertEquals(expectThrows(ArgumentFileExpander.ArgumentFileException.class, expander::hasNext).getMessage(),
+				"Cannot read argument file /nonexistent/args: NoSuchFileException");
+	}
+
+	static Path createFile(String content) throws IOException
+	{
+		Path file = Files.createTempFile("args", ".txt");
+		file.toFile().deleteOnExit();
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private static List<String> drain(ArgumentFileExpander expander)
+	{
+		List<String> result = new ArrayList<>();
+		while (expander.hasNext())
+			result.add(expander.next());
+		assertFalse(expander.hasNext());
+		return result;
+	}
+}
@@ -0,0 +1,86 @@
+package net.dryuf.cmdline.command;
+
+import com.google.common.collect.ImmutableMap;
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.SimpleBeanFactory;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+
+public class AsyncCommandTest
+{
+	CommandInvoker invoker = new CommandInvoker(new CommonAppContext(new SimpleBeanFactory()), "parent", ParentCommand.class);
+
+	@Test(timeOut = 10_000L)
+	public void executeAsync_asyncChild_notBlocking() throws Exception
+	{
+		AsyncChildCommand.pending = new CompletableFuture<>();
+		CompletableFuture<Integer> result = invoker.invokeAsync(Collections.singletonList("async"), System.out, System.err)
+				.toCompletableFuture();
+		assertFalse(result.isDone());
+		AsyncChildCommand.pending.complete(5);
+		assertEquals(result.get(5, TimeUnit.SECONDS).intValue(), 5);
+	}
+
+	@Test(timeOut = 10_000L)
+	public void executeAsync_syncChild_executed() throws Exception
+	{
+		assertEquals(invoker.invokeAsync(Collections.singletonList("sync"), System.out, System.err)
+				.toCompletableFuture().get(5, TimeUnit.SECONDS).intValue(), 7);
+	}
+
+	@Test(timeOut = 10_000L)
+	public void execute_asyncChild_waits() throws Exception
+	{
+		AsyncChildCommand.pending = CompletableFuture.completedFuture(3);
+		assertEquals(invoker.invoke(Collections.singletonList("async")), 3);
+	}
+
+	@Test(timeOut = 10_000L)
+	public void of_syncCommand_adapted() throws Exception
+	{
+		AsyncCommand command = AsyncCommand.of(new SyncChildCommand(), invoker.getAppContext().getCommandExecutor());
+		assertEquals(command.executeAsync().toCompletableFuture().get().intValue(), 7);
+		assertEquals(command.execute(), 7);
+	}
+
+	public static class ParentCommand extends AbstractParentCommand
+	{
+		@Override
+		protected Map<String, Class<? extends Command>> configSubCommands(CommandContext context)
+		{
+			return ImmutableMap.of(
+					"async", AsyncChildCommand.class,
+					"sync", SyncChildCommand.class
+			);
+		}
+	}
+
+	public static class AsyncChildCommand extends AbstractCommand implements AsyncCommand
+	{
+		static volatile CompletableFuture<Integer> pending;
+
+		@Override
+		public CompletionStage<Integer> executeAsync()
+		{
+			return pending;
+		}
+	}
+
+	public static class SyncChildCommand extends AbstractCommand
+	{
+		@Override
+		public int execute()
+		{
+			return 7;
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package net.dryuf.cmdline.command;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Guice;
+import net.dryuf.cmdline.app.BeanFactory;
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.guice.GuiceBeanFactoryModule;
+import net.dryuf.cmdline.test.homecontrol.HomeControlCommand;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.assertEquals;
+
+
+public class CommandInvokerTest
+{
+	CommandInvoker invoker = new CommandInvoker(
+			new CommonAppContext(Guice.createInjector(new GuiceBeanFactoryModule()).getInstance(BeanFactory.class)),
+			"homecontrol",
+			HomeControlCommand.class
+	);
+
+	@Test
+	public void invoke_ownStreams_captured() throws Exception
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ByteArrayOutputStream error = new ByteArrayOutputStream();
+		int exit = invoker.invoke(ImmutableList.of("help", "door"), new PrintStream(output, true), new PrintStream(error, true));
+		assertEquals(exit, Command.EXIT_SUCCESS);
+		assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8), startsWith("Usage: homecontrol door "));
+		assertEquals(error.size(), 0);
+
+		output.reset();
+		exit = invoker.invoke(ImmutableList.of("--id", "my", "door"), new PrintStream(output, true), new PrintStream(error, true));
+		assertEquals(exit, Command.EXIT_USAGE);
+		assertEquals(output.size(), 0);
+		assertThat(new String(error.toByteArray(), StandardCharsets.UTF_8), startsWith("Missing subcommand."));
+	}
+
+	@Test(timeOut = 20_000L)
+	public void invoke_concurrent_isolated() throws Exception
+	{
+		OutputRouter.install();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 400; ++i) {
+				int id = i;
+				results.add(executor.submit(() -> {
+					ByteArrayOutputStream output = new ByteArrayOutputStream();
+					PrintStream stream = new PrintStream(output, true);
+					// sell writes to System.out, door to context output:
+					int exit = invoker.invoke(id%2 == 0 ?
+									ImmutableList.of("--id", "my", "door", "--door", "d"+id, "open") :
+									ImmutableList.of("--id", "my", "sell"),
+							stream, stream);
+					assertEquals(exit, Command.EXIT_SUCCESS);
+					return new String(output.toByteArray(), StandardCharsets.UTF_8);
+				}));
+			}
+			for (int i = 0; i < results.size(); ++i) {
+				assertEquals(results.get(i).get(), i%2 == 0 ? "Door open: d"+i+"\n" : "Home sold\n");
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test(timeOut = 20_000L)
+	public void invoke_routedSystemStreams_notLooping() throws Exception
+	{
+		OutputRouter.install();
+		int exit = invoker.invoke(ImmutableList.of("--id", "my", "sell"), System.out, System.err);
+		assertEquals(exit, Command.EXIT_SUCCESS);
+	}
+}
@@ -0,0 +1,89 @@
+package net.dryuf.cmdline.command;
+
+import com.google.common.collect.ImmutableList;
+import net.dryuf.cmdline.app.AppContext;
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.SimpleBeanFactory;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+
+public class CommandPathTest
+{
+	@Test
+	public void child_segments_joined()
+	{
+		CommandPath path = CommandPath.ROOT.child("homecontrol").child(null).child("door");
+		assertEquals(path.getDepth(), 2);
+		assertEquals(path.getSegments(), ImmutableList.of("homecontrol", "door"));
+		assertEquals(path.getSegment(1), "door");
+		assertEquals(path.getLastSegment(), "door");
+		assertEquals(path.getJoined(), "homecontrol door ");
+		assertEquals(path.toString(), "homecontrol door");
+		assertEquals(path, CommandPath.of("homecontrol", "door"));
+		assertEquals(path.hashCode(), CommandPath.of("homecontrol", "door").hashCode());
+	}
+
+	@Test
+	public void root_empty()
+	{
+		assertEquals(CommandPath.ROOT.getDepth(), 0);
+		assertNull(CommandPath.ROOT.getLastSegment());
+		assertEquals(CommandPath.ROOT.getJoined(), "");
+		assertEquals(CommandPath.ROOT.toString(), "");
+		assertSame(CommandPath.of(), CommandPath.ROOT);
+	}
+
+	@Test
+	public void context_path_cached()
+	{
+		CommandContext root = new RootCommandContext(new CommonAppContext(new SimpleBeanFactory()));
+		CommandContext context = root.createChild(null, "homecontrol", null).createChild(null, "door", null);
+		assertEquals(context.getCommandPath(), "homecontrol door ");
+		assertSame(context.getCommandPath(), context.getCommandPath());
+		assertSame(context.getPath().toString(), context.getPath().toString());
+		assertEquals(context.getDepth(), 2);
+		assertEquals(root.getDepth(), 0);
+		assertEquals(root.getCommandPath(), "");
+	}
+
+	@Test
+	public void context_customParent_parsed()
+	{
+		CommandContext root = new RootCommandContext(new CommonAppContext(new SimpleBeanFactory()));
+		CommandContext custom = new CommandContext()
+		{
+			@Override
+			public AppContext getAppContext()
+			{
+				return root.getAppContext();
+			}
+
+			@Override
+			public CommandContext getParentContext()
+			{
+				return root;
+			}
+
+			@Override
+			public String getCommandPath()
+			{
+				return "tool sub ";
+			}
+
+			@Override
+			public CommandContext createChild(Command command, String commandName, Map<Class<?>, Object> beans)
+			{
+				return new ChildCommandContext(this, command, commandName);
+			}
+		};
+		CommandContext child = custom.createChild(null, "leaf", null);
+		assertEquals(child.getPath().getSegments(), ImmutableList.of("tool", "sub", "leaf"));
+		assertEquals(child.getCommandPath(), "tool sub leaf ");
+	}
+}
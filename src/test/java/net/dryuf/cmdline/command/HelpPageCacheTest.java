@@ -0,0 +1,89 @@
+package net.dryuf.cmdline.command;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.SimpleBeanFactory;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class HelpPageCacheTest
+{
+	CommandInvoker invoker = new CommandInvoker(new CommonAppContext(new SimpleBeanFactory()), "cached", CachedCommand.class);
+
+	@Test
+	public void helpThis_repeated_renderedOnce() throws Exception
+	{
+		HelpPageCache.invalidate(CachedCommand.class);
+		CachedCommand.RENDERS.set(0);
+		String first = invokeHelp("--help");
+		assertEquals(invokeHelp("--help"), first);
+		assertEquals(CachedCommand.RENDERS.get(), 1);
+		assertEquals(first, "" +
+				"Usage: cached options... \n" +
+				"\n" +
+				"Options:\n" +
+				"--name value    name of something\n"
+		);
+
+		HelpPageCache.invalidate(CachedCommand.class);
+		assertEquals(invokeHelp("-h"), first);
+		assertEquals(CachedCommand.RENDERS.get(), 2);
+	}
+
+	@Test
+	public void get_differentWidth_renderedSeparately()
+	{
+		AtomicInteger renders = new AtomicInteger();
+		HelpPageCache.Renderer renderer = help -> {
+			renders.incrementAndGet();
+			help.table(ImmutableMap.of("--name", "long description wrapped at different width"));
+		};
+		String narrow = HelpPageCache.get(CachedCommand.class, HelpPageCache.Page.HELP, "test ", 30, renderer);
+		String wide = HelpPageCache.get(CachedCommand.class, HelpPageCache.Page.HELP, "test ", 80, renderer);
+		assertEquals(HelpPageCache.get(CachedCommand.class, HelpPageCache.Page.HELP, "test ", 30, renderer), narrow);
+		assertEquals(renders.get(), 2);
+		assertEquals(narrow, "--name    long description\n          wrapped at different\n          width\n");
+		assertEquals(wide, "--name    long description wrapped at different width\n");
+	}
+
+	private String invokeHelp(String argument) throws Exception
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		assertEquals(invoker.invoke(ImmutableList.of(argument), new PrintStream(output, true, "UTF-8"), System.err),
+				Command.EXIT_SUCCESS);
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	public static class CachedCommand extends AbstractCommand
+	{
+		static final AtomicInteger RENDERS = new AtomicInteger();
+
+		@Override
+		protected Map<String, String> configOptionsDescription(CommandContext context)
+		{
+			RENDERS.incrementAndGet();
+			return ImmutableMap.of("--name value", "name of something");
+		}
+
+		@Override
+		protected int configHelpWidth(CommandContext context)
+		{
+			return 80;
+		}
+
+		@Override
+		public int execute() throws Exception
+		{
+			return EXIT_SUCCESS;
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package net.dryuf.cmdline.command;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.text.WordUtils;
+import org.testng.annotations.Test;
+
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class HelpRendererTest
+{
+	@Test
+	public void table_wrapping_indentsNextLines() throws Exception
+	{
+		StringBuilder output = new StringBuilder();
+		new HelpRenderer(output, 33).table(ImmutableMap.of(
+				"open", "Opens door, provide some long description",
+				"close", "Close door"
+		));
+		assertEquals(output.toString(), "" +
+				"open     Opens door, provide some\n" +
+				"         long description\n" +
+				"close    Close door\n"
+		);
+	}
+
+	@Test
+	public void table_newLines_keptAndIndented() throws Exception
+	{
+		StringWriter output = new StringWriter();
+		new HelpRenderer(output, 80).table(ImmutableMap.of(
+				"--id", "first\n\nsecond\n",
+				"--empty", ""
+		));
+		assertEquals(output.toString(), "" +
+				"--id       first\n" +
+				"\n" +
+				"           second\n" +
+				"--empty    \n"
+		);
+	}
+
+	@Test
+	public void table_random_sameAsWordUtils() throws Exception
+	{
+		Random random = new Random(0);
+		for (int round = 0; round < 1000; ++round) {
+			Map<String, String> entries = new LinkedHashMap<>();
+			for (int i = random.nextInt(5); i >= 0; --i)
+				entries.put(randomText(random, 1, 20).replace(' ', '-'), randomText(random, 1, 200).trim());
+			int width = 20+random.nextInt(80);
+			StringBuilder output = new StringBuilder();
+			new HelpRenderer(output, width).table(entries);
+			assertEquals(output.toString(), formatWordUtils(entries, width), "Entries: "+entries);
+		}
+	}
+
+	@Test
+	public void line_terminated_notDuplicated() throws Exception
+	{
+		StringBuilder output = new StringBuilder();
+		new HelpRenderer(output, 80).line("a").line("b\n").line("").joined(ImmutableMap.of("x", 1, "y", 2).keySet(), " ");
+		assertEquals(output.toString(), "a\nb\nx y");
+	}
+
+	private static String randomText(Random random, int min, int max)
+	{
+		StringBuilder text = new StringBuilder();
+		for (int i = min+random.nextInt(max-min); i > 0; --i)
+			text.append(random.nextInt(6) == 0 ? ' ' : (char) ('a'+random.nextInt(26)));
+		return text.toString();
+	}
+
+	/** Original String based formatting. */
+	private static String formatWordUtils(Map<String, String> options, int width)
+	{
+		int leftLength = options.keySet().stream().mapToInt(String::length).reduce(Math::max).orElse(0)+4;
+		int rightLength = width-leftLength;
+		return options.entrySet().stream()
+				.map(e -> String.format("%-"+leftLength+"s%s", e.getKey(),
+						WordUtils.wrap(e.getValue(), rightLength).replaceAll("\n(.)", String.format("\n%"+leftLength+"s$1", ""))+"\n"))
+				.collect(Collectors.joining());
+	}
+}
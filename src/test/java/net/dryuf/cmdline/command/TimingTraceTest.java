@@ -0,0 +1,168 @@
+package net.dryuf.cmdline.command;
+
+import com.google.common.collect.ImmutableList;
+import net.dryuf.cmdline.app.BeanFactory;
+import net.dryuf.cmdline.app.CommandExecutor;
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.LifecycleListener;
+import net.dryuf.cmdline.app.guice.GuiceBeanFactory;
+import net.dryuf.cmdline.test.homecontrol.HomeControlCommand;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.assertEquals;
+
+
+public class TimingTraceTest
+{
+	@Test
+	public void invoke_listener_phasesReported() throws Exception
+	{
+		List<String> phases = new ArrayList<>();
+		LifecycleListener listener = (context, phase, startNanos, durationNanos) -> {
+			synchronized (phases) {
+				phases.add(phase.getDisplayName()+" "+(context == null ? "" : context.getCommandPath().trim()));
+			}
+		};
+		BeanFactory beanFactory = GuiceBeanFactory.create(listener);
+		CommandInvoker invoker = new CommandInvoker(new CommonAppContext(beanFactory, CommandExecutor.getDefault(), listener),
+				"homecontrol", HomeControlCommand.class);
+
+		int exit = invoker.invoke(ImmutableList.of("--id", "my", "door", "--door", "front", "open"),
+				new PrintStream(new ByteArrayOutputStream(), true), System.err);
+		assertEquals(exit, 0);
+		assertThat(phases, hasItems(
+				"bean-factory ",
+				"initialize homecontrol",
+				"parse-options homecontrol",
+				"validate-options homecontrol",
+				"create-child homecontrol door",
+				"initialize homecontrol door",
+				"create-child homecontrol door open",
+				"execute homecontrol door open",
+				"execute homecontrol"
+		));
+
+		phases.clear();
+		exit = invoker.invoke(ImmutableList.of("help", "door"), new PrintStream(new ByteArrayOutputStream(), true), System.err);
+		assertEquals(exit, 0);
+		assertThat(phases, hasItems("help homecontrol door"));
+	}
+
+	@Test(timeOut = 10_000L)
+	public void invokeAsync_listener_executeReported() throws Exception
+	{
+		List<String> phases = new ArrayList<>();
+		LifecycleListener listener = (context, phase, startNanos, durationNanos) -> {
+			synchronized (phases) {
+				phases.add(phase.getDisplayName()+" "+(context == null ? "" : context.getCommandPath().trim()));
+			}
+		};
+		CommandInvoker invoker = new CommandInvoker(new CommonAppContext(GuiceBeanFactory.create(listener),
+				CommandExecutor.getDefault(), listener), "homecontrol", HomeControlCommand.class);
+
+		int exit = invoker.invokeAsync(ImmutableList.of("--id", "my", "door", "--door", "front", "open"),
+				new PrintStream(new ByteArrayOutputStream(), true), System.err).toCompletableFuture().get();
+		assertEquals(exit, 0);
+		synchronized (phases) {
+			assertThat(phases, hasItems(
+					"execute homecontrol door open",
+					"execute homecontrol door",
+					"execute homecontrol"
+			));
+		}
+	}
+
+	@Test
+	public void invoke_traceTiming_reportPrinted() throws Exception
+	{
+		CommandInvoker invoker = new CommandInvoker(new CommonAppContext(GuiceBeanFactory.create(LifecycleListener.NONE)),
+				"homecontrol", HomeControlCommand.class);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+		int exit = invoker.invoke(ImmutableList.of(TimingTrace.TRACE_TIMING_ARGUMENT, "--id", "my", "door", "--door", "front", "open"),
+				new PrintStream(output, true), new PrintStream(error, true));
+		assertEquals(exit, 0);
+		assertEquals(new String(output.toByteArray(), StandardCharsets.UTF_8), "Door open: front\n");
+		String report = new String(error.toByteArray(), StandardCharsets.UTF_8);
+		assertThat(report, containsString("Timing (ms):\n"));
+		assertThat(report, containsString("  create-child      homecontrol door open\n"));
+		assertThat(report, containsString("  execute           homecontrol door open\n"));
+	}
+
+	@Test
+	public void invoke_noTrace_noReport() throws Exception
+	{
+		CommandInvoker invoker = new CommandInvoker(new CommonAppContext(GuiceBeanFactory.create(LifecycleListener.NONE)),
+				"homecontrol", HomeControlCommand.class);
+		ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+		int exit = invoker.invoke(ImmutableList.of("--id", "my", "door", "--door", "front", "close"),
+				new PrintStream(new ByteArrayOutputStream(), true), new PrintStream(error, true));
+		assertEquals(exit, 0);
+		assertThat(new String(error.toByteArray(), StandardCharsets.UTF_8), not(containsString("Timing")));
+	}
+
+	@Test
+	public void invoke_traceTimingNotEnabled_passedToCommand() throws Exception
+	{
+		CommandInvoker invoker = new CommandInvoker(new CommonAppContext(GuiceBeanFactory.create(LifecycleListener.NONE)),
+				"own", OwnTraceCommand.class);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+		int exit = invoker.invoke(ImmutableList.of(TimingTrace.TRACE_TIMING_ARGUMENT),
+				new PrintStream(output, true), new PrintStream(error, true));
+		assertEquals(exit, 0);
+		assertEquals(new String(output.toByteArray(), StandardCharsets.UTF_8), "own trace\n");
+		assertEquals(error.size(), 0);
+	}
+
+	@Test
+	public void print_startup_onlyIfRequested()
+	{
+		ByteArrayOutputStream first = new ByteArrayOutputStream();
+		new TimingTrace(LifecycleListener.NONE, true).print(new PrintStream(first, true));
+		assertThat(new String(first.toByteArray(), StandardCharsets.UTF_8), containsString("  startup "));
+
+		ByteArrayOutputStream later = new ByteArrayOutputStream();
+		new TimingTrace(LifecycleListener.NONE, false).print(new PrintStream(later, true));
+		assertEquals(new String(later.toByteArray(), StandardCharsets.UTF_8), "Timing (ms):\n");
+	}
+
+	/**
+	 * Command with its own {@code --trace-timing} option, not enabling the framework trace.
+	 */
+	public static class OwnTraceCommand extends AbstractCommand
+	{
+		private boolean trace;
+
+		@Override
+		protected boolean parseOption(CommandContext context, String arg, ListIterator<String> args) throws Exception
+		{
+			if (arg.equals(TimingTrace.TRACE_TIMING_ARGUMENT)) {
+				trace = true;
+				return true;
+			}
+			return super.parseOption(context, arg, args);
+		}
+
+		@Override
+		public int execute() throws Exception
+		{
+			getCommandContext().getOutput().println(trace ? "own trace" : "no trace");
+			return EXIT_SUCCESS;
+		}
+	}
+}
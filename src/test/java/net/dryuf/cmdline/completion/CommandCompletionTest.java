@@ -0,0 +1,131 @@
+package net.dryuf.cmdline.completion;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.SimpleBeanFactory;
+import net.dryuf.cmdline.command.AbstractCommand;
+import net.dryuf.cmdline.command.Command;
+import net.dryuf.cmdline.command.CommandInvoker;
+import net.dryuf.cmdline.test.homecontrol.HomeControlCommand;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.assertEquals;
+
+
+public class CommandCompletionTest
+{
+	CommandInvoker invoker = new CommandInvoker(new CommonAppContext(new SimpleBeanFactory()), "homecontrol", HomeControlCommand.class);
+
+	@Test
+	public void complete_root_commandsAndOptions() throws Exception
+	{
+		assertEquals(complete(), Arrays.asList("door", "help", "sell"));
+		assertEquals(complete(""), Arrays.asList("door", "help", "sell"));
+		assertEquals(complete("s"), Collections.singletonList("sell"));
+		assertEquals(complete("--"), Arrays.asList("--help", "--id"));
+	}
+
+	@Test
+	public void complete_nested_descends() throws Exception
+	{
+		assertEquals(complete("--id", "x", "door", ""), Arrays.asList("close", "open"));
+		assertEquals(complete("--id", "x", "door", "--door", "X", "o"), Collections.singletonList("open"));
+		assertEquals(complete("--id", "x", "door", "--d"), Collections.singletonList("--door"));
+	}
+
+	@Test
+	public void complete_valuesAndArguments_noCandidates() throws Exception
+	{
+		assertEquals(complete("--id", ""), Collections.emptyList());
+		assertEquals(complete("--id", "x", "door", "--door", ""), Collections.emptyList());
+		assertEquals(complete("--id", "x", "sell", ""), Collections.emptyList());
+		assertEquals(complete("--id=x"), Collections.emptyList());
+	}
+
+	@Test
+	public void ofOptions_description_parsed()
+	{
+		CompletionNode node = CompletionNode.ofOptions(ImmutableMap.of(
+				"-n, --name value", "name",
+				"-v, --verbose", "verbose"
+		), ImmutableList.of("help", "--help"));
+		assertEquals(node.getOptions().find(""), Arrays.asList("--help", "--name", "--verbose", "-n", "-v"));
+		assertEquals(node.getValueOptions(), ImmutableSet.of("-n", "--name"));
+	}
+
+	@Test
+	public void completion_bashStatic_containsTree() throws Exception
+	{
+		String script = run(CommandCompletion.COMPLETION_COMMAND, "bash", "--static");
+		assertThat(script, containsString("complete -o default -F _homecontrol_complete 'homecontrol'\n"));
+		assertThat(script, containsString("\t\t':--id') ((++i));;\n"));
+		assertThat(script, containsString("\t\t' door:open') path=' door open';;\n"));
+		assertThat(script, containsString("COMPREPLY=($(compgen -W 'close open' -- \"$cur\"))"));
+	}
+
+	@Test
+	public void completion_dynamic_callsProgram() throws Exception
+	{
+		assertThat(run(CommandCompletion.COMPLETION_COMMAND, "bash"),
+				containsString("COMPREPLY=($('homecontrol' __complete \"${COMP_WORDS[@]:1:COMP_CWORD}\" 2>/dev/null))"));
+		assertThat(run(CommandCompletion.COMPLETION_COMMAND, "zsh"), containsString("#compdef homecontrol\n"));
+		assertThat(run(CommandCompletion.COMPLETION_COMMAND, "fish"),
+				containsString("complete -c 'homecontrol' -f -a '(_homecontrol_complete)'\n"));
+		assertThat(run(CommandCompletion.COMPLETION_COMMAND, "fish", "--static"), containsString("\t\t\tcase ':door'\n"));
+	}
+
+	@Test
+	public void completion_unknownShell_usage() throws Exception
+	{
+		assertEquals(invoker.invoke(ImmutableList.of(CommandCompletion.COMPLETION_COMMAND, "tcsh"),
+				new PrintStream(new ByteArrayOutputStream()), new PrintStream(new ByteArrayOutputStream())),
+				Command.EXIT_USAGE);
+	}
+
+	@Test
+	public void complete_notEnabled_passedToCommand() throws Exception
+	{
+		CommandInvoker plainInvoker = new CommandInvoker(new CommonAppContext(new SimpleBeanFactory()), "plain", PlainCommand.class);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ByteArrayOutputStream error = new ByteArrayOutputStream();
+		int exit = plainInvoker.invoke(ImmutableList.of(CommandCompletion.COMPLETE_COMMAND, ""),
+				new PrintStream(output, true, "UTF-8"), new PrintStream(error, true, "UTF-8"));
+		assertEquals(exit, Command.EXIT_USAGE);
+		assertEquals(output.size(), 0);
+		assertThat(new String(error.toByteArray(), StandardCharsets.UTF_8), containsString("Unexpected argument: __complete"));
+	}
+
+	private List<String> complete(String... words) throws Exception
+	{
+		String output = run(ImmutableList.<String>builder().add(CommandCompletion.COMPLETE_COMMAND).add(words).build().toArray(new String[0]));
+		return output.isEmpty() ? Collections.emptyList() : Arrays.asList(output.split("\n"));
+	}
+
+	private String run(String... args) throws Exception
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		int exit = invoker.invoke(Arrays.asList(args), new PrintStream(output, true, "UTF-8"), System.err);
+		assertEquals(exit, Command.EXIT_SUCCESS);
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	public static class PlainCommand extends AbstractCommand
+	{
+		@Override
+		public int execute() throws Exception
+		{
+			return EXIT_SUCCESS;
+		}
+	}
+}
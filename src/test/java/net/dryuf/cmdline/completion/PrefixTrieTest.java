@@ -0,0 +1,99 @@
+package net.dryuf.cmdline.completion;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class PrefixTrieTest
+{
+	PrefixTrie trie = PrefixTrie.of(ImmutableList.of("open", "close", "door", "do", "", "open"));
+
+	@Test
+	public void find_prefix_sorted()
+	{
+		assertEquals(trie.find(""), Arrays.asList("", "close", "do", "door", "open"));
+		assertEquals(trie.find("do"), Arrays.asList("do", "door"));
+		assertEquals(trie.find("door"), Collections.singletonList("door"));
+		assertEquals(trie.find("doors"), Collections.emptyList());
+		assertEquals(trie.find("x"), Collections.emptyList());
+	}
+
+	@Test
+	public void contains_words_exactOnly()
+	{
+		assertEquals(trie.size(), 5);
+		assertTrue(trie.contains("do"));
+		assertTrue(trie.contains(""));
+		assertFalse(trie.contains("doo"));
+		assertFalse(PrefixTrie.EMPTY.contains(""));
+		assertEquals(PrefixTrie.EMPTY.find(""), Collections.emptyList());
+	}
+
+	@Test
+	public void findWord_range_returnsIndexedInstance()
+	{
+		assertEquals(trie.findWord("--door=open", 2, 6), "door");
+		assertEquals(trie.findWord("--door=open", 2, 4), "do");
+		assertEquals(trie.findWord("--door=open", 2, 5), null);
+		assertEquals(trie.findWord("--door=open", 7, 11), "open");
+	}
+
+	@Test
+	public void findUnique_prefix_resolvedOnlyIfUnique()
+	{
+		assertEquals(trie.findUnique("o"), "open");
+		assertEquals(trie.findUnique("doo"), "door");
+		assertEquals(trie.findUnique("do"), null);
+		assertEquals(trie.findUnique("x"), null);
+		assertEquals(PrefixTrie.EMPTY.findUnique(""), null);
+	}
+
+	@Test
+	public void findSimilar_typos_sortedByDistance()
+	{
+		PrefixTrie commands = PrefixTrie.of(ImmutableList.of("status", "start", "stop", "restart", "install", "help"));
+		assertEquals(commands.findSimilar("stat", 2), Arrays.asList("start", "status", "stop"));
+		assertEquals(commands.findSimilar("hepl", 2), Collections.singletonList("help"));
+		assertEquals(commands.findSimilar("xyz", 1), Collections.emptyList());
+		assertEquals(BkTree.distance("kitten", "sitting"), 3);
+	}
+
+	@Test
+	public void findSimilar_random_sameAsLinearScan()
+	{
+		Random random = new Random(0);
+		List<String> words = new ArrayList<>();
+		for (int i = 0; i < 500; ++i)
+			words.add(randomWord(random));
+		PrefixTrie large = PrefixTrie.of(words);
+		List<String> sorted = large.find("");
+		for (int round = 0; round < 200; ++round) {
+			String word = randomWord(random);
+			List<String> expected = sorted.stream()
+					.filter(candidate -> BkTree.distance(word, candidate) <= 2)
+					.sorted(Comparator.<String>comparingInt(candidate -> BkTree.distance(word, candidate)).thenComparing(candidate -> candidate))
+					.collect(Collectors.toList());
+			assertEquals(large.findSimilar(word, 2), expected);
+		}
+	}
+
+	private static String randomWord(Random random)
+	{
+		StringBuilder word = new StringBuilder();
+		for (int i = 2+random.nextInt(5); i > 0; --i)
+			word.append((char) ('a'+random.nextInt(4)));
+		return word.toString();
+	}
+}
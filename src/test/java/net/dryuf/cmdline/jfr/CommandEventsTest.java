@@ -0,0 +1,125 @@
+package net.dryuf.cmdline.jfr;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Guice;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.dryuf.cmdline.app.BeanFactory;
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.guice.GuiceBeanFactoryModule;
+import net.dryuf.cmdline.command.CommandInvoker;
+import net.dryuf.cmdline.test.homecontrol.HomeControlCommand;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class CommandEventsTest
+{
+	CommandInvoker invoker = new CommandInvoker(
+			new CommonAppContext(Guice.createInjector(new GuiceBeanFactoryModule()).getInstance(BeanFactory.class)),
+			"homecontrol",
+			HomeControlCommand.class
+	);
+
+	@Test
+	public void begin_notRecording_null()
+	{
+		if (CommandEvents.isRecording())
+			throw new SkipException("Recording is running");
+		assertNull(CommandEvents.beginExecute());
+		assertNull(CommandEvents.beginGetBean());
+	}
+
+	@Test(timeOut = 60_000L)
+	public void invoke_recording_eventsCommitted() throws Exception
+	{
+		if (!FlightRecorder.isAvailable())
+			throw new SkipException("Flight Recorder not available");
+		Path file = Files.createTempFile("commands", ".jfr");
+		try {
+			try (Recording recording = new Recording()) {
+				recording.enable("net.dryuf.cmdline.CommandSetup");
+				recording.enable("net.dryuf.cmdline.CommandExecute");
+				recording.enable("net.dryuf.cmdline.GetBean");
+				recording.enable("net.dryuf.cmdline.CreateChildBeanFactory");
+				recording.start();
+				assertTrue(CommandEvents.isRecording());
+				invoker.invoke(ImmutableList.of("--id", "my", "door", "--door", "front", "open"),
+						new PrintStream(new ByteArrayOutputStream(), true), System.err);
+				recording.stop();
+				assertFalse(CommandEvents.isRecording());
+				recording.dump(file);
+			}
+			List<String> events = RecordingFile.readAllEvents(file).stream()
+					.map(CommandEventsTest::describe)
+					.collect(Collectors.toList());
+			assertThat(events, hasItems(
+					"net.dryuf.cmdline.CommandSetup homecontrol -1",
+					"net.dryuf.cmdline.CommandSetup homecontrol door open -1",
+					"net.dryuf.cmdline.CommandExecute homecontrol 0",
+					"net.dryuf.cmdline.CommandExecute homecontrol door open 0",
+					"net.dryuf.cmdline.GetBean net.dryuf.cmdline.test.homecontrol.HomeControlCommand",
+					"net.dryuf.cmdline.CreateChildBeanFactory 1"
+			));
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(timeOut = 60_000L)
+	public void invokeAsync_recording_executeCommitted() throws Exception
+	{
+		if (!FlightRecorder.isAvailable())
+			throw new SkipException("Flight Recorder not available");
+		Path file = Files.createTempFile("commands", ".jfr");
+		try {
+			try (Recording recording = new Recording()) {
+				recording.enable("net.dryuf.cmdline.CommandExecute");
+				recording.start();
+				// other subcommand than invoke_recording_eventsCommitted, JFR may keep pooled strings across recordings:
+				invoker.invokeAsync(ImmutableList.of("--id", "my", "door", "--door", "front", "close"),
+						new PrintStream(new ByteArrayOutputStream(), true), System.err).toCompletableFuture().get();
+				recording.stop();
+				recording.dump(file);
+			}
+			List<String> events = RecordingFile.readAllEvents(file).stream()
+					.map(CommandEventsTest::describe)
+					.collect(Collectors.toList());
+			assertThat(events, hasItems(
+					"net.dryuf.cmdline.CommandExecute homecontrol 0",
+					"net.dryuf.cmdline.CommandExecute homecontrol door 0",
+					"net.dryuf.cmdline.CommandExecute homecontrol door close 0"
+			));
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	private static String describe(RecordedEvent event)
+	{
+		String name = event.getEventType().getName();
+		if (event.hasField("commandPath"))
+			return name+" "+event.getString("commandPath")+" "+event.getInt("exitCode");
+		else if (event.hasField("beanType"))
+			return name+" "+event.getString("beanType");
+		else
+			return name+" "+event.getInt("beanCount");
+	}
+}
@@ -0,0 +1,161 @@
+package net.dryuf.cmdline.options;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.ListIterator;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+
+public class OptionsDefinitionTest
+{
+	OptionsDefinition definition = OptionsDefinition.of(TestOptions.class);
+
+	@Test
+	public void parseOption_all_bound()
+	{
+		TestOptions options = new TestOptions();
+		ListIterator<String> args = ImmutableList.of("-n", "name", "--verbose", "--tag", "a", "--tag", "b").listIterator();
+		while (args.hasNext()) {
+			assertTrue(definition.parseOption(options, args.next(), args));
+		}
+		assertEquals(options.name, "name");
+		assertTrue(options.verbose);
+		assertEquals(options.tags, ImmutableList.of("a", "b"));
+	}
+
+	@Test
+	public void parseOption_unknown_notConsumed()
+	{
+		assertFalse(definition.parseOption(new TestOptions(), "--unknown", ImmutableList.<String>of().listIterator()));
+	}
+
+	@Test
+	public void parseOption_twice_fails()
+	{
+		TestOptions options = new TestOptions();
+		definition.parseOption(options, "--name", ImmutableList.of("one").listIterator());
+		expectThrows(IllegalArgumentException.class, () ->
+				definition.parseOption(options, "--name", ImmutableList.of("two").listIterator())
+		);
+	}
+
+	@Test
+	public void parseParameters_remaining_collected()
+	{
+		TestOptions options = new TestOptions();
+		definition.parseParameters(options, ImmutableList.of("src", "one", "two").listIterator());
+		assertEquals(options.source, "src");
+		assertEquals(options.files, ImmutableList.of("one", "two"));
+	}
+
+	@Test
+	public void validate_missingRequired_error()
+	{
+		TestOptions options = new TestOptions();
+		assertEquals(definition.validate(options), "Option --name not specified");
+		options.name = "name";
+		assertEquals(definition.validate(options), "Parameter source not specified");
+		options.source = "src";
+		assertNull(definition.validate(options));
+	}
+
+	@Test
+	public void description_fromAnnotations()
+	{
+		assertEquals(definition.getOptionsDescription(), ImmutableMap.of(
+				"-n, --name name", "name of item",
+				"--verbose", "verbose output",
+				"--tag value", "tags"
+		));
+		assertEquals(definition.getParametersDescription(), ImmutableMap.of(
+				"source", "source file",
+				"files...", "other files"
+		));
+	}
+
+	@Test
+	public void parseOption_typed_converted()
+	{
+		TypedOptions options = new TypedOptions();
+		OptionsDefinition typed = OptionsDefinition.of(TypedOptions.class);
+		ListIterator<String> args = ImmutableList.of(
+				"--count", "3", "--limit", "10MiB", "--ratio", "0.5", "--timeout", "2s", "--port", "80", "--port", "81"
+		).listIterator();
+		while (args.hasNext()) {
+			assertTrue(typed.parseOption(options, args.next(), args));
+		}
+		typed.parseParameters(options, ImmutableList.of("dir").listIterator());
+		assertEquals(options.count, 3);
+		assertEquals(options.limit, 10L<<20);
+		assertEquals(options.ratio, 0.5);
+		assertEquals(options.timeout, Duration.ofSeconds(2));
+		assertEquals(options.ports, ImmutableList.of(80, 81));
+		assertEquals(options.directory, Paths.get("dir"));
+	}
+
+	@Test
+	public void parseOption_invalidTyped_fails()
+	{
+		OptionsDefinition typed = OptionsDefinition.of(TypedOptions.class);
+		assertEquals(expectThrows(IllegalArgumentException.class, () ->
+				typed.parseOption(new TypedOptions(), "--count", ImmutableList.of("x").listIterator())
+		).getMessage(), "invalid integer: x");
+		expectThrows(IllegalArgumentException.class, () -> OptionsDefinition.of(RequiredPrimitiveOptions.class));
+	}
+
+	public static class TypedOptions
+	{
+		@Option(value = "--count")
+		int count;
+
+		@Option(value = "--limit", converter = ValueConverters.Size.class)
+		long limit;
+
+		@Option(value = "--ratio")
+		double ratio;
+
+		@Option(value = "--timeout")
+		Duration timeout;
+
+		@Option(value = "--port")
+		List<Integer> ports;
+
+		@Parameter(value = "directory")
+		Path directory;
+	}
+
+	public static class RequiredPrimitiveOptions
+	{
+		@Option(value = "--count", required = true)
+		int count;
+	}
+
+	public static class TestOptions
+	{
+		@Option(value = { "-n", "--name" }, valueName = "name", description = "name of item", required = true)
+		String name;
+
+		@Option(value = "--verbose", description = "verbose output")
+		boolean verbose;
+
+		@Option(value = "--tag", description = "tags")
+		List<String> tags;
+
+		@Parameter(value = "files...", index = 1, description = "other files", required = false)
+		List<String> files;
+
+		@Parameter(value = "source", description = "source file")
+		String source;
+	}
+}
@@ -0,0 +1,74 @@
+package net.dryuf.cmdline.options;
+
+import org.testng.annotations.Test;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.expectThrows;
+
+
+public class ValueConvertersTest
+{
+	@Test
+	public void of_types_resolvedOnce()
+	{
+		assertSame(ValueConverters.of(int.class), ValueConverters.INT);
+		assertSame(ValueConverters.of(Long.class), ValueConverters.LONG);
+		assertSame(ValueConverters.of(Unit.class), ValueConverters.of(Unit.class));
+		assertEquals(ValueConverters.of(String.class).convert("text"), "text");
+		assertEquals(ValueConverters.of(java.nio.file.Path.class).convert("a/b"), Paths.get("a/b"));
+		expectThrows(IllegalArgumentException.class, () -> ValueConverters.of(Object.class));
+	}
+
+	@Test
+	public void parseInt_invalid_message()
+	{
+		assertEquals(ValueConverters.parseInt("-12"), -12);
+		assertEquals(expectThrows(IllegalArgumentException.class, () -> ValueConverters.parseInt("x")).getMessage(),
+				"invalid integer: x");
+	}
+
+	@Test
+	public void parseSize_units_multiplied()
+	{
+		assertEquals(ValueConverters.parseSize("512"), 512L);
+		assertEquals(ValueConverters.parseSize("10MiB"), 10L<<20);
+		assertEquals(ValueConverters.parseSize("2GB"), 2_000_000_000L);
+		assertEquals(ValueConverters.parseSize("4k"), 4096L);
+		expectThrows(IllegalArgumentException.class, () -> ValueConverters.parseSize("MiB"));
+		expectThrows(IllegalArgumentException.class, () -> ValueConverters.parseSize("10XB"));
+		expectThrows(IllegalArgumentException.class, () -> ValueConverters.parseSize("99999999TiB"));
+	}
+
+	@Test
+	public void parseDuration_formats_parsed()
+	{
+		assertEquals(ValueConverters.parseDuration("PT1M30S"), Duration.ofSeconds(90));
+		assertEquals(ValueConverters.parseDuration("1h30m"), Duration.ofMinutes(90));
+		assertEquals(ValueConverters.parseDuration("250ms"), Duration.ofMillis(250));
+		assertEquals(ValueConverters.parseDuration("5us"), Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(5)));
+		assertEquals(ValueConverters.parseDuration("7"), Duration.ofSeconds(7));
+		expectThrows(IllegalArgumentException.class, () -> ValueConverters.parseDuration("1x"));
+		expectThrows(IllegalArgumentException.class, () -> ValueConverters.parseDuration("ms"));
+		expectThrows(IllegalArgumentException.class, () -> ValueConverters.parseDuration(""));
+	}
+
+	@Test
+	public void enum_caseInsensitive_dashes()
+	{
+		ValueConverter<Unit> converter = ValueConverters.of(Unit.class);
+		assertEquals(converter.convert("Kilo-Byte"), Unit.KILO_BYTE);
+		assertEquals(expectThrows(IllegalArgumentException.class, () -> converter.convert("giga")).getMessage(),
+				"invalid value: giga, expected one of: byte, kilo_byte");
+	}
+
+	enum Unit
+	{
+		BYTE,
+		KILO_BYTE,
+	}
+}
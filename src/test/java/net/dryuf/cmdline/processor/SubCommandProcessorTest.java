@@ -0,0 +1,73 @@
+package net.dryuf.cmdline.processor;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import com.google.inject.Guice;
+import net.dryuf.cmdline.app.BeanFactory;
+import net.dryuf.cmdline.app.guice.GuiceBeanFactoryModule;
+import net.dryuf.cmdline.command.HelpOfHelpCommand;
+import net.dryuf.cmdline.command.SubCommandRegistry;
+import net.dryuf.cmdline.test.homecontrol.DoorCommand;
+import net.dryuf.cmdline.test.homecontrol.HomeControlCommand;
+import net.dryuf.cmdline.test.homecontrol.SellCommand;
+import org.testng.annotations.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.assertEquals;
+
+
+public class SubCommandProcessorTest
+{
+	BeanFactory beanFactory = Guice.createInjector(new GuiceBeanFactoryModule()).getInstance(BeanFactory.class);
+
+	@Test
+	public void of_annotated_generated()
+	{
+		SubCommandRegistry registry = SubCommandRegistry.of(HomeControlCommand.class);
+		assertEquals(registry.getClass().getName(), HomeControlCommand.class.getName()+"_SubCommands");
+		assertEquals(registry.getSubCommands(), ImmutableMap.of(
+				"help", HelpOfHelpCommand.class,
+				"door", DoorCommand.class,
+				"sell", SellCommand.class
+		));
+		assertEquals(registry.getCommandsDescription().keySet().iterator().next(), "help [command]");
+		assertEquals(registry.getSubCommandEntries().get("door").toString(), DoorCommand.class.getName());
+	}
+
+	@Test
+	public void createCommand_injectConstructor_constructed()
+	{
+		SubCommandRegistry registry = SubCommandRegistry.of(HomeControlCommand.class);
+		BeanFactory child = beanFactory.createChild(ImmutableMap.of(HomeControlCommand.Options.class, new HomeControlCommand.Options()));
+		assertThat(registry.createCommand(DoorCommand.class, child), instanceOf(DoorCommand.class));
+		assertThat(registry.createCommand(SellCommand.class, child), instanceOf(SellCommand.class));
+	}
+
+	@Test
+	public void createCommand_nested_constructed()
+	{
+		SubCommandRegistry registry = SubCommandRegistry.of(DoorCommand.class);
+		BeanFactory child = beanFactory.createChild(ImmutableMap.of(DoorCommand.Options.class, new DoorCommand.Options()));
+		assertThat(registry.createCommand(DoorCommand.OpenCommand.class, child), instanceOf(DoorCommand.OpenCommand.class));
+	}
+
+	@Test
+	public void nativeImage_reflectConfig_generated() throws Exception
+	{
+		String config;
+		try (InputStream input = getClass().getClassLoader().getResourceAsStream(
+				"META-INF/native-image/net.dryuf.cmdline.generated/net.dryuf.cmdline.test.homecontrol/reflect-config.json")) {
+			assertThat(input, notNullValue());
+			config = new String(ByteStreams.toByteArray(input), StandardCharsets.UTF_8);
+		}
+		assertThat(config, containsString("\"net.dryuf.cmdline.test.homecontrol.DoorCommand$Options\""));
+		assertThat(config, containsString("\"net.dryuf.cmdline.test.homecontrol.DoorCommand_SubCommands\""));
+		assertThat(config, containsString("\"net.dryuf.cmdline.test.homecontrol.SellCommand\""));
+	}
+}
@@ -0,0 +1,259 @@
+package net.dryuf.cmdline.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Guice;
+import net.dryuf.cmdline.app.BeanFactory;
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.SimpleBeanFactory;
+import net.dryuf.cmdline.app.guice.GuiceBeanFactoryModule;
+import net.dryuf.cmdline.command.AbstractCommand;
+import net.dryuf.cmdline.command.Command;
+import net.dryuf.cmdline.command.CommandInvoker;
+import net.dryuf.cmdline.test.homecontrol.HomeControlCommand;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+
+public class CommandServerTest
+{
+	CommandInvoker invoker = new CommandInvoker(
+			new CommonAppContext(Guice.createInjector(new GuiceBeanFactoryModule()).getInstance(BeanFactory.class)),
+			"homecontrol",
+			HomeControlCommand.class
+	);
+
+	@Test(timeOut = 10_000L)
+	public void serve_loopback_runsRepeatedly() throws Exception
+	{
+		try (CommandServer server = CommandServer.openLoopback(invoker, 0)) {
+			Thread thread = new Thread(() -> {
+				try {
+					server.serve();
+				}
+				catch (Exception ex) {
+					throw new RuntimeException(ex);
+				}
+			});
+			thread.start();
+			int port = ((InetSocketAddress) server.getServerChannel().getLocalAddress()).getPort();
+
+			for (String door: ImmutableList.of("front", "back")) {
+				ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+				ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+				int exit = CommandClient.executeLoopback(
+						port,
+						ImmutableList.of("--id", "my", "door", "--door", door, "open"),
+						stdout,
+						stderr
+				);
+				assertEquals(exit, Command.EXIT_SUCCESS);
+				assertEquals(new String(stdout.toByteArray(), StandardCharsets.UTF_8), "Door open: "+door+"\n");
+				assertEquals(stderr.size(), 0);
+			}
+
+			ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+			ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+			int exit = CommandClient.executeLoopback(port, ImmutableList.of("door"), stdout, stderr);
+			assertEquals(exit, Command.EXIT_USAGE);
+			assertThat(new String(stderr.toByteArray(), StandardCharsets.UTF_8), containsString("Option --id not specified"));
+
+			server.close();
+			thread.join();
+		}
+	}
+
+	@Test(timeOut = 20_000L)
+	public void serve_concurrentClients_isolated() throws Exception
+	{
+		try (CommandServer server = CommandServer.openLoopback(invoker, 0)) {
+			Thread thread = new Thread(() -> {
+				try {
+					server.serve();
+				}
+				catch (Exception ex) {
+					throw new RuntimeException(ex);
+				}
+			});
+			thread.start();
+			int port = ((InetSocketAddress) server.getServerChannel().getLocalAddress()).getPort();
+
+			ExecutorService executor = Executors.newFixedThreadPool(8);
+			try {
+				List<Future<String>> results = new ArrayList<>();
+				for (int i = 0; i < 64; ++i) {
+					String door = "d"+i;
+					results.add(executor.submit(() -> {
+						ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+						ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+						int exit = CommandClient.executeLoopback(
+								port,
+								ImmutableList.of("--id", "my", "door", "--door", door, "close"),
+								stdout,
+								stderr
+						);
+						assertEquals(exit, Command.EXIT_SUCCESS);
+						return new String(stdout.toByteArray(), StandardCharsets.UTF_8);
+					}));
+				}
+				for (int i = 0; i < results.size(); ++i) {
+					assertEquals(results.get(i).get(), "Door closed: d"+i+"\n");
+				}
+			}
+			finally {
+				executor.shutdownNow();
+			}
+
+			server.close();
+			thread.join();
+		}
+	}
+
+	@Test(timeOut = 10_000L)
+	public void serve_unix_runsCommand() throws Exception
+	{
+		if (!isUnixSocketSupported())
+			return;
+		Path directory = Files.createTempDirectory("CommandServerTest");
+		Path socket = directory.resolve("socket");
+		try (CommandServer server = CommandServer.openUnix(invoker, socket)) {
+			Thread thread = new Thread(() -> {
+				try {
+					server.serve();
+				}
+				catch (Exception ex) {
+					throw new RuntimeException(ex);
+				}
+			});
+			thread.start();
+
+			ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+			ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+			int exit = CommandClient.executeUnix(socket, ImmutableList.of("--id", "my", "sell"), stdout, stderr);
+			assertEquals(exit, Command.EXIT_SUCCESS);
+			assertEquals(new String(stdout.toByteArray(), StandardCharsets.UTF_8), "Home sold\n");
+
+			server.close();
+			thread.join();
+		}
+		finally {
+			Files.deleteIfExists(socket);
+			Files.delete(directory);
+		}
+	}
+
+	@Test(timeOut = 10_000L)
+	public void openUnix_existingPath_fails() throws Exception
+	{
+		if (!isUnixSocketSupported())
+			return;
+		Path file = Files.createTempFile("CommandServerTest", ".socket");
+		try {
+			CommandServer.openUnix(invoker, file).close();
+			fail("Expected bind to fail on existing file");
+		}
+		catch (IOException ex) {
+			// expected, the channel is closed
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(timeOut = 30_000L)
+	public void serve_timeoutWithRunningCommand_exitFrameLast() throws Exception
+	{
+		CommandInvoker writingInvoker = new CommandInvoker(new CommonAppContext(new SimpleBeanFactory()), "writing",
+				WritingCommand.class);
+		ByteArrayOutputStream serverError = new ByteArrayOutputStream();
+		try (CommandServer server = CommandServer.openLoopback(writingInvoker, 0)) {
+			server.setTimeout(Duration.ofMillis(100));
+			server.setErrorStream(new PrintStream(serverError, true));
+			Thread thread = new Thread(() -> {
+				try {
+					server.serve();
+				}
+				catch (Exception ex) {
+					throw new RuntimeException(ex);
+				}
+			});
+			thread.start();
+			int port = ((InetSocketAddress) server.getServerChannel().getLocalAddress()).getPort();
+
+			// the interrupt on timeout must not prevent sending the exit frame, repeated as it used to fail randomly:
+			for (int i = 0; i < 20; ++i) {
+				ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+				ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+				int exit = CommandClient.executeLoopback(port, ImmutableList.of(), stdout, stderr);
+				assertEquals(exit, Command.EXIT_TIMEOUT);
+				assertThat(new String(stdout.toByteArray(), StandardCharsets.UTF_8), startsWith("line\n"));
+				assertThat(new String(stderr.toByteArray(), StandardCharsets.UTF_8), containsString("Timed out after 100 ms"));
+			}
+
+			// let the command write after the exit frame, before stopping it:
+			Thread.sleep(200);
+			WritingCommand.stop = true;
+			server.close();
+			thread.join();
+			assertEquals(serverError.size(), 0);
+		}
+		finally {
+			WritingCommand.stop = false;
+		}
+	}
+
+	private static boolean isUnixSocketSupported()
+	{
+		try {
+			Class.forName("java.net.UnixDomainSocketAddress");
+			return true;
+		}
+		catch (ClassNotFoundException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Keeps writing lines and ignoring interrupts until stopped.
+	 */
+	public static class WritingCommand extends AbstractCommand
+	{
+		static volatile boolean stop;
+
+		@Override
+		public int execute() throws Exception
+		{
+			while (!stop) {
+				// keep the thread writing most of the time, so the interrupt likely hits the write:
+				for (int i = 0; i < 1000; ++i)
+					getCommandContext().getOutput().println("line");
+				getCommandContext().getOutput().flush();
+				try {
+					Thread.sleep(1);
+				}
+				catch (InterruptedException ex) {
+					// ignore, simulates command not reacting to cancellation
+				}
+			}
+			return EXIT_SUCCESS;
+		}
+	}
+}
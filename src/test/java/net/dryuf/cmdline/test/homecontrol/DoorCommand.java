@@ -1,29 +1,24 @@
 package net.dryuf.cmdline.test.homecontrol;
 
-import com.google.common.collect.ImmutableMap;
 import lombok.RequiredArgsConstructor;
 import net.dryuf.cmdline.command.AbstractCommand;
 import net.dryuf.cmdline.command.AbstractParentCommand;
-import net.dryuf.cmdline.command.Command;
 import net.dryuf.cmdline.command.CommandContext;
+import net.dryuf.cmdline.command.SubCommand;
+import net.dryuf.cmdline.options.Option;
 
 import javax.inject.Inject;
 import java.util.Collections;
-import java.util.ListIterator;
-import java.util.Map;
 
 
 /**
  * Sell command, example of no-arguments command.
  */
 @RequiredArgsConstructor(onConstructor = @__(@Inject))
+@SubCommand(name = "open", command = DoorCommand.OpenCommand.class, description = "Opens door, provide some really long description so we can see the words wrapping")
+@SubCommand(name = "close", command = DoorCommand.CloseCommand.class, description = "Close door")
 public class DoorCommand extends AbstractParentCommand
 {
-	private static final Map<String, Class<? extends Command>> COMMANDS = ImmutableMap.of(
-			"open", OpenCommand.class,
-			"close", CloseCommand.class
-	);
-
 	private final HomeControlCommand.Options homeOptions;
 
 	private Options options;
@@ -35,25 +30,9 @@ public class DoorCommand extends AbstractParentCommand
 	}
 
 	@Override
-	protected boolean parseOption(CommandContext context, String arg, ListIterator<String> args) throws Exception
-	{
-		switch (arg) {
-		case "--door":
-			options.doorId = needArgsParam(options.doorId, args);
-			return true;
-
-		default:
-			return super.parseOption(context, arg, args);
-		}
-	}
-
-	@Override
-	protected int validateOptions(CommandContext context, ListIterator<String> args) throws Exception
+	protected Object getOptionsBean()
 	{
-		if (options.doorId == null) {
-			return usage(context, "Option --door not specified");
-		}
-		return EXIT_CONTINUE;
+		return options;
 	}
 
 	@Override
@@ -62,29 +41,6 @@ public class DoorCommand extends AbstractParentCommand
 		return "Controls door.";
 	}
 
-	@Override
-	protected Map<String, String> configOptionsDescription(CommandContext context)
-	{
-		return ImmutableMap.of(
-				"--door doorId", "id of door to control"
-		);
-	}
-
-	@Override
-	protected Map<String, String> configCommandsDescription(CommandContext context)
-	{
-		return ImmutableMap.of(
-				"open", "Opens door, provide some really long description so we can see the words wrapping",
-				"close", "Close door"
-		);
-	}
-
-	@Override
-	protected Map<String, Class<? extends Command>> configSubCommands(CommandContext context)
-	{
-		return COMMANDS;
-	}
-
 	@Override
 	protected CommandContext createChildContext(CommandContext commandContext, String name, boolean isHelp)
 	{
@@ -93,6 +49,7 @@ public class DoorCommand extends AbstractParentCommand
 
 	public static class Options
 	{
+		@Option(value = "--door", valueName = "doorId", description = "id of door to control", required = true)
 		String doorId;
 	}
 
@@ -110,7 +67,7 @@ public class DoorCommand extends AbstractParentCommand
 		@Override
 		public int execute() throws Exception
 		{
-			System.out.println("Door open: " + doorOptions.doorId);
+			getCommandContext().getOutput().println("Door open: " + doorOptions.doorId);
 			return EXIT_SUCCESS;
 		}
 	}
@@ -129,7 +86,7 @@ public class DoorCommand extends AbstractParentCommand
 		@Override
 		public int execute() throws Exception
 		{
-			System.out.println("Door closed: " + doorOptions.doorId);
+			getCommandContext().getOutput().println("Door closed: " + doorOptions.doorId);
 			return EXIT_SUCCESS;
 		}
 	}
@@ -1,17 +1,14 @@
 package net.dryuf.cmdline.test.homecontrol;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.inject.Guice;
 import net.dryuf.cmdline.app.AppContext;
-import net.dryuf.cmdline.app.BeanFactory;
 import net.dryuf.cmdline.app.CommonAppContext;
-import net.dryuf.cmdline.app.guice.GuiceBeanFactory;
-import net.dryuf.cmdline.app.guice.GuiceBeanFactoryModule;
+import net.dryuf.cmdline.app.SimpleBeanFactory;
 import net.dryuf.cmdline.command.AbstractParentCommand;
-import net.dryuf.cmdline.command.Command;
 import net.dryuf.cmdline.command.CommandContext;
 import net.dryuf.cmdline.command.HelpOfHelpCommand;
 import net.dryuf.cmdline.command.RootCommandContext;
+import net.dryuf.cmdline.command.SubCommand;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -23,14 +20,11 @@ import java.util.Map;
  * Example of command line utility with the framework.
  * Further use of command line options is recommended, here keeping it simple to avoid Maven dependencies.
  */
+@SubCommand(name = "help", command = HelpOfHelpCommand.class, arguments = "[command]", description = "Prints help or help of subcommand")
+@SubCommand(name = "door", command = DoorCommand.class, arguments = "arguments...", description = "Controls door")
+@SubCommand(name = "sell", command = SellCommand.class, description = "Sells the home")
 public class HomeControlCommand extends AbstractParentCommand
 {
-	private static final Map<String, Class<? extends Command>> COMMANDS = ImmutableMap.of(
-			"help", HelpOfHelpCommand.class,
-			"door", DoorCommand.class,
-			"sell", SellCommand.class
-	);
-
 	private Options options;
 
 	/**
@@ -44,7 +38,8 @@ public class HomeControlCommand extends AbstractParentCommand
 	 */
 	public static void main(String[] args) throws Exception
 	{
-		AppContext appContext = new CommonAppContext(Guice.createInjector(new GuiceBeanFactoryModule()).getInstance(BeanFactory.class));
+		// SimpleBeanFactory needs only the generated reflection configuration, so the same main runs as native image:
+		AppContext appContext = new CommonAppContext(new SimpleBeanFactory());
 		System.exit(new HomeControlCommand().run(
 				new RootCommandContext(appContext).createChild(null, "homecontrol", null),
 				Arrays.asList(args)
@@ -58,27 +53,23 @@ public class HomeControlCommand extends AbstractParentCommand
 	}
 
 	@Override
-	protected Map<String, String> configOptionsDescription(CommandContext context)
+	protected boolean configTraceTiming(CommandContext context)
 	{
-		return ImmutableMap.of(
-				"--id homeId", "id of home, according to your list of homes you own or control"
-		);
+		return true;
 	}
 
 	@Override
-	protected Map<String, String> configCommandsDescription(CommandContext context)
+	protected boolean configCompletion(CommandContext context)
 	{
-		return ImmutableMap.of(
-				"help [command]", "Prints help or help of subcommand",
-				"door arguments...", "Controls door",
-				"sell", "Sells the home"
-		);
+		return true;
 	}
 
 	@Override
-	protected Map<String, Class<? extends Command>> configSubCommands(CommandContext context)
+	protected Map<String, String> configOptionsDescription(CommandContext context)
 	{
-		return COMMANDS;
+		return ImmutableMap.of(
+				"--id homeId", "id of home, according to your list of homes you own or control"
+		);
 	}
 
 	@Override
@@ -0,0 +1,81 @@
+package net.dryuf.cmdline.test.homecontrol;
+
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.assertEquals;
+
+
+/**
+ * Smoke test of HomeControl sample built as native image, run by native profile.
+ */
+public class HomeControlNativeIT
+{
+	@Test(timeOut = 60_000L)
+	public void run_doorOpen_printed() throws Exception
+	{
+		Result result = run("--id", "my", "door", "--door", "front", "open");
+		assertEquals(result.exitCode, 0);
+		assertEquals(result.output, "Door open: front\n");
+	}
+
+	@Test(timeOut = 60_000L)
+	public void run_help_printed() throws Exception
+	{
+		Result result = run("help", "door");
+		assertEquals(result.exitCode, 0);
+		assertThat(result.output, containsString("--door doorId"));
+	}
+
+	@Test(timeOut = 60_000L)
+	public void run_missingOption_usage() throws Exception
+	{
+		Result result = run("sell");
+		assertEquals(result.exitCode, 122);
+	}
+
+	private static Result run(String... args) throws Exception
+	{
+		String binary = System.getProperty("homecontrol.native");
+		if (binary == null)
+			throw new SkipException("homecontrol.native property not set, run with -Pnative");
+		List<String> command = new ArrayList<>();
+		command.add(binary);
+		command.addAll(Arrays.asList(args));
+		Process process = new ProcessBuilder(command)
+				.redirectError(ProcessBuilder.Redirect.INHERIT)
+				.start();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (InputStream input = process.getInputStream()) {
+			byte[] buffer = new byte[4096];
+			for (int size; (size = input.read(buffer)) > 0; )
+				output.write(buffer, 0, size);
+		}
+		if (!process.waitFor(30, TimeUnit.SECONDS))
+			throw new IllegalStateException("Process did not finish: "+command);
+		return new Result(process.exitValue(), new String(output.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	private static class Result
+	{
+		final int exitCode;
+
+		final String output;
+
+		Result(int exitCode, String output)
+		{
+			this.exitCode = exitCode;
+			this.output = output;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package net.dryuf.cmdline.test.homecontrol;
+
+import com.google.inject.Guice;
+import net.dryuf.cmdline.app.AppContext;
+import net.dryuf.cmdline.app.BeanFactory;
+import net.dryuf.cmdline.app.CommonAppContext;
+import net.dryuf.cmdline.app.guice.GuiceBeanFactoryModule;
+import net.dryuf.cmdline.batch.TrainingRunner;
+import net.dryuf.cmdline.command.CommandInvoker;
+
+import java.nio.file.Paths;
+
+
+/**
+ * Training run of HomeControl sample, executed by appcds profile to record the AppCDS archive.
+ */
+public class HomeControlTraining
+{
+	/**
+	 * Entry point.
+	 *
+	 * @param args
+	 * 	optional file with training argument vectors
+	 *
+	 * @throws Exception
+	 * 	in case of error.
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		AppContext appContext = new CommonAppContext(Guice.createInjector(new GuiceBeanFactoryModule()).getInstance(BeanFactory.class));
+		TrainingRunner runner = new TrainingRunner(new CommandInvoker(appContext, "homecontrol", HomeControlCommand.class));
+		int count = args.length == 0 ? runner.train() : runner.train(Paths.get(args[0]));
+		System.err.println("Training invocations: "+count);
+		System.exit(0);
+	}
+}